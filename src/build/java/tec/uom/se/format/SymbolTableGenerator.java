@@ -0,0 +1,179 @@
+/*
+ * Units of Measurement Implementation for Java SE
+ * Copyright (c) 2005-2017, Jean-Marie Dautelle, Werner Keil, V2COM.
+ *
+ * All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without modification,
+ * are permitted provided that the following conditions are met:
+ *
+ * 1. Redistributions of source code must retain the above copyright notice,
+ *    this list of conditions and the following disclaimer.
+ *
+ * 2. Redistributions in binary form must reproduce the above copyright notice, this list of conditions
+ *    and the following disclaimer in the documentation and/or other materials provided with the distribution.
+ *
+ * 3. Neither the name of JSR-363 nor the names of its contributors may be used to endorse or promote products
+ *    derived from this software without specific prior written permission.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS"
+ * AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO,
+ * THE IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE
+ * ARE DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT HOLDER OR CONTRIBUTORS BE LIABLE
+ * FOR ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES
+ * (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES;
+ * LOSS OF USE, DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED
+ * AND ON ANY THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT
+ * (INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE OF THIS SOFTWARE,
+ * EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ */
+package tec.uom.se.format;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.Writer;
+import java.net.URL;
+import java.net.URLClassLoader;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.ResourceBundle;
+import java.util.TreeMap;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+/**
+ * Generates the <code>GeneratedSymbolTables</code> class used by {@link SymbolMap} from the <code>messages*.properties</code> bundles, so that the
+ * units and prefixes are referenced directly by their static fields instead of being looked up by reflection at runtime. An unknown field makes
+ * the generated source fail to compile, which catches typos in the bundles at build time.
+ * <p>
+ * Usage: <code>SymbolTableGenerator &lt;resource directory&gt; &lt;bundle base name&gt; &lt;output directory&gt;</code>
+ * </p>
+ * This class only depends on the JDK, it is compiled and run before the main sources by the build.
+ */
+public final class SymbolTableGenerator {
+
+  private static final String CLASS_NAME = "GeneratedSymbolTables";
+
+  private final File resources;
+  private final String baseName;
+
+  private SymbolTableGenerator(File resources, String baseName) {
+    this.resources = resources;
+    this.baseName = baseName;
+  }
+
+  public static void main(String[] args) throws IOException {
+    if (args.length != 3) {
+      throw new IllegalArgumentException("Usage: SymbolTableGenerator <resource directory> <bundle base name> <output directory>");
+    }
+    SymbolTableGenerator generator = new SymbolTableGenerator(new File(args[0]), args[1]);
+    String packageName = args[1].substring(0, args[1].lastIndexOf('.'));
+    File target = new File(new File(args[2], packageName.replace('.', File.separatorChar)), CLASS_NAME + ".java");
+    target.getParentFile().mkdirs();
+    try (Writer out = Files.newBufferedWriter(target.toPath(), StandardCharsets.UTF_8)) {
+      generator.generate(packageName, out);
+    }
+  }
+
+  /**
+   * Returns the locales of the bundle files found in the resource directory, the root locale first.
+   */
+  private List<Locale> locales() {
+    String simpleName = baseName.substring(baseName.lastIndexOf('.') + 1);
+    File directory = new File(resources, baseName.substring(0, baseName.lastIndexOf('.')).replace('.', File.separatorChar));
+    Pattern pattern = Pattern.compile(Pattern.quote(simpleName) + "(?:_([a-z]+)(?:_([A-Z]+))?)?\\.properties");
+    List<Locale> locales = new ArrayList<>();
+    String[] names = directory.list();
+    if (names == null) {
+      throw new IllegalArgumentException("No such directory: " + directory);
+    }
+    for (String name : names) {
+      Matcher m = pattern.matcher(name);
+      if (m.matches()) {
+        locales.add(m.group(1) == null ? Locale.ROOT : new Locale(m.group(1), m.group(2) == null ? "" : m.group(2)));
+      }
+    }
+    Collections.sort(locales, (a, b) -> a.toString().compareTo(b.toString()));
+    return locales;
+  }
+
+  private void generate(String packageName, Writer out) throws IOException {
+    List<Locale> locales = locales();
+    out.write("// Generated by " + SymbolTableGenerator.class.getName() + " from " + baseName + ", do not edit.\n");
+    out.write("package " + packageName + ";\n\n");
+    out.write("import java.util.Locale;\n\n");
+    // Some of the fields named by the bundles are deprecated.
+    out.write("@SuppressWarnings(\"deprecation\")\n");
+    out.write("final class " + CLASS_NAME + " implements SymbolMap.TableSource {\n\n");
+    out.write("  @Override\n");
+    out.write("  public boolean fill(String baseName, Locale locale, SymbolMap.Builder builder) {\n");
+    out.write("    if (!" + literal(baseName) + ".equals(baseName)) {\n");
+    out.write("      return false;\n");
+    out.write("    }\n");
+    out.write("    switch (locale.toString()) {\n");
+    for (Locale locale : locales) {
+      out.write("    case " + literal(locale.toString()) + ":\n");
+      out.write("      " + methodName(locale) + "(builder);\n");
+      out.write("      return true;\n");
+    }
+    out.write("    default:\n");
+    out.write("      return false;\n");
+    out.write("    }\n");
+    out.write("  }\n");
+    try (URLClassLoader loader = new URLClassLoader(new URL[] { resources.toURI().toURL() }, null)) {
+      for (Locale locale : locales) {
+        ResourceBundle rb = ResourceBundle.getBundle(baseName, locale, loader,
+            ResourceBundle.Control.getNoFallbackControl(ResourceBundle.Control.FORMAT_PROPERTIES));
+        // Sorted, so that the output does not depend on the hashing of the bundle keys.
+        TreeMap<String, String> entries = new TreeMap<>();
+        for (String key : Collections.list(rb.getKeys())) {
+          entries.put(key, rb.getString(key));
+        }
+        out.write("\n  private static void " + methodName(locale) + "(SymbolMap.Builder builder) {\n");
+        for (Map.Entry<String, String> entry : entries.entrySet()) {
+          out.write("    " + statement(entry.getKey(), entry.getValue()) + "\n");
+        }
+        out.write("  }\n");
+      }
+    }
+    out.write("}\n");
+  }
+
+  /**
+   * Returns the builder call for the specified bundle entry, following the key format described by {@link SymbolMap}.
+   */
+  private static String statement(String key, String symbol) {
+    String field = key;
+    String method = "label";
+    int lastDot = field.lastIndexOf('.');
+    if (Character.isDigit(field.charAt(lastDot + 1))) {
+      field = field.substring(0, lastDot);
+      method = "alias";
+    }
+    return "builder." + method + "(" + field + ", " + literal(symbol) + ");";
+  }
+
+  private static String methodName(Locale locale) {
+    return locale.toString().isEmpty() ? "root" : locale.toString();
+  }
+
+  private static String literal(String value) {
+    StringBuilder sb = new StringBuilder("\"");
+    for (int i = 0; i < value.length(); i++) {
+      char c = value.charAt(i);
+      if (c == '"' || c == '\\') {
+        sb.append('\\').append(c);
+      } else if (c < 0x20 || c > 0x7e) {
+        sb.append(String.format("\\u%04x", (int) c));
+      } else {
+        sb.append(c);
+      }
+    }
+    return sb.append('"').toString();
+  }
+}
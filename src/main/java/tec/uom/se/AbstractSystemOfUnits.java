@@ -66,7 +66,19 @@ public abstract class AbstractSystemOfUnits implements SystemOfUnits, Nameable {
   @SuppressWarnings("rawtypes")
   protected final Map<Class<? extends Quantity>, Unit> quantityToUnit = new HashMap<>();
 
-  protected static final Logger logger = Logger.getLogger(AbstractSystemOfUnits.class.getName());
+  /**
+   * Returns the logger of this class, which is only created when it is first used so that loading a system of units does not initialize
+   * <code>java.util.logging</code>.
+   *
+   * @return the logger.
+   */
+  protected static Logger logger() {
+    return LoggerHolder.LOGGER;
+  }
+
+  private static final class LoggerHolder {
+    private static final Logger LOGGER = Logger.getLogger(AbstractSystemOfUnits.class.getName());
+  }
 
   /**
    * Adds a new named unit to the collection.
@@ -209,8 +221,8 @@ public abstract class AbstractSystemOfUnits implements SystemOfUnits, Nameable {
           }
           break;
         default:
-          if (logger.isLoggable(Level.FINEST)) {
-            logger.log(Level.FINEST, "Unknown style " + style + "; unit " + unit + " can't be rendered with '" + symbol + "'.");
+          if (logger().isLoggable(Level.FINEST)) {
+            logger().log(Level.FINEST, "Unknown style " + style + "; unit " + unit + " can't be rendered with '" + symbol + "'.");
           }
           break;
       }
@@ -270,7 +282,7 @@ public abstract class AbstractSystemOfUnits implements SystemOfUnits, Nameable {
           SimpleUnitFormat.getInstance().label(unit, text);
           break;
         default:
-          logger.log(Level.FINEST, "Unknown style " + style + "; unit " + unit + " can't be rendered with '" + text + "'.");
+          logger().log(Level.FINEST, "Unknown style " + style + "; unit " + unit + " can't be rendered with '" + text + "'.");
           break;
       }
       units.add(unit);
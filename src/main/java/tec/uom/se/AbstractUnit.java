@@ -390,10 +390,17 @@ public abstract class AbstractUnit<Q extends Quantity<Q>> implements ComparableU
    */
   @Override
   public final AbstractUnit<?> multiply(Unit<?> that) {
-    if (that instanceof AbstractUnit)
-      return multiply((AbstractUnit<?>) that);
+    return UnitOperationCache.apply(this, that, false);
+  }
+
+  /**
+   * Computes <code>left * right</code> for {@link UnitOperationCache}, see {@link #multiply(Unit)}.
+   */
+  static AbstractUnit<?> product(AbstractUnit<?> left, Unit<?> right) {
+    if (right instanceof AbstractUnit)
+      return left.multiply((AbstractUnit<?>) right);
     // return that.multiply(this); // Commutatif.
-    return ProductUnit.getProductInstance(this, that);
+    return ProductUnit.getProductInstance(left, right);
   }
 
   /**
@@ -459,7 +466,7 @@ public abstract class AbstractUnit<Q extends Quantity<Q>> implements ComparableU
    */
   @Override
   public final AbstractUnit<?> divide(Unit<?> that) {
-    return this.multiply(that.inverse());
+    return UnitOperationCache.apply(this, that, true);
   }
 
   /**
@@ -0,0 +1,273 @@
+/*
+ * Units of Measurement Implementation for Java SE
+ * Copyright (c) 2005-2017, Jean-Marie Dautelle, Werner Keil, V2COM.
+ *
+ * All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without modification,
+ * are permitted provided that the following conditions are met:
+ *
+ * 1. Redistributions of source code must retain the above copyright notice,
+ *    this list of conditions and the following disclaimer.
+ *
+ * 2. Redistributions in binary form must reproduce the above copyright notice, this list of conditions
+ *    and the following disclaimer in the documentation and/or other materials provided with the distribution.
+ *
+ * 3. Neither the name of JSR-363 nor the names of its contributors may be used to endorse or promote products
+ *    derived from this software without specific prior written permission.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS"
+ * AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO,
+ * THE IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE
+ * ARE DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT HOLDER OR CONTRIBUTORS BE LIABLE
+ * FOR ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES
+ * (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES;
+ * LOSS OF USE, DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED
+ * AND ON ANY THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT
+ * (INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE OF THIS SOFTWARE,
+ * EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ */
+package tec.uom.se;
+
+import java.lang.ref.Reference;
+import java.lang.ref.ReferenceQueue;
+import java.lang.ref.WeakReference;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+
+import javax.measure.Unit;
+
+import tec.uom.se.unit.ProductUnit;
+import tec.uom.se.unit.TransformedUnit;
+
+/**
+ * A bounded, thread-safe memo table of the products and quotients of units, so that repeated arithmetic on quantities of the same units (for example
+ * <code>force = mass × acceleration</code> over large arrays) does not build the same product unit again for every operation.
+ * <p>
+ * Operands are compared by identity, which is cheap and matches how quantities share their unit instances. They are only weakly referenced, so that
+ * the entries of user units are dropped once these are collected, unless the result references them too, e.g. as one of its elements. The results
+ * are held strongly, and the table is emptied when it is full.
+ * </p>
+ * <p>
+ * Units may be named or labelled by whoever obtains them (see {@link AbstractSystemOfUnits}), so a result built by the operation is never handed out:
+ * callers get a copy of the cached instance, which is as cheap as wrapping its elements. Results that already existed before the operation, such as
+ * one of the operands, are returned as they are, like the operation itself does.
+ * </p>
+ */
+final class UnitOperationCache {
+
+  static final int MAXIMUM_SIZE = 1024;
+
+  private static final ConcurrentMap<Key, Result> ENTRIES = new ConcurrentHashMap<>();
+
+  private static final ReferenceQueue<Unit<?>> QUEUE = new ReferenceQueue<>();
+
+  private UnitOperationCache() {
+  }
+
+  /**
+   * Returns the result of the operation, from the cached result if there is one.
+   *
+   * @param left
+   *          the left operand.
+   * @param right
+   *          the right operand.
+   * @param quotient
+   *          <code>true</code> for <code>left / right</code>, <code>false</code> for <code>left * right</code>.
+   * @return the result of the operation.
+   */
+  static AbstractUnit<?> apply(AbstractUnit<?> left, Unit<?> right, boolean quotient) {
+    Result cached = ENTRIES.get(new Lookup(left, right, quotient));
+    if (cached != null) {
+      return cached.copy();
+    }
+    AbstractUnit<?> unit = AbstractUnit.product(left, quotient ? right.inverse() : right);
+    Result result = null;
+    if (existed(unit, left, right)) {
+      result = new Result(unit, true, true);
+    } else if (unit instanceof ProductUnit) {
+      result = new Result(unit, false, false);
+    } else if (unit instanceof TransformedUnit) {
+      result = new Result(unit, false, existed(((TransformedUnit<?>) unit).getParentUnit(), left, right));
+    }
+    if (result == null) {
+      return unit;
+    }
+    expungeStaleEntries();
+    if (ENTRIES.size() >= MAXIMUM_SIZE) {
+      ENTRIES.clear();
+    }
+    ENTRIES.put(new WeakKey(left, right, quotient), result);
+    return result.copy();
+  }
+
+  /**
+   * Returns whether the specified unit, part of the result of an operation, existed before it: one of the operands, {@link AbstractUnit#ONE} or an
+   * element of a product operand. Any other unit was built by the operation.
+   */
+  private static boolean existed(Unit<?> unit, Unit<?> left, Unit<?> right) {
+    return unit == left || unit == right || unit == AbstractUnit.ONE || isElement(unit, left) || isElement(unit, right);
+  }
+
+  private static boolean isElement(Unit<?> unit, Unit<?> operand) {
+    if (operand instanceof TransformedUnit) {
+      operand = ((TransformedUnit<?>) operand).getParentUnit();
+    }
+    if (operand instanceof ProductUnit) {
+      ProductUnit<?> product = (ProductUnit<?>) operand;
+      for (int i = 0; i < product.getUnitCount(); i++) {
+        if (product.getUnit(i) == unit) {
+          return true;
+        }
+      }
+    }
+    return false;
+  }
+
+  /**
+   * Removes the entries of which an operand has been garbage collected.
+   */
+  private static void expungeStaleEntries() {
+    for (Reference<?> ref; (ref = QUEUE.poll()) != null;) {
+      ENTRIES.remove(((Operand) ref).key);
+    }
+  }
+
+  /**
+   * Returns the cached instance of the result of the operation, <code>null</code> if there is none.
+   */
+  static AbstractUnit<?> cached(Unit<?> left, Unit<?> right, boolean quotient) {
+    Result cached = ENTRIES.get(new Lookup(left, right, quotient));
+    return cached == null ? null : cached.unit;
+  }
+
+  static void clear() {
+    ENTRIES.clear();
+  }
+
+  static int size() {
+    return ENTRIES.size();
+  }
+
+  /**
+   * Identifies an operation by the identity of its operands.
+   */
+  private abstract static class Key {
+    private final boolean quotient;
+    private final int hash;
+
+    Key(Unit<?> left, Unit<?> right, boolean quotient) {
+      this.quotient = quotient;
+      int h = 31 * System.identityHashCode(left) + System.identityHashCode(right);
+      this.hash = quotient ? ~h : h;
+    }
+
+    abstract Unit<?> left();
+
+    abstract Unit<?> right();
+
+    @Override
+    public boolean equals(Object obj) {
+      if (this == obj) {
+        return true;
+      }
+      if (!(obj instanceof Key)) {
+        return false;
+      }
+      Key other = (Key) obj;
+      Unit<?> left = left();
+      Unit<?> right = right();
+      return hash == other.hash && quotient == other.quotient && left != null && left == other.left() && right != null && right == other.right();
+    }
+
+    @Override
+    public int hashCode() {
+      return hash;
+    }
+  }
+
+  /**
+   * The key looked up, referencing the operands strongly.
+   */
+  private static final class Lookup extends Key {
+    private final Unit<?> left;
+    private final Unit<?> right;
+
+    Lookup(Unit<?> left, Unit<?> right, boolean quotient) {
+      super(left, right, quotient);
+      this.left = left;
+      this.right = right;
+    }
+
+    @Override
+    Unit<?> left() {
+      return left;
+    }
+
+    @Override
+    Unit<?> right() {
+      return right;
+    }
+  }
+
+  /**
+   * The key stored, referencing the operands weakly.
+   */
+  private static final class WeakKey extends Key {
+    private final Operand left;
+    private final Operand right;
+
+    WeakKey(Unit<?> left, Unit<?> right, boolean quotient) {
+      super(left, right, quotient);
+      this.left = new Operand(left, this);
+      this.right = new Operand(right, this);
+    }
+
+    @Override
+    Unit<?> left() {
+      return left.get();
+    }
+
+    @Override
+    Unit<?> right() {
+      return right.get();
+    }
+  }
+
+  private static final class Operand extends WeakReference<Unit<?>> {
+    private final WeakKey key;
+
+    Operand(Unit<?> unit, WeakKey key) {
+      super(unit, QUEUE);
+      this.key = key;
+    }
+  }
+
+  /**
+   * A cached result, which is returned as a copy unless it is a unit that existed before the operation.
+   */
+  private static final class Result {
+    private final AbstractUnit<?> unit;
+    private final boolean shared;
+    private final boolean parentShared;
+
+    Result(AbstractUnit<?> unit, boolean shared, boolean parentShared) {
+      this.unit = unit;
+      this.shared = shared;
+      this.parentShared = parentShared;
+    }
+
+    @SuppressWarnings({ "rawtypes", "unchecked" })
+    AbstractUnit<?> copy() {
+      if (shared) {
+        return unit;
+      }
+      if (unit instanceof TransformedUnit) {
+        TransformedUnit<?> transformed = (TransformedUnit<?>) unit;
+        Unit<?> parent = parentShared ? transformed.getParentUnit() : new ProductUnit(transformed.getParentUnit());
+        return new TransformedUnit(null, parent, transformed.getSystemUnit(), transformed.getConverter());
+      }
+      return new ProductUnit(unit);
+    }
+  }
+}
@@ -37,6 +37,9 @@ import javax.measure.format.ParserException;
 import javax.measure.format.UnitFormat;
 
 import tec.uom.se.AbstractUnit;
+import tec.uom.se.unit.AnnotatedUnit;
+import tec.uom.se.unit.ProductUnit;
+import tec.uom.se.unit.TransformedUnit;
 
 /**
  * <p>
@@ -57,6 +60,26 @@ import tec.uom.se.AbstractUnit;
  */
 public abstract class AbstractUnitFormat implements UnitFormat {
 
+  /**
+   * The maximum number of entries cached by the shared instances of the unit formats.
+   */
+  static final int DEFAULT_CACHE_SIZE = 1024;
+
+  /**
+   * Caches units by the whole string they were parsed from, <code>null</code> if disabled.
+   */
+  private volatile FormatCache<String, ParsedUnit> parseCache;
+
+  /**
+   * Caches the strings units were formatted to, <code>null</code> if disabled.
+   */
+  private volatile FormatCache<Unit<?>, String> formatCache;
+
+  /**
+   * Incremented whenever the labels or aliases of this format change.
+   */
+  private volatile int labelVersion;
+
   /**
    * Returns the {@link SymbolMap} for this unit format.
    *
@@ -88,6 +111,20 @@ public abstract class AbstractUnitFormat implements UnitFormat {
    *              if the Format cannot format the given object
    */
   public final String format(Unit<?> unit) {
+    FormatCache<Unit<?>, String> cache = formatCache;
+    if (cache == null) {
+      return formatUncached(unit);
+    }
+    int generation = cache.validate(symbolsVersion());
+    String result = cache.get(unit);
+    if (result == null) {
+      result = formatUncached(unit);
+      cache.put(unit, result, generation);
+    }
+    return result;
+  }
+
+  private String formatUncached(Unit<?> unit) {
     if (unit instanceof AbstractUnit) {
       return format((AbstractUnit<?>) unit, new StringBuilder()).toString();
     } else {
@@ -104,6 +141,165 @@ public abstract class AbstractUnitFormat implements UnitFormat {
     // do nothing, if subclasses want to use it, override there
   }
 
+  /**
+   * Sets the maximum number of units cached by {@link #parse(CharSequence)}, which then returns an equal unit for the same string without parsing
+   * it again. The cache is emptied when labels or aliases change. The shared default instances cache up to {@value #DEFAULT_CACHE_SIZE} units.
+   *
+   * @param maximumSize
+   *          the maximum number of cached units, or <code>0</code> to disable the cache.
+   * @throws IllegalArgumentException
+   *           if the size is negative.
+   */
+  public void setParseCacheSize(int maximumSize) {
+    if (maximumSize < 0) {
+      throw new IllegalArgumentException("Cache size must not be negative: " + maximumSize);
+    }
+    parseCache = maximumSize == 0 ? null : new FormatCache<>(maximumSize);
+  }
+
+  /**
+   * Returns the number of {@link #parse(CharSequence)} calls answered from the parse cache since it was last sized.
+   *
+   * @return the number of cache hits, <code>0</code> if the cache is disabled.
+   */
+  public long getParseCacheHitCount() {
+    FormatCache<String, ParsedUnit> cache = parseCache;
+    return cache == null ? 0 : cache.getHitCount();
+  }
+
+  /**
+   * Returns the number of {@link #parse(CharSequence)} calls which had to parse their input since the parse cache was last sized.
+   *
+   * @return the number of cache misses, <code>0</code> if the cache is disabled.
+   */
+  public long getParseCacheMissCount() {
+    FormatCache<String, ParsedUnit> cache = parseCache;
+    return cache == null ? 0 : cache.getMissCount();
+  }
+
+  /**
+   * Sets the maximum number of units whose string is cached by {@link #format(Unit)}, which then returns the same string for an equal unit without
+   * formatting it again. The cache is emptied when labels or aliases change. The shared default instances cache up to {@value #DEFAULT_CACHE_SIZE}
+   * strings.
+   *
+   * @param maximumSize
+   *          the maximum number of cached strings, or <code>0</code> to disable the cache.
+   * @throws IllegalArgumentException
+   *           if the size is negative.
+   */
+  public void setFormatCacheSize(int maximumSize) {
+    if (maximumSize < 0) {
+      throw new IllegalArgumentException("Cache size must not be negative: " + maximumSize);
+    }
+    formatCache = maximumSize == 0 ? null : new FormatCache<>(maximumSize);
+  }
+
+  /**
+   * Returns the number of {@link #format(Unit)} calls answered from the format cache since it was last sized.
+   *
+   * @return the number of cache hits, <code>0</code> if the cache is disabled.
+   */
+  public long getFormatCacheHitCount() {
+    FormatCache<Unit<?>, String> cache = formatCache;
+    return cache == null ? 0 : cache.getHitCount();
+  }
+
+  /**
+   * Returns the number of {@link #format(Unit)} calls which had to format their unit since the format cache was last sized.
+   *
+   * @return the number of cache misses, <code>0</code> if the cache is disabled.
+   */
+  public long getFormatCacheMissCount() {
+    FormatCache<Unit<?>, String> cache = formatCache;
+    return cache == null ? 0 : cache.getMissCount();
+  }
+
+  /**
+   * Empties the caches of this format, to be called when its labels or aliases change.
+   */
+  void clearCaches() {
+    labelVersion++;
+    FormatCache<String, ParsedUnit> units = parseCache;
+    if (units != null) {
+      units.clear();
+    }
+    FormatCache<Unit<?>, String> strings = formatCache;
+    if (strings != null) {
+      strings.clear();
+    }
+  }
+
+  /**
+   * Returns a number which changes whenever the labels or aliases of this format change, so that units resolved through it can be cached elsewhere.
+   */
+  int getVersion() {
+    return labelVersion + symbolsVersion();
+  }
+
+  private int symbolsVersion() {
+    SymbolMap symbols = getSymbols();
+    return symbols == null ? 0 : symbols.getVersion();
+  }
+
+  /**
+   * Parses the whole character sequence through the parse cache, if enabled.
+   *
+   * @param csq
+   *          the <code>CharSequence</code> to parse.
+   * @return the unit parsed from the specified character sequence.
+   */
+  final Unit<?> parseCached(CharSequence csq) {
+    FormatCache<String, ParsedUnit> cache = parseCache;
+    if (cache == null) {
+      return parse(csq, 0);
+    }
+    int generation = cache.validate(symbolsVersion());
+    String key = csq.toString();
+    ParsedUnit parsed = cache.get(key);
+    if (parsed != null) {
+      return parsed.copy();
+    }
+    Unit<?> unit = parse(csq, 0);
+    // a second parse tells the units built by the parser from the existing ones it returns
+    Unit<?> again = parse(csq, 0);
+    cache.put(key, new ParsedUnit(again, unit == again), generation);
+    return unit;
+  }
+
+  /**
+   * A cached parse result. Units may be named or labelled by whoever obtains them (see {@link tec.uom.se.AbstractSystemOfUnits}), so a unit built by
+   * the parser is never handed out: callers get a copy of it. Units which existed before parsing, such as those of the symbol map, are returned as
+   * they are, like the parser itself does.
+   */
+  private static final class ParsedUnit {
+    private final Unit<?> unit;
+    private final boolean shared;
+
+    ParsedUnit(Unit<?> unit, boolean shared) {
+      this.unit = unit;
+      this.shared = shared;
+    }
+
+    @SuppressWarnings({ "rawtypes", "unchecked" })
+    Unit<?> copy() {
+      if (shared) {
+        return unit;
+      }
+      if (unit instanceof ProductUnit) {
+        return new ProductUnit(unit);
+      }
+      if (unit instanceof TransformedUnit) {
+        TransformedUnit<?> transformed = (TransformedUnit<?>) unit;
+        return new TransformedUnit(transformed.getSymbol(), transformed.getParentUnit(), transformed.getSystemUnit(), transformed.getConverter());
+      }
+      if (unit instanceof AnnotatedUnit) {
+        AnnotatedUnit<?> annotated = (AnnotatedUnit<?>) unit;
+        return new AnnotatedUnit(annotated.getActualUnit(), annotated.getAnnotation());
+      }
+      return unit;
+    }
+  }
+
   /**
    * Parses a portion of the specified <code>CharSequence</code> from the specified position to produce a unit. If there is no unit to parse
    * {@link AbstractUnit#ONE} is returned.
@@ -38,7 +38,6 @@ import javax.measure.Unit;
 import javax.measure.format.ParserException;
 
 import tec.uom.se.AbstractQuantity;
-import tec.uom.se.AbstractUnit;
 import tec.uom.se.ComparableQuantity;
 import tec.uom.se.quantity.NumberQuantity;
 import tec.uom.se.quantity.Quantities;
@@ -56,13 +55,7 @@ class DefaultQuantityFormat extends QuantityFormat {
 
   @Override
   public Appendable format(Quantity measure, Appendable dest) throws IOException {
-    Unit unit = measure.getUnit();
-
-    dest.append(measure.getValue().toString());
-    if (measure.getUnit().equals(AbstractUnit.ONE))
-      return dest;
-    dest.append(' ');
-    return SimpleUnitFormat.getInstance().format(unit, dest);
+    return QuantityPrinter.getInstance().print(measure, dest);
   }
 
   @SuppressWarnings("unchecked")
@@ -30,9 +30,7 @@
 package tec.uom.se.format;
 
 import tec.uom.se.AbstractUnit;
-import tec.uom.se.internal.format.TokenException;
-import tec.uom.se.internal.format.TokenMgrError;
-import tec.uom.se.internal.format.UnitFormatParser;
+import tec.uom.se.internal.format.UnitParser;
 import tec.uom.se.unit.AnnotatedUnit;
 
 import javax.measure.Quantity;
@@ -40,7 +38,6 @@ import javax.measure.Unit;
 import javax.measure.format.ParserException;
 
 import java.io.IOException;
-import java.io.StringReader;
 import java.text.ParsePosition;
 import java.util.Locale;
 import java.util.ResourceBundle;
@@ -169,6 +166,11 @@ public class EBNFUnitFormat extends AbstractUnitFormat {
    */
   private static final EBNFUnitFormat DEFAULT_INSTANCE = new EBNFUnitFormat();
 
+  static {
+    DEFAULT_INSTANCE.setParseCacheSize(DEFAULT_CACHE_SIZE);
+    DEFAULT_INSTANCE.setFormatCacheSize(DEFAULT_CACHE_SIZE);
+  }
+
   /**
    * Returns the instance for the current default locale (non-ascii characters are allowed)
    */
@@ -248,30 +250,31 @@ public class EBNFUnitFormat extends AbstractUnitFormat {
     // Parsing reads the whole character sequence from the parse position.
     int start = cursor != null ? cursor.getIndex() : 0;
     int end = csq.length();
-    if (end <= start) {
-      return AbstractUnit.ONE;
+    // Trims in place, as String.trim() does.
+    int from = start;
+    while (from < end && csq.charAt(from) <= ' ') {
+      from++;
+    }
+    int to = end;
+    while (to > from && csq.charAt(to - 1) <= ' ') {
+      to--;
     }
-    String source = csq.subSequence(start, end).toString().trim();
-    if (source.length() == 0) {
+    if (from == to) {
       return AbstractUnit.ONE;
     }
-    try {
-      UnitFormatParser parser = new UnitFormatParser(symbolMap, new StringReader(source));
-      Unit<?> result = parser.parseUnit();
+    UnitParser parser = new UnitParser(symbolMap);
+    Unit<?> result = parser.parse(csq, from, to);
+    if (result == null) {
       if (cursor != null)
-        cursor.setIndex(end);
-      return result;
-    } catch (TokenException e) {
-      if (e.currentToken != null) {
-        cursor.setErrorIndex(start + e.currentToken.endColumn);
-      } else {
-        cursor.setErrorIndex(start);
+        cursor.setErrorIndex(parser.getErrorIndex());
+      if (parser.getErrorKind() == UnitParser.LEXICAL_ERROR) {
+        throw new IllegalArgumentException(parser.getErrorMessage());
       }
-      throw new ParserException(e);
-    } catch (TokenMgrError e) {
-      cursor.setErrorIndex(start);
-      throw new IllegalArgumentException(e.getMessage());
+      throw new ParserException(parser.getErrorMessage(), csq, parser.getErrorIndex());
     }
+    if (cursor != null)
+      cursor.setIndex(end);
+    return result;
   }
 
   @Override
@@ -280,6 +283,6 @@ public class EBNFUnitFormat extends AbstractUnitFormat {
   }
 
   public Unit<?> parse(CharSequence csq) throws ParserException {
-    return parse(csq, 0);
+    return parseCached(csq);
   }
 }
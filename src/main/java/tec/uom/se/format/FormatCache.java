@@ -0,0 +1,121 @@
+/*
+ * Units of Measurement Implementation for Java SE
+ * Copyright (c) 2005-2017, Jean-Marie Dautelle, Werner Keil, V2COM.
+ *
+ * All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without modification,
+ * are permitted provided that the following conditions are met:
+ *
+ * 1. Redistributions of source code must retain the above copyright notice,
+ *    this list of conditions and the following disclaimer.
+ *
+ * 2. Redistributions in binary form must reproduce the above copyright notice, this list of conditions
+ *    and the following disclaimer in the documentation and/or other materials provided with the distribution.
+ *
+ * 3. Neither the name of JSR-363 nor the names of its contributors may be used to endorse or promote products
+ *    derived from this software without specific prior written permission.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS"
+ * AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO,
+ * THE IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE
+ * ARE DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT HOLDER OR CONTRIBUTORS BE LIABLE
+ * FOR ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES
+ * (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES;
+ * LOSS OF USE, DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED
+ * AND ON ANY THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT
+ * (INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE OF THIS SOFTWARE,
+ * EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ */
+package tec.uom.se.format;
+
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * A bounded, thread-safe cache of parsing or formatting results of a unit format, counting hits and misses.
+ * <p>
+ * The cache is emptied when it is full, and whenever the mappings of its format change. Results computed before a change are not stored: callers
+ * take the {@link #generation()} before computing a value and pass it to {@link #put(Object, Object, int)}.
+ * </p>
+ */
+final class FormatCache<K, V> {
+
+  private final int maximumSize;
+
+  private final ConcurrentMap<K, V> entries = new ConcurrentHashMap<>();
+
+  private final LongAdder hits = new LongAdder();
+
+  private final LongAdder misses = new LongAdder();
+
+  private volatile int generation;
+
+  private volatile int symbolsVersion;
+
+  FormatCache(int maximumSize) {
+    this.maximumSize = maximumSize;
+  }
+
+  /**
+   * Empties the cache if the given version of the symbol map differs from the one of the cached entries.
+   * 
+   * @return the current generation
+   */
+  int validate(int symbolsVersion) {
+    if (symbolsVersion != this.symbolsVersion) {
+      synchronized (this) {
+        if (symbolsVersion != this.symbolsVersion) {
+          this.symbolsVersion = symbolsVersion;
+          clear();
+        }
+      }
+    }
+    return generation;
+  }
+
+  int generation() {
+    return generation;
+  }
+
+  V get(K key) {
+    V value = entries.get(key);
+    if (value == null) {
+      misses.increment();
+    } else {
+      hits.increment();
+    }
+    return value;
+  }
+
+  void put(K key, V value, int generation) {
+    if (generation != this.generation) {
+      return;
+    }
+    if (entries.size() >= maximumSize) {
+      entries.clear();
+    }
+    entries.put(key, value);
+    if (generation != this.generation) {
+      entries.remove(key, value);
+    }
+  }
+
+  synchronized void clear() {
+    generation++;
+    entries.clear();
+  }
+
+  int size() {
+    return entries.size();
+  }
+
+  long getHitCount() {
+    return hits.sum();
+  }
+
+  long getMissCount() {
+    return misses.sum();
+  }
+}
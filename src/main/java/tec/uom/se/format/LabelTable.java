@@ -0,0 +1,287 @@
+/*
+ * Units of Measurement Implementation for Java SE
+ * Copyright (c) 2005-2017, Jean-Marie Dautelle, Werner Keil, V2COM.
+ *
+ * All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without modification,
+ * are permitted provided that the following conditions are met:
+ *
+ * 1. Redistributions of source code must retain the above copyright notice,
+ *    this list of conditions and the following disclaimer.
+ *
+ * 2. Redistributions in binary form must reproduce the above copyright notice, this list of conditions
+ *    and the following disclaimer in the documentation and/or other materials provided with the distribution.
+ *
+ * 3. Neither the name of JSR-363 nor the names of its contributors may be used to endorse or promote products
+ *    derived from this software without specific prior written permission.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS"
+ * AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO,
+ * THE IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE
+ * ARE DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT HOLDER OR CONTRIBUTORS BE LIABLE
+ * FOR ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES
+ * (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES;
+ * LOSS OF USE, DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED
+ * AND ON ANY THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT
+ * (INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE OF THIS SOFTWARE,
+ * EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ */
+package tec.uom.se.format;
+
+import java.util.ArrayDeque;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Map;
+import java.util.Set;
+
+import javax.measure.Unit;
+
+import tec.uom.se.AbstractUnit;
+import tec.uom.se.unit.MetricPrefix;
+import tec.uom.se.unit.Units;
+
+/**
+ * An immutable snapshot of the labels and aliases of a {@link SimpleUnitFormat}, replaced as a whole when a label or alias is added, so that it can be
+ * read without locking.
+ * <p>
+ * Adding a name is cheap: the new snapshot records the name on top of the previous one, and is flattened into hash tables and a trie when first read.
+ * Names are resolved through the trie, which matches metric prefixes along the way, so that a prefixed symbol such as <code>"kWh"</code> (given a
+ * label <code>"Wh"</code>) is found in one left-to-right scan of a character sequence, without creating strings. Prefixes only combine with labels, not
+ * aliases, of units which carry no prefix yet.
+ * </p>
+ */
+final class LabelTable {
+
+  static final LabelTable EMPTY = new LabelTable(null, null, null, false);
+
+  /**
+   * The trie of the metric prefix symbols.
+   */
+  private static final Node PREFIXES = new Node();
+
+  static {
+    for (MetricPrefix prefix : MetricPrefix.values()) {
+      PREFIXES.insert(prefix.getSymbol(), 0).prefix = prefix;
+    }
+  }
+
+  /**
+   * The previous snapshot, <code>null</code> for the empty table and once this one is flattened.
+   */
+  private volatile LabelTable previous;
+
+  private final String name;
+
+  private final Unit<?> unit;
+
+  private final boolean label;
+
+  /**
+   * The flattened tables, built on first use.
+   */
+  private volatile Tables tables;
+
+  private LabelTable(LabelTable previous, String name, Unit<?> unit, boolean label) {
+    this.previous = previous;
+    this.name = name;
+    this.unit = unit;
+    this.label = label;
+  }
+
+  /**
+   * Returns a table with the given label added.
+   */
+  LabelTable withLabel(Unit<?> unit, String label) {
+    return new LabelTable(this, label, unit, true);
+  }
+
+  /**
+   * Returns a table with the given alias added.
+   */
+  LabelTable withAlias(Unit<?> unit, String alias) {
+    return new LabelTable(this, alias, unit, false);
+  }
+
+  /**
+   * Returns the label of the given unit, or <code>null</code>.
+   */
+  String nameFor(Unit<?> unit) {
+    return tables().unitToName.get(unit);
+  }
+
+  /**
+   * Returns the unit of the given label or alias, or <code>null</code>.
+   */
+  Unit<?> unitFor(String name) {
+    return tables().nameToUnit.get(name);
+  }
+
+  /**
+   * Returns the unit of the given region of a character sequence, either a label or alias, or a metric prefix followed by a label.
+   *
+   * @return the unit or <code>null</code> if none is found.
+   */
+  Unit<?> prefixedUnitFor(CharSequence csq, int start, int end) {
+    Node root = tables().trie;
+    Node node = root;
+    Node prefixNode = PREFIXES;
+    MetricPrefix prefix1 = null;
+    int prefixEnd1 = 0;
+    MetricPrefix prefix2 = null;
+    int prefixEnd2 = 0;
+    for (int i = start; i < end && (node != null || prefixNode != null); i++) {
+      char c = csq.charAt(i);
+      if (node != null) {
+        node = node.child(c);
+      }
+      if (prefixNode != null) {
+        prefixNode = prefixNode.child(c);
+        if (prefixNode != null && prefixNode.prefix != null) {
+          if (prefix1 == null) {
+            prefix1 = prefixNode.prefix;
+            prefixEnd1 = i + 1;
+          } else {
+            prefix2 = prefixNode.prefix;
+            prefixEnd2 = i + 1;
+          }
+        }
+      }
+    }
+    if (node != null && node.unit != null) {
+      return node.unit;
+    }
+    // the longest prefix first, e.g. "da" before "d"
+    Unit<?> unit = prefix2 != null ? withPrefix(root.find(csq, prefixEnd2, end), prefix2) : null;
+    return unit == null && prefix1 != null ? withPrefix(root.find(csq, prefixEnd1, end), prefix1) : unit;
+  }
+
+  private static Unit<?> withPrefix(Node node, MetricPrefix prefix) {
+    return node != null && node.prefixable ? node.unit.transform(prefix.getConverter()) : null;
+  }
+
+  private Tables tables() {
+    Tables result = tables;
+    if (result == null) {
+      // applies the names added since the last flattened snapshot, oldest first
+      ArrayDeque<LabelTable> added = new ArrayDeque<>();
+      LabelTable table = this;
+      Tables base;
+      while ((base = table.tables) == null) {
+        LabelTable previous = table.previous;
+        if (previous == null) {
+          base = table.tables; // flattened meanwhile, or null for the empty table
+          break;
+        }
+        added.push(table);
+        table = previous;
+      }
+      Map<String, Unit<?>> nameToUnit = base == null ? new HashMap<>() : new HashMap<>(base.nameToUnit);
+      Map<Unit<?>, String> unitToName = base == null ? new HashMap<>() : new HashMap<>(base.unitToName);
+      Set<String> labels = base == null ? new HashSet<>() : new HashSet<>(base.labels);
+      for (LabelTable entry : added) {
+        nameToUnit.put(entry.name, entry.unit);
+        if (entry.label) {
+          unitToName.put(entry.unit, entry.name);
+          labels.add(entry.name);
+        } else {
+          labels.remove(entry.name);
+        }
+      }
+      result = new Tables(nameToUnit, unitToName, labels);
+      tables = result; // immutable, racing threads build equal tables
+      previous = null; // releases the older snapshots
+    }
+    return result;
+  }
+
+  /**
+   * The flattened mappings of a snapshot.
+   */
+  private static final class Tables {
+    private final Map<String, Unit<?>> nameToUnit;
+    private final Map<Unit<?>, String> unitToName;
+    private final Set<String> labels;
+    private final Node trie = new Node();
+
+    private Tables(Map<String, Unit<?>> nameToUnit, Map<Unit<?>, String> unitToName, Set<String> labels) {
+      this.nameToUnit = nameToUnit;
+      this.unitToName = unitToName;
+      this.labels = labels;
+      for (Map.Entry<String, Unit<?>> entry : nameToUnit.entrySet()) {
+        Node node = trie.insert(entry.getKey(), 0);
+        node.unit = entry.getValue();
+        node.prefixable = labels.contains(entry.getKey()) && isPrefixable(entry.getKey(), entry.getValue(), nameToUnit);
+      }
+    }
+  }
+
+  /**
+   * Whether a metric prefix may precede the given label: not if the label is itself a prefixed label, such as <code>"km"</code>. The kilogram takes
+   * its prefixes on the gram.
+   */
+  private static boolean isPrefixable(String label, Unit<?> unit, Map<String, Unit<?>> nameToUnit) {
+    if (!Character.isLetter(label.charAt(0)) || AbstractUnit.ONE.equals(unit) || Units.KILOGRAM.equals(unit)) {
+      return false;
+    }
+    for (MetricPrefix prefix : MetricPrefix.values()) {
+      if (label.startsWith(prefix.getSymbol())) {
+        Unit<?> unprefixed = nameToUnit.get(label.substring(prefix.getSymbol().length()));
+        if (unprefixed != null && unit.equals(unprefixed.transform(prefix.getConverter())))
+          return false;
+      }
+    }
+    return true;
+  }
+
+  /**
+   * A node of a trie, with its children sorted by character.
+   */
+  private static final class Node {
+    private static final char[] NO_KEYS = {};
+    private static final Node[] NO_CHILDREN = {};
+
+    private char[] keys = NO_KEYS;
+    private Node[] children = NO_CHILDREN;
+    private Unit<?> unit;
+    private boolean prefixable;
+    private MetricPrefix prefix;
+
+    private Node child(char c) {
+      int i = Arrays.binarySearch(keys, c);
+      return i >= 0 ? children[i] : null;
+    }
+
+    /** Returns the node of the given region, if it holds a unit. */
+    private Node find(CharSequence csq, int start, int end) {
+      Node node = this;
+      for (int i = start; i < end && node != null; i++) {
+        node = node.child(csq.charAt(i));
+      }
+      return node != null && node.unit != null ? node : null;
+    }
+
+    private Node insert(String key, int index) {
+      if (index == key.length()) {
+        return this;
+      }
+      char c = key.charAt(index);
+      int i = Arrays.binarySearch(keys, c);
+      if (i < 0) {
+        i = -i - 1;
+        char[] newKeys = new char[keys.length + 1];
+        Node[] newChildren = new Node[keys.length + 1];
+        System.arraycopy(keys, 0, newKeys, 0, i);
+        System.arraycopy(children, 0, newChildren, 0, i);
+        newKeys[i] = c;
+        newChildren[i] = new Node();
+        System.arraycopy(keys, i, newKeys, i + 1, keys.length - i);
+        System.arraycopy(children, i, newChildren, i + 1, keys.length - i);
+        keys = newKeys;
+        children = newChildren;
+      }
+      return children[i].insert(key, index + 1);
+    }
+  }
+}
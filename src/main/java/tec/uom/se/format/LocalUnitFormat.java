@@ -57,6 +57,7 @@ import java.text.ParsePosition;
 import java.util.Locale;
 import java.util.Map;
 import java.util.ResourceBundle;
+import java.util.concurrent.ConcurrentHashMap;
 
 /**
  * <p>
@@ -171,6 +172,16 @@ public class LocalUnitFormat extends AbstractUnitFormat {
    */
   private static final LocalUnitFormat DEFAULT_INSTANCE = new LocalUnitFormat(SymbolMap.of(ResourceBundle.getBundle(LocalUnitFormat.class
       .getPackage().getName() + ".messages")));
+
+  static {
+    DEFAULT_INSTANCE.setParseCacheSize(DEFAULT_CACHE_SIZE);
+    DEFAULT_INSTANCE.setFormatCacheSize(DEFAULT_CACHE_SIZE);
+  }
+
+  /**
+   * The instances returned by {@link #getInstance(Locale)}, created once per locale.
+   */
+  private static final Map<Locale, LocalUnitFormat> LOCALE_INSTANCES = new ConcurrentHashMap<>();
   /**
    * Multiplicand character
    */
@@ -204,12 +215,21 @@ public class LocalUnitFormat extends AbstractUnitFormat {
   }
 
   /**
-   * Returns an instance for the given locale.
+   * Returns the instance for the given locale. The instance is created on first use and then shared, like the {@link #getInstance() default
+   * instance}.
    * 
    * @param locale
    */
   public static LocalUnitFormat getInstance(Locale locale) {
-    return new LocalUnitFormat(SymbolMap.of(ResourceBundle.getBundle(LocalUnitFormat.class.getPackage().getName() + ".messages", locale)));
+    return LOCALE_INSTANCES.computeIfAbsent(locale, LocalUnitFormat::newInstance);
+  }
+
+  private static LocalUnitFormat newInstance(Locale locale) {
+    LocalUnitFormat format = new LocalUnitFormat(SymbolMap.of(ResourceBundle.getBundle(LocalUnitFormat.class.getPackage().getName()
+        + ".messages", locale)));
+    format.setParseCacheSize(DEFAULT_CACHE_SIZE);
+    format.setFormatCacheSize(DEFAULT_CACHE_SIZE);
+    return format;
   }
 
   /** Returns an instance for the given symbol map. */
@@ -225,6 +245,12 @@ public class LocalUnitFormat extends AbstractUnitFormat {
    */
   private final transient SymbolMap symbolMap;
 
+  /**
+   * The parser of each thread, reinitialized for every parse so that its character buffers are reused.
+   */
+  @SuppressWarnings("deprecation")
+  private final transient ThreadLocal<LocalUnitFormatParser> parsers;
+
   // ////////////////
   // Constructors //
   // ////////////////
@@ -234,8 +260,10 @@ public class LocalUnitFormat extends AbstractUnitFormat {
    * @param symbols
    *          the symbol mapping.
    */
+  @SuppressWarnings("deprecation")
   private LocalUnitFormat(SymbolMap symbols) {
     symbolMap = symbols;
+    parsers = ThreadLocal.withInitial(() -> new LocalUnitFormatParser(symbols, new StringReader("")));
   }
 
   // //////////////////////
@@ -285,7 +313,9 @@ public class LocalUnitFormat extends AbstractUnitFormat {
       return AbstractUnit.ONE;
     }
     try {
-      LocalUnitFormatParser parser = new LocalUnitFormatParser(symbolMap, new StringReader(source));
+      @SuppressWarnings("deprecation")
+      LocalUnitFormatParser parser = parsers.get();
+      parser.ReInit(new StringReader(source));
       Unit<?> result = parser.parseUnit();
       cursor.setIndex(end);
       return result;
@@ -306,7 +336,7 @@ public class LocalUnitFormat extends AbstractUnitFormat {
 
   @Override
   public Unit<? extends Quantity<?>> parse(CharSequence csq) throws ParserException {
-    return parse(csq, new ParsePosition(0));
+    return (Unit<? extends Quantity<?>>) parseCached(csq);
   }
 
   /**
@@ -45,15 +45,37 @@ import tec.uom.se.quantity.Quantities;
 @SuppressWarnings({ "rawtypes", "unchecked" })
 class NumberSpaceQuantityFormat extends QuantityFormat {
 
+  /**
+   * The configured number format, never used directly but cloned for each thread, as <code>NumberFormat</code> is not thread-safe.
+   */
   private final NumberFormat numberFormat;
 
   private final UnitFormat unitFormat;
 
+  /**
+   * The clone of the number format used by each thread, created again after deserialization.
+   */
+  private transient volatile ThreadLocal<NumberFormat> numberFormats;
+
   NumberSpaceQuantityFormat(NumberFormat numberFormat, UnitFormat unitFormat) {
-    this.numberFormat = numberFormat;
+    this.numberFormat = (NumberFormat) numberFormat.clone();
     this.unitFormat = unitFormat;
   }
 
+  /**
+   * Returns the number format of the current thread, with the maximum fraction digits of the configured format.
+   */
+  private NumberFormat numberFormat() {
+    ThreadLocal<NumberFormat> formats = numberFormats;
+    if (formats == null) { // concurrent initializations only create unused thread locals
+      formats = ThreadLocal.withInitial(() -> (NumberFormat) numberFormat.clone());
+      numberFormats = formats;
+    }
+    NumberFormat format = formats.get();
+    format.setMaximumFractionDigits(numberFormat.getMaximumFractionDigits());
+    return format;
+  }
+
   static int getFractionDigitsCount(double d) {
     if (d >= 1) { // we only need the fraction digits
       d = d - (long) d;
@@ -78,28 +100,30 @@ class NumberSpaceQuantityFormat extends QuantityFormat {
     // return dest;
     // dest.append(' ');
     // return unitFormat.format(quantity.getUnit(), dest);
+    NumberFormat format = numberFormat();
     int fract = 0;
     if (quantity != null && quantity.getValue() != null) {
       fract = getFractionDigitsCount(quantity.getValue().doubleValue());
     }
     if (fract > 1) {
-      numberFormat.setMaximumFractionDigits(fract + 1);
+      format.setMaximumFractionDigits(fract + 1);
     }
-    dest.append(numberFormat.format(quantity.getValue()));
+    dest.append(format.format(quantity.getValue()));
     if (quantity.getUnit().equals(AbstractUnit.ONE))
       return dest;
     dest.append(' ');
-    return unitFormat.format(quantity.getUnit(), dest);
+    return dest.append(unitFormat.format(quantity.getUnit()));
   }
 
   @Override
   public ComparableQuantity<?> parse(CharSequence csq, ParsePosition cursor) throws IllegalArgumentException, ParserException {
     String str = csq.toString();
-    Number number = numberFormat.parse(str, cursor);
+    Number number = numberFormat().parse(str, cursor);
     if (number == null)
       throw new IllegalArgumentException("Number cannot be parsed");
 
-    Unit unit = unitFormat.parse(csq);
+    Unit unit = unitFormat.parse(str.substring(cursor.getIndex()).trim());
+    cursor.setIndex(str.length());
     return Quantities.getQuantity(number.longValue(), unit);
   }
 
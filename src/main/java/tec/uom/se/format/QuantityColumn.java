@@ -0,0 +1,230 @@
+/*
+ * Units of Measurement Implementation for Java SE
+ * Copyright (c) 2005-2017, Jean-Marie Dautelle, Werner Keil, V2COM.
+ *
+ * All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without modification,
+ * are permitted provided that the following conditions are met:
+ *
+ * 1. Redistributions of source code must retain the above copyright notice,
+ *    this list of conditions and the following disclaimer.
+ *
+ * 2. Redistributions in binary form must reproduce the above copyright notice, this list of conditions
+ *    and the following disclaimer in the documentation and/or other materials provided with the distribution.
+ *
+ * 3. Neither the name of JSR-363 nor the names of its contributors may be used to endorse or promote products
+ *    derived from this software without specific prior written permission.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS"
+ * AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO,
+ * THE IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE
+ * ARE DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT HOLDER OR CONTRIBUTORS BE LIABLE
+ * FOR ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES
+ * (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES;
+ * LOSS OF USE, DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED
+ * AND ON ANY THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT
+ * (INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE OF THIS SOFTWARE,
+ * EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ */
+package tec.uom.se.format;
+
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+
+import javax.measure.Unit;
+
+import tec.uom.se.ComparableQuantity;
+import tec.uom.se.quantity.Quantities;
+
+/**
+ * <p>
+ * A column of quantities held as primitive values plus runs of a unit, as read by {@link QuantityColumnReader}.
+ * </p>
+ *
+ * <p>
+ * Consecutive values with the same unit form a <em>run</em>; each run refers to one of the distinct {@link #getUnits() units} of the column. A run can be
+ * handed as is to <code>QuantityStreams.of(values, runStart, runEnd, unit)</code> or to any other code working on <code>double[]</code>.
+ * </p>
+ */
+public final class QuantityColumn {
+
+  private double[] values = new double[16];
+  private int size;
+
+  private Unit<?>[] units = new Unit<?>[4];
+  private int unitCount;
+
+  private int[] runStarts = new int[4];
+  private int[] runUnits = new int[4];
+  private int runCount;
+
+  QuantityColumn() {
+  }
+
+  /**
+   * Returns the number of values.
+   */
+  public int size() {
+    return size;
+  }
+
+  /**
+   * Returns the value at the given index.
+   *
+   * @throws IndexOutOfBoundsException
+   *           if the index is not between <code>0</code> and <code>size() - 1</code>.
+   */
+  public double getValue(int index) {
+    checkIndex(index);
+    return values[index];
+  }
+
+  /**
+   * Returns the unit of the value at the given index.
+   *
+   * @throws IndexOutOfBoundsException
+   *           if the index is not between <code>0</code> and <code>size() - 1</code>.
+   */
+  public Unit<?> getUnit(int index) {
+    return units[getUnitId(index)];
+  }
+
+  /**
+   * Returns the position in {@link #getUnits()} of the unit of the value at the given index.
+   *
+   * @throws IndexOutOfBoundsException
+   *           if the index is not between <code>0</code> and <code>size() - 1</code>.
+   */
+  public int getUnitId(int index) {
+    checkIndex(index);
+    int run = Arrays.binarySearch(runStarts, 0, runCount, index);
+    return runUnits[run >= 0 ? run : -run - 2];
+  }
+
+  /**
+   * Returns the quantity at the given index.
+   *
+   * @throws IndexOutOfBoundsException
+   *           if the index is not between <code>0</code> and <code>size() - 1</code>.
+   */
+  @SuppressWarnings({ "rawtypes", "unchecked" })
+  public ComparableQuantity<?> getQuantity(int index) {
+    return Quantities.getQuantity(getValue(index), (Unit) getUnit(index));
+  }
+
+  /**
+   * Returns a copy of the values.
+   */
+  public double[] getValues() {
+    return Arrays.copyOf(values, size);
+  }
+
+  /**
+   * Returns the distinct units of this column, in order of first appearance.
+   */
+  public List<Unit<?>> getUnits() {
+    return Collections.unmodifiableList(Arrays.asList(Arrays.copyOf(units, unitCount)));
+  }
+
+  /**
+   * Returns the number of runs of values with the same unit.
+   */
+  public int getRunCount() {
+    return runCount;
+  }
+
+  /**
+   * Returns the index of the first value of the given run.
+   */
+  public int getRunStart(int run) {
+    checkRun(run);
+    return runStarts[run];
+  }
+
+  /**
+   * Returns the index after the last value of the given run.
+   */
+  public int getRunEnd(int run) {
+    checkRun(run);
+    return run + 1 < runCount ? runStarts[run + 1] : size;
+  }
+
+  /**
+   * Returns the unit of the values of the given run.
+   */
+  public Unit<?> getRunUnit(int run) {
+    checkRun(run);
+    return units[runUnits[run]];
+  }
+
+  @Override
+  public String toString() {
+    return "QuantityColumn[size=" + size + ", units=" + getUnits() + ", runs=" + runCount + "]";
+  }
+
+  void add(double value, Unit<?> unit) {
+    if (runCount == 0 || !sameUnit(units[runUnits[runCount - 1]], unit)) {
+      startRun(unit);
+    }
+    if (size == values.length) {
+      values = Arrays.copyOf(values, size * 2);
+    }
+    values[size++] = value;
+  }
+
+  /** Appends the values of the given column, merging their units and, where they meet, their runs. */
+  void append(QuantityColumn that) {
+    if (size + that.size > values.length) {
+      values = Arrays.copyOf(values, Math.max(size + that.size, size * 2));
+    }
+    for (int run = 0; run < that.runCount; run++) {
+      Unit<?> unit = that.units[that.runUnits[run]];
+      if (runCount == 0 || !sameUnit(units[runUnits[runCount - 1]], unit)) {
+        startRun(unit);
+      }
+      int start = that.runStarts[run];
+      int length = that.getRunEnd(run) - start;
+      System.arraycopy(that.values, start, values, size, length);
+      size += length;
+    }
+  }
+
+  private void startRun(Unit<?> unit) {
+    if (runCount == runStarts.length) {
+      runStarts = Arrays.copyOf(runStarts, runCount * 2);
+      runUnits = Arrays.copyOf(runUnits, runCount * 2);
+    }
+    runStarts[runCount] = size;
+    runUnits[runCount++] = unitId(unit);
+  }
+
+  private int unitId(Unit<?> unit) {
+    for (int i = 0; i < unitCount; i++) {
+      if (sameUnit(units[i], unit))
+        return i;
+    }
+    if (unitCount == units.length) {
+      units = Arrays.copyOf(units, unitCount * 2);
+    }
+    units[unitCount] = unit;
+    return unitCount++;
+  }
+
+  private static boolean sameUnit(Unit<?> a, Unit<?> b) {
+    return a == b || a.equals(b);
+  }
+
+  private void checkIndex(int index) {
+    if (index < 0 || index >= size) {
+      throw new IndexOutOfBoundsException("Index " + index + " out of bounds for size " + size);
+    }
+  }
+
+  private void checkRun(int run) {
+    if (run < 0 || run >= runCount) {
+      throw new IndexOutOfBoundsException("Run " + run + " out of bounds for " + runCount + " runs");
+    }
+  }
+}
@@ -0,0 +1,403 @@
+/*
+ * Units of Measurement Implementation for Java SE
+ * Copyright (c) 2005-2017, Jean-Marie Dautelle, Werner Keil, V2COM.
+ *
+ * All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without modification,
+ * are permitted provided that the following conditions are met:
+ *
+ * 1. Redistributions of source code must retain the above copyright notice,
+ *    this list of conditions and the following disclaimer.
+ *
+ * 2. Redistributions in binary form must reproduce the above copyright notice, this list of conditions
+ *    and the following disclaimer in the documentation and/or other materials provided with the distribution.
+ *
+ * 3. Neither the name of JSR-363 nor the names of its contributors may be used to endorse or promote products
+ *    derived from this software without specific prior written permission.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS"
+ * AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO,
+ * THE IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE
+ * ARE DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT HOLDER OR CONTRIBUTORS BE LIABLE
+ * FOR ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES
+ * (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES;
+ * LOSS OF USE, DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED
+ * AND ON ANY THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT
+ * (INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE OF THIS SOFTWARE,
+ * EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ */
+package tec.uom.se.format;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.io.Reader;
+import java.nio.ByteBuffer;
+import java.nio.CharBuffer;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayDeque;
+import java.util.Arrays;
+import java.util.Objects;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.ForkJoinTask;
+import java.util.concurrent.RecursiveTask;
+
+import javax.measure.format.ParserException;
+import javax.measure.format.UnitFormat;
+
+/**
+ * <p>
+ * Reads lines of delimited text, e.g. a column of a CSV export or one <code>"value unit"</code> per line, into a {@link QuantityColumn}.
+ * </p>
+ *
+ * <p>
+ * Each field is parsed in place by a {@link QuantityScanner}, straight into the primitive values of the column, so that no object is created per line.
+ * Input is processed in chunks of whole lines; given a {@link ForkJoinPool} the chunks are parsed in parallel and their columns joined in order. Fields
+ * are not unquoted, blank lines are skipped and both <code>"\n"</code> and <code>"\r\n"</code> end a line.
+ * </p>
+ *
+ * <p>
+ * A {@link ByteBuffer}, e.g. a memory-mapped file, is read as ASCII bytes; text with non-ASCII unit symbols (such as <code>"°C"</code>) must be read
+ * through a {@link Reader} or an {@link InputStream}, which is decoded as UTF-8. Instances are immutable and thread-safe.
+ * </p>
+ */
+public final class QuantityColumnReader {
+
+  /**
+   * The number of characters (or bytes) of a chunk.
+   */
+  static final int CHUNK_SIZE = 1 << 20;
+
+  private static final int NO_DELIMITER = -1;
+
+  private static final QuantityColumnReader DEFAULT = new QuantityColumnReader(QuantityScanner.getInstance(), NO_DELIMITER, 0, 0);
+
+  private final QuantityScanner scanner;
+  private final int delimiter;
+  private final int column;
+  private final int skippedLines;
+
+  private QuantityColumnReader(QuantityScanner scanner, int delimiter, int column, int skippedLines) {
+    this.scanner = scanner;
+    this.delimiter = delimiter;
+    this.column = column;
+    this.skippedLines = skippedLines;
+  }
+
+  /**
+   * Returns a reader of one quantity per line, with units in the {@link SimpleUnitFormat} notation.
+   */
+  public static QuantityColumnReader getInstance() {
+    return DEFAULT;
+  }
+
+  /**
+   * Returns a reader of one quantity per line, with units in the notation of the given format.
+   *
+   * @param unitFormat
+   *          the format of the units, not null.
+   */
+  public static QuantityColumnReader getInstance(UnitFormat unitFormat) {
+    return new QuantityColumnReader(QuantityScanner.getInstance(unitFormat), NO_DELIMITER, 0, 0);
+  }
+
+  /**
+   * Returns a reader of the given field of each line.
+   *
+   * @param column
+   *          the index of the field, starting at <code>0</code>.
+   * @param delimiter
+   *          the character between fields, e.g. <code>','</code>.
+   * @return a reader like this one, of the given field.
+   */
+  public QuantityColumnReader withColumn(int column, char delimiter) {
+    if (column < 0) {
+      throw new IllegalArgumentException("Negative column: " + column);
+    }
+    return new QuantityColumnReader(scanner, delimiter, column, skippedLines);
+  }
+
+  /**
+   * Returns a reader skipping the given number of lines, e.g. a header, at the start of the input.
+   *
+   * @param lines
+   *          the number of lines to skip.
+   * @return a reader like this one, skipping these lines.
+   */
+  public QuantityColumnReader withSkippedLines(int lines) {
+    if (lines < 0) {
+      throw new IllegalArgumentException("Negative number of lines: " + lines);
+    }
+    return new QuantityColumnReader(scanner, delimiter, column, lines);
+  }
+
+  /**
+   * Reads all lines of the given reader in the calling thread.
+   *
+   * @param in
+   *          the reader, not closed.
+   * @return the column read.
+   * @throws IOException
+   *           if reading fails.
+   * @throws ParserException
+   *           if a field is not a quantity.
+   */
+  public QuantityColumn read(Reader in) throws IOException {
+    return read(in, null);
+  }
+
+  /**
+   * Reads all lines of the given reader, parsing chunks in parallel.
+   *
+   * @param in
+   *          the reader, not closed.
+   * @param pool
+   *          the pool parsing the chunks, or <code>null</code> to parse them in the calling thread.
+   * @return the column read.
+   * @throws IOException
+   *           if reading fails.
+   * @throws ParserException
+   *           if a field is not a quantity.
+   */
+  public QuantityColumn read(Reader in, ForkJoinPool pool) throws IOException {
+    QuantityColumn result = new QuantityColumn();
+    QuantityScanner.Result scanned = new QuantityScanner.Result();
+    ArrayDeque<ForkJoinTask<QuantityColumn>> pending = new ArrayDeque<>();
+    int maxPending = pool != null ? pool.getParallelism() * 2 : 0;
+    char[] buffer = new char[CHUNK_SIZE];
+    CharBuffer chars = CharBuffer.wrap(buffer);
+    int length = 0;
+    long offset = 0; // Of the buffer in the input.
+    int toSkip = skippedLines;
+    boolean eof = false;
+    while (!eof) {
+      // Fills the whole buffer before cutting a chunk, as readers may return far fewer characters per call.
+      while (length < buffer.length) {
+        int n = in.read(buffer, length, buffer.length - length);
+        if (n < 0) {
+          eof = true;
+          break;
+        }
+        length += n;
+      }
+      int start = 0;
+      while (toSkip > 0 && start < length) {
+        int newline = indexOfNewline(chars, start, length);
+        if (newline < 0 && !eof)
+          break;
+        start = newline < 0 ? length : newline + 1;
+        toSkip--;
+      }
+      int end = eof ? length : lastIndexOfNewline(chars, start, length) + 1;
+      if (end > start) {
+        if (pool == null) {
+          parseLines(chars, start, end, offset, result, scanned);
+        } else {
+          final CharBuffer chunk = CharBuffer.wrap(Arrays.copyOfRange(buffer, start, end));
+          final long chunkOffset = offset + start;
+          pending.add(pool.submit(() -> {
+            QuantityColumn column = new QuantityColumn();
+            parseLines(chunk, 0, chunk.length(), chunkOffset, column, new QuantityScanner.Result());
+            return column;
+          }));
+          while (pending.size() > maxPending) {
+            result.append(pending.remove().join());
+          }
+        }
+      }
+      // Keeps the partial last line, growing the buffer for long lines.
+      System.arraycopy(buffer, end, buffer, 0, length - end);
+      offset += end;
+      length -= end;
+      if (length == buffer.length) {
+        buffer = Arrays.copyOf(buffer, buffer.length * 2);
+        chars = CharBuffer.wrap(buffer);
+      }
+    }
+    while (!pending.isEmpty()) {
+      result.append(pending.remove().join());
+    }
+    return result;
+  }
+
+  /**
+   * Reads all lines of the given UTF-8 encoded stream in the calling thread.
+   *
+   * @param in
+   *          the stream, not closed.
+   * @return the column read.
+   * @throws IOException
+   *           if reading fails.
+   * @throws ParserException
+   *           if a field is not a quantity.
+   */
+  public QuantityColumn read(InputStream in) throws IOException {
+    return read(in, null);
+  }
+
+  /**
+   * Reads all lines of the given UTF-8 encoded stream, parsing chunks in parallel.
+   *
+   * @param in
+   *          the stream, not closed.
+   * @param pool
+   *          the pool parsing the chunks, or <code>null</code> to parse them in the calling thread.
+   * @return the column read.
+   * @throws IOException
+   *           if reading fails.
+   * @throws ParserException
+   *           if a field is not a quantity.
+   */
+  public QuantityColumn read(InputStream in, ForkJoinPool pool) throws IOException {
+    return read(new InputStreamReader(in, StandardCharsets.UTF_8), pool);
+  }
+
+  /**
+   * Reads the ASCII lines between the position and the limit of the buffer in the calling thread, without changing its position.
+   *
+   * @param buffer
+   *          the buffer, e.g. a memory-mapped file.
+   * @return the column read.
+   * @throws ParserException
+   *           if a field is not a quantity.
+   */
+  public QuantityColumn read(ByteBuffer buffer) {
+    return read(buffer, null);
+  }
+
+  /**
+   * Reads the ASCII lines between the position and the limit of the buffer, parsing chunks in parallel, without changing its position.
+   *
+   * @param buffer
+   *          the buffer, e.g. a memory-mapped file.
+   * @param pool
+   *          the pool parsing the chunks, or <code>null</code> to parse them in the calling thread.
+   * @return the column read.
+   * @throws ParserException
+   *           if a field is not a quantity.
+   */
+  public QuantityColumn read(ByteBuffer buffer, ForkJoinPool pool) {
+    Objects.requireNonNull(buffer);
+    QuantityScanner.AsciiSequence ascii = new QuantityScanner.AsciiSequence();
+    ascii.wrap(buffer, buffer.position(), buffer.remaining());
+    int start = 0;
+    for (int i = 0; i < skippedLines && start < ascii.length(); i++) {
+      int newline = indexOfNewline(ascii, start, ascii.length());
+      start = newline < 0 ? ascii.length() : newline + 1;
+    }
+    ChunkTask task = new ChunkTask(buffer, buffer.position() + start, buffer.limit(), pool != null);
+    return pool != null ? pool.invoke(task) : task.compute();
+  }
+
+  /**
+   * Parses a range of a buffer, splitting it at a line boundary near its middle while larger than a chunk.
+   */
+  private final class ChunkTask extends RecursiveTask<QuantityColumn> {
+    private static final long serialVersionUID = 1L;
+
+    private final ByteBuffer buffer;
+    private final int start;
+    private final int end;
+    private final boolean parallel;
+
+    ChunkTask(ByteBuffer buffer, int start, int end, boolean parallel) {
+      this.buffer = buffer;
+      this.start = start;
+      this.end = end;
+      this.parallel = parallel;
+    }
+
+    @Override
+    protected QuantityColumn compute() {
+      QuantityScanner.AsciiSequence ascii = new QuantityScanner.AsciiSequence();
+      ascii.wrap(buffer, start, end - start);
+      if (parallel && end - start > CHUNK_SIZE) {
+        int split = indexOfNewline(ascii, (end - start) / 2, end - start);
+        if (split >= 0) {
+          ChunkTask right = new ChunkTask(buffer, start + split + 1, end, true);
+          right.fork();
+          QuantityColumn result = new ChunkTask(buffer, start, start + split + 1, true).compute();
+          result.append(right.join());
+          return result;
+        }
+      }
+      QuantityColumn result = new QuantityColumn();
+      parseLines(ascii, 0, ascii.length(), start, result, new QuantityScanner.Result());
+      return result;
+    }
+  }
+
+  /**
+   * Parses the lines in the given range of characters, at the given offset in the input, into the result.
+   */
+  private void parseLines(CharSequence csq, int start, int end, long offset, QuantityColumn result, QuantityScanner.Result scanned) {
+    int lineStart = start;
+    while (lineStart < end) {
+      int newline = indexOfNewline(csq, lineStart, end);
+      int lineEnd = newline < 0 ? end : newline;
+      if (lineEnd > lineStart && csq.charAt(lineEnd - 1) == '\r') {
+        lineEnd--;
+      }
+      if (!isBlank(csq, lineStart, lineEnd)) {
+        parseLine(csq, lineStart, lineEnd, offset, result, scanned);
+      }
+      lineStart = newline < 0 ? end : newline + 1;
+    }
+  }
+
+  private void parseLine(CharSequence csq, int lineStart, int lineEnd, long offset, QuantityColumn result, QuantityScanner.Result scanned) {
+    int fieldStart = lineStart;
+    int fieldEnd = lineEnd;
+    if (delimiter != NO_DELIMITER) {
+      for (int i = 0; i < column; i++) {
+        int next = indexOf(csq, (char) delimiter, fieldStart, lineEnd);
+        if (next < 0) {
+          throw new ParserException("Missing column " + column + " in line at offset " + (offset + lineStart), csq.subSequence(lineStart, lineEnd), 0);
+        }
+        fieldStart = next + 1;
+      }
+      int next = indexOf(csq, (char) delimiter, fieldStart, lineEnd);
+      if (next >= 0) {
+        fieldEnd = next;
+      }
+    }
+    try {
+      scanner.parse(csq, fieldStart, fieldEnd, scanned);
+    } catch (ParserException e) {
+      ParserException exception = new ParserException("Invalid quantity at offset " + (offset + fieldStart) + ": " + e.getMessage(),
+          csq.subSequence(fieldStart, fieldEnd), 0);
+      exception.initCause(e);
+      throw exception;
+    }
+    result.add(scanned.getValue(), scanned.getUnit());
+  }
+
+  private static boolean isBlank(CharSequence csq, int start, int end) {
+    for (int i = start; i < end; i++) {
+      if (!Character.isWhitespace(csq.charAt(i)))
+        return false;
+    }
+    return true;
+  }
+
+  private static int indexOfNewline(CharSequence csq, int start, int end) {
+    return indexOf(csq, '\n', start, end);
+  }
+
+  private static int lastIndexOfNewline(CharSequence csq, int start, int end) {
+    for (int i = end - 1; i >= start; i--) {
+      if (csq.charAt(i) == '\n')
+        return i;
+    }
+    return start - 1;
+  }
+
+  private static int indexOf(CharSequence csq, char c, int start, int end) {
+    for (int i = start; i < end; i++) {
+      if (csq.charAt(i) == c)
+        return i;
+    }
+    return -1;
+  }
+}
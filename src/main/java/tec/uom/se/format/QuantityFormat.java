@@ -89,7 +89,9 @@ public abstract class QuantityFormat extends Format implements Parser<CharSequen
   }
 
   /**
-   * Returns the quantity format using the specified number format and unit format (the number and unit are separated by one space).
+   * Returns the quantity format using the specified number format and unit format (the number and unit are separated by one space). The number
+   * format is copied, so later changes to it do not affect the returned format, and each thread formats and parses with its own copy, so the
+   * returned format can be shared between threads without synchronization.
    *
    * @param numberFormat
    *          the number format.
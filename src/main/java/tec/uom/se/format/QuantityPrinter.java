@@ -0,0 +1,341 @@
+/*
+ * Units of Measurement Implementation for Java SE
+ * Copyright (c) 2005-2017, Jean-Marie Dautelle, Werner Keil, V2COM.
+ *
+ * All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without modification,
+ * are permitted provided that the following conditions are met:
+ *
+ * 1. Redistributions of source code must retain the above copyright notice,
+ *    this list of conditions and the following disclaimer.
+ *
+ * 2. Redistributions in binary form must reproduce the above copyright notice, this list of conditions
+ *    and the following disclaimer in the documentation and/or other materials provided with the distribution.
+ *
+ * 3. Neither the name of JSR-363 nor the names of its contributors may be used to endorse or promote products
+ *    derived from this software without specific prior written permission.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS"
+ * AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO,
+ * THE IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE
+ * ARE DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT HOLDER OR CONTRIBUTORS BE LIABLE
+ * FOR ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES
+ * (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES;
+ * LOSS OF USE, DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED
+ * AND ON ANY THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT
+ * (INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE OF THIS SOFTWARE,
+ * EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ */
+package tec.uom.se.format;
+
+import java.io.IOException;
+import java.util.Objects;
+
+import javax.measure.Quantity;
+import javax.measure.Unit;
+import javax.measure.format.UnitFormat;
+
+import tec.uom.se.AbstractUnit;
+
+/**
+ * <p>
+ * Formats quantities such as <code>"12.5 kW"</code> straight into a caller-provided {@link Appendable}, e.g. a <code>StringBuilder</code>, a
+ * <code>CharBuffer</code> or a <code>Writer</code>.
+ * </p>
+ *
+ * <p>
+ * <code>double</code> values are written with the fewest digits which parse back to the same value, in the notation of {@link Double#toString(double)},
+ * digit by digit and without intermediate strings; integers are written the same way. The unit symbol is appended from the cache of the underlying
+ * {@link AbstractUnitFormat}, so that in steady state printing allocates nothing. Values needing more than 15 significant digits, or of magnitude beyond
+ * <code>1e&#177;22</code>, fall back to {@link Double#toString(double)}. No unit is printed for {@link AbstractUnit#ONE}.
+ * </p>
+ *
+ * <p>
+ * This is the counterpart of {@link QuantityScanner}. Instances are thread-safe.
+ * </p>
+ */
+public final class QuantityPrinter {
+
+  private static final QuantityPrinter DEFAULT = new QuantityPrinter(SimpleUnitFormat.getInstance());
+
+  /**
+   * Powers of ten exactly representable as <code>double</code>.
+   */
+  private static final double[] POWERS_OF_TEN = { 1e0, 1e1, 1e2, 1e3, 1e4, 1e5, 1e6, 1e7, 1e8, 1e9, 1e10, 1e11, 1e12, 1e13, 1e14, 1e15, 1e16, 1e17,
+      1e18, 1e19, 1e20, 1e21, 1e22 };
+
+  private static final long[] LONG_POWERS_OF_TEN = { 1L, 10L, 100L, 1000L, 10000L, 100000L, 1000000L, 10000000L, 100000000L, 1000000000L,
+      10000000000L, 100000000000L, 1000000000000L, 10000000000000L, 100000000000000L, 1000000000000000L, 10000000000000000L, 100000000000000000L,
+      1000000000000000000L };
+
+  /**
+   * Mantissas up to this value are exact as <code>double</code>.
+   */
+  private static final long MAX_EXACT_MANTISSA = 1L << 53;
+
+  /**
+   * The most significant digits tried before falling back to {@link Double#toString(double)}.
+   */
+  private static final int MAX_DIGITS = 15;
+
+  private final UnitFormat unitFormat;
+
+  private QuantityPrinter(UnitFormat unitFormat) {
+    this.unitFormat = unitFormat;
+  }
+
+  /**
+   * Returns the printer formatting units with {@link SimpleUnitFormat#getInstance()}.
+   */
+  public static QuantityPrinter getInstance() {
+    return DEFAULT;
+  }
+
+  /**
+   * Returns a printer formatting units with the given unit format.
+   *
+   * @param unitFormat
+   *          the format of the units, not null.
+   */
+  public static QuantityPrinter getInstance(UnitFormat unitFormat) {
+    return new QuantityPrinter(Objects.requireNonNull(unitFormat));
+  }
+
+  /**
+   * Appends the given quantity.
+   *
+   * @param quantity
+   *          the quantity to print.
+   * @param dest
+   *          the appendable destination.
+   * @return the appendable destination passed in.
+   * @throws IOException
+   *           if an I/O exception occurs.
+   */
+  public <A extends Appendable> A print(Quantity<?> quantity, A dest) throws IOException {
+    printValue(quantity.getValue(), dest);
+    return printUnit(quantity.getUnit(), dest);
+  }
+
+  /**
+   * Appends the given quantity.
+   *
+   * @param quantity
+   *          the quantity to print.
+   * @param dest
+   *          the destination.
+   * @return the destination passed in.
+   */
+  public StringBuilder print(Quantity<?> quantity, StringBuilder dest) {
+    try {
+      print(quantity, (Appendable) dest);
+      return dest;
+    } catch (IOException e) {
+      throw new Error(e); // Cannot happen.
+    }
+  }
+
+  /**
+   * Appends a quantity given as primitive value and unit.
+   *
+   * @param value
+   *          the value of the quantity.
+   * @param unit
+   *          the unit of the quantity.
+   * @param dest
+   *          the appendable destination.
+   * @return the appendable destination passed in.
+   * @throws IOException
+   *           if an I/O exception occurs.
+   */
+  public <A extends Appendable> A print(double value, Unit<?> unit, A dest) throws IOException {
+    printValue(value, dest);
+    return printUnit(unit, dest);
+  }
+
+  /**
+   * Appends a quantity given as primitive value and unit.
+   *
+   * @param value
+   *          the value of the quantity.
+   * @param unit
+   *          the unit of the quantity.
+   * @param dest
+   *          the destination.
+   * @return the destination passed in.
+   */
+  public StringBuilder print(double value, Unit<?> unit, StringBuilder dest) {
+    try {
+      print(value, unit, (Appendable) dest);
+      return dest;
+    } catch (IOException e) {
+      throw new Error(e); // Cannot happen.
+    }
+  }
+
+  private <A extends Appendable> A printUnit(Unit<?> unit, A dest) throws IOException {
+    if (!AbstractUnit.ONE.equals(unit)) {
+      dest.append(' ');
+      dest.append(unitFormat.format(unit));
+    }
+    return dest;
+  }
+
+  /**
+   * Appends the given number, as its <code>toString()</code> would but without allocation for <code>Double</code>, <code>Long</code>,
+   * <code>Integer</code>, <code>Short</code> and <code>Byte</code>.
+   *
+   * @param value
+   *          the number to print.
+   * @param dest
+   *          the appendable destination.
+   * @return the appendable destination passed in.
+   * @throws IOException
+   *           if an I/O exception occurs.
+   */
+  public static <A extends Appendable> A printValue(Number value, A dest) throws IOException {
+    if (value instanceof Double) {
+      return printValue(value.doubleValue(), dest);
+    }
+    if (value instanceof Long || value instanceof Integer || value instanceof Short || value instanceof Byte) {
+      return printValue(value.longValue(), dest);
+    }
+    dest.append(String.valueOf(value));
+    return dest;
+  }
+
+  /**
+   * Appends the given <code>long</code>, as {@link Long#toString(long)} would.
+   *
+   * @param value
+   *          the number to print.
+   * @param dest
+   *          the appendable destination.
+   * @return the appendable destination passed in.
+   * @throws IOException
+   *           if an I/O exception occurs.
+   */
+  public static <A extends Appendable> A printValue(long value, A dest) throws IOException {
+    if (value == Long.MIN_VALUE) {
+      dest.append("-9223372036854775808");
+      return dest;
+    }
+    if (value < 0) {
+      dest.append('-');
+      value = -value;
+    }
+    appendDigits(value, digitCount(value), dest);
+    return dest;
+  }
+
+  /**
+   * Appends the given <code>double</code> with the fewest digits which parse back to it, in the notation of {@link Double#toString(double)}.
+   *
+   * @param value
+   *          the number to print.
+   * @param dest
+   *          the appendable destination.
+   * @return the appendable destination passed in.
+   * @throws IOException
+   *           if an I/O exception occurs.
+   */
+  public static <A extends Appendable> A printValue(double value, A dest) throws IOException {
+    if (value == 0d || Double.isNaN(value) || Double.isInfinite(value)) {
+      dest.append(Double.isNaN(value) ? "NaN" : Double.isInfinite(value) ? (value > 0 ? "Infinity" : "-Infinity") : 1 / value < 0 ? "-0.0" : "0.0");
+      return dest;
+    }
+    double magnitude = Math.abs(value);
+    int exponent = (int) Math.floor(Math.log10(magnitude));
+    for (int digits = 1; digits <= MAX_DIGITS; digits++) {
+      int scale = digits - 1 - exponent; // magnitude ~ mantissa / 10^scale
+      if (scale < -22 || scale > 22) {
+        break;
+      }
+      double scaled = scale >= 0 ? magnitude * POWERS_OF_TEN[scale] : magnitude / POWERS_OF_TEN[-scale];
+      long rounded = Math.round(scaled);
+      // the product above is inexact, so the nearest mantissa may be either neighbour
+      for (long mantissa = rounded - 1; mantissa <= rounded + 1; mantissa++) {
+        if (mantissa > 0 && mantissa <= MAX_EXACT_MANTISSA && toDouble(mantissa, scale) == magnitude) {
+          if (value < 0) {
+            dest.append('-');
+          }
+          return appendDecimal(mantissa, scale, dest);
+        }
+      }
+    }
+    dest.append(Double.toString(value));
+    return dest;
+  }
+
+  /**
+   * Returns <code>mantissa / 10^scale</code>, correctly rounded as both operands are exact.
+   */
+  private static double toDouble(long mantissa, int scale) {
+    return scale >= 0 ? mantissa / POWERS_OF_TEN[scale] : mantissa * POWERS_OF_TEN[-scale];
+  }
+
+  /**
+   * Appends <code>mantissa / 10^scale</code> in plain notation from <code>1e-3</code> to <code>1e7</code> and in scientific notation otherwise.
+   */
+  private static <A extends Appendable> A appendDecimal(long mantissa, int scale, A dest) throws IOException {
+    while (mantissa % 10 == 0) {
+      mantissa /= 10;
+      scale--;
+    }
+    int digits = digitCount(mantissa);
+    int exponent = digits - 1 - scale; // of the leading digit
+    if (exponent >= -3 && exponent < 7) {
+      if (exponent >= 0) {
+        int integerDigits = exponent + 1;
+        if (digits <= integerDigits) {
+          appendDigits(mantissa, digits, dest);
+          for (int i = digits; i < integerDigits; i++) {
+            dest.append('0');
+          }
+          dest.append(".0");
+        } else {
+          long divisor = LONG_POWERS_OF_TEN[digits - integerDigits];
+          appendDigits(mantissa / divisor, integerDigits, dest);
+          dest.append('.');
+          appendDigits(mantissa % divisor, digits - integerDigits, dest);
+        }
+      } else {
+        dest.append("0.");
+        for (int i = -1; i > exponent; i--) {
+          dest.append('0');
+        }
+        appendDigits(mantissa, digits, dest);
+      }
+    } else {
+      long divisor = LONG_POWERS_OF_TEN[digits - 1];
+      dest.append((char) ('0' + mantissa / divisor));
+      dest.append('.');
+      if (digits > 1) {
+        appendDigits(mantissa % divisor, digits - 1, dest);
+      } else {
+        dest.append('0');
+      }
+      dest.append('E');
+      printValue((long) exponent, dest);
+    }
+    return dest;
+  }
+
+  /**
+   * Appends the given number of digits of a non-negative value, with leading zeros.
+   */
+  private static void appendDigits(long value, int digits, Appendable dest) throws IOException {
+    for (int i = digits - 1; i >= 0; i--) {
+      dest.append((char) ('0' + (value / LONG_POWERS_OF_TEN[i]) % 10));
+    }
+  }
+
+  private static int digitCount(long value) {
+    int digits = 1;
+    while (digits < LONG_POWERS_OF_TEN.length && value >= LONG_POWERS_OF_TEN[digits]) {
+      digits++;
+    }
+    return digits;
+  }
+}
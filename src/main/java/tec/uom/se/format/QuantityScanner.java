@@ -0,0 +1,478 @@
+/*
+ * Units of Measurement Implementation for Java SE
+ * Copyright (c) 2005-2017, Jean-Marie Dautelle, Werner Keil, V2COM.
+ *
+ * All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without modification,
+ * are permitted provided that the following conditions are met:
+ *
+ * 1. Redistributions of source code must retain the above copyright notice,
+ *    this list of conditions and the following disclaimer.
+ *
+ * 2. Redistributions in binary form must reproduce the above copyright notice, this list of conditions
+ *    and the following disclaimer in the documentation and/or other materials provided with the distribution.
+ *
+ * 3. Neither the name of JSR-363 nor the names of its contributors may be used to endorse or promote products
+ *    derived from this software without specific prior written permission.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS"
+ * AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO,
+ * THE IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE
+ * ARE DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT HOLDER OR CONTRIBUTORS BE LIABLE
+ * FOR ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES
+ * (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES;
+ * LOSS OF USE, DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED
+ * AND ON ANY THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT
+ * (INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE OF THIS SOFTWARE,
+ * EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ */
+package tec.uom.se.format;
+
+import java.nio.ByteBuffer;
+import java.util.Objects;
+
+import javax.measure.Unit;
+import javax.measure.format.ParserException;
+import javax.measure.format.UnitFormat;
+
+import tec.uom.se.AbstractUnit;
+import tec.uom.se.ComparableQuantity;
+import tec.uom.se.quantity.Quantities;
+
+/**
+ * <p>
+ * Parses quantities such as <code>"12.5 kW"</code> directly from a region of a <code>CharSequence</code> (e.g. a <code>String</code>,
+ * <code>StringBuilder</code> or <code>CharBuffer</code>) or from ASCII bytes, into a caller-provided {@link Result}.
+ * </p>
+ *
+ * <p>
+ * The number is scanned into a primitive <code>double</code> (and <code>long</code>, for integers) without creating intermediate strings, and the unit
+ * symbol is looked up in a table of the symbols seen before, so that in steady state parsing allocates nothing. Symbols not seen before are parsed once
+ * by the underlying {@link UnitFormat}. The table is bounded, and emptied when the labels of an {@link AbstractUnitFormat} change.
+ * </p>
+ *
+ * <p>
+ * Numbers have an optional sign, digits with an optional decimal point and an optional exponent, as in <code>"-1.5e3"</code>. Whitespace between the
+ * number and the unit is optional; no unit is parsed as {@link AbstractUnit#ONE}. Instances are thread-safe, results are not.
+ * </p>
+ */
+public final class QuantityScanner {
+
+  private static final QuantityScanner DEFAULT = new QuantityScanner(SimpleUnitFormat.getInstance());
+
+  /**
+   * The maximum number of symbols kept, the table is emptied when exceeded.
+   */
+  static final int MAX_SYMBOLS = 256;
+
+  /**
+   * Powers of ten exactly representable as <code>double</code>.
+   */
+  private static final double[] POWERS_OF_TEN = { 1e0, 1e1, 1e2, 1e3, 1e4, 1e5, 1e6, 1e7, 1e8, 1e9, 1e10, 1e11, 1e12, 1e13, 1e14, 1e15, 1e16, 1e17,
+      1e18, 1e19, 1e20, 1e21, 1e22 };
+
+  /**
+   * Mantissas up to this value are exact as <code>double</code>.
+   */
+  private static final long MAX_EXACT_MANTISSA = 1L << 53;
+
+  private static final int MAX_LONG_DIGITS = 18;
+
+  private final UnitFormat unitFormat;
+
+  private volatile SymbolTable symbols = new SymbolTable(16, -1);
+
+  private QuantityScanner(UnitFormat unitFormat) {
+    this.unitFormat = unitFormat;
+  }
+
+  /**
+   * Returns the scanner resolving units with {@link SimpleUnitFormat#getInstance()}.
+   */
+  public static QuantityScanner getInstance() {
+    return DEFAULT;
+  }
+
+  /**
+   * Returns a scanner resolving units with the given unit format.
+   *
+   * @param unitFormat
+   *          the format of the units, not null.
+   */
+  public static QuantityScanner getInstance(UnitFormat unitFormat) {
+    return new QuantityScanner(Objects.requireNonNull(unitFormat));
+  }
+
+  /**
+   * Parses the whole character sequence.
+   *
+   * @param csq
+   *          the <code>CharSequence</code> to parse.
+   * @param result
+   *          the holder of the parsed value and unit, overwritten.
+   * @return the result passed in.
+   * @throws ParserException
+   *           if the number or unit cannot be parsed.
+   */
+  public Result parse(CharSequence csq, Result result) throws ParserException {
+    return parse(csq, 0, csq.length(), result);
+  }
+
+  /**
+   * Parses a region of the character sequence, e.g. a field of a line.
+   *
+   * @param csq
+   *          the <code>CharSequence</code> to parse.
+   * @param start
+   *          the index of the first character, inclusive.
+   * @param end
+   *          the index of the last character, exclusive.
+   * @param result
+   *          the holder of the parsed value and unit, overwritten.
+   * @return the result passed in.
+   * @throws ParserException
+   *           if the number or unit cannot be parsed.
+   * @throws IndexOutOfBoundsException
+   *           if the region is outside the character sequence.
+   */
+  public Result parse(CharSequence csq, int start, int end, Result result) throws ParserException {
+    if (start < 0 || end > csq.length() || start > end) {
+      throw new IndexOutOfBoundsException("Region [" + start + ", " + end + ") out of bounds for length " + csq.length());
+    }
+    int index = scanNumber(csq, skipWhitespace(csq, start, end), end, result);
+    index = skipWhitespace(csq, index, end);
+    int unitEnd = end;
+    while (unitEnd > index && Character.isWhitespace(csq.charAt(unitEnd - 1))) {
+      unitEnd--;
+    }
+    result.unit = index == unitEnd ? AbstractUnit.ONE : unitFor(csq, index, unitEnd);
+    result.index = end;
+    return result;
+  }
+
+  /**
+   * Parses the ASCII bytes between the position and the limit of the buffer, without changing its position.
+   *
+   * @param buffer
+   *          the buffer to parse.
+   * @param result
+   *          the holder of the parsed value and unit, overwritten.
+   * @return the result passed in.
+   * @throws ParserException
+   *           if the number or unit cannot be parsed.
+   */
+  public Result parse(ByteBuffer buffer, Result result) throws ParserException {
+    AsciiSequence ascii = result.ascii;
+    if (ascii == null) {
+      ascii = result.ascii = new AsciiSequence();
+    }
+    ascii.wrap(buffer, buffer.position(), buffer.remaining());
+    try {
+      return parse(ascii, 0, ascii.length(), result);
+    } finally {
+      ascii.wrap(null, 0, 0);
+    }
+  }
+
+  private static int skipWhitespace(CharSequence csq, int index, int end) {
+    while (index < end && Character.isWhitespace(csq.charAt(index))) {
+      index++;
+    }
+    return index;
+  }
+
+  private static boolean isDigit(char c) {
+    return c >= '0' && c <= '9';
+  }
+
+  private static int scanNumber(CharSequence csq, int start, int end, Result result) throws ParserException {
+    int index = start;
+    boolean negative = false;
+    if (index < end && (csq.charAt(index) == '-' || csq.charAt(index) == '+')) {
+      negative = csq.charAt(index) == '-';
+      index++;
+    }
+    long mantissa = 0;
+    int significantDigits = 0;
+    int digits = 0;
+    int exponent = 0;
+    boolean fraction = false;
+    for (; index < end; index++) {
+      char c = csq.charAt(index);
+      if (isDigit(c)) {
+        digits++;
+        if (mantissa != 0 || c != '0') {
+          significantDigits++;
+          if (significantDigits <= MAX_LONG_DIGITS) {
+            mantissa = mantissa * 10 + (c - '0');
+          } else if (!fraction) {
+            exponent++;
+          }
+        }
+        if (fraction && significantDigits <= MAX_LONG_DIGITS) {
+          exponent--;
+        }
+      } else if (c == '.' && !fraction) {
+        fraction = true;
+      } else {
+        break;
+      }
+    }
+    if (digits == 0) {
+      throw new ParserException("Number expected", csq, start);
+    }
+    boolean scientific = false;
+    if (index < end && (csq.charAt(index) == 'e' || csq.charAt(index) == 'E')) {
+      int e = index + 1;
+      boolean negativeExponent = false;
+      if (e < end && (csq.charAt(e) == '-' || csq.charAt(e) == '+')) {
+        negativeExponent = csq.charAt(e) == '-';
+        e++;
+      }
+      if (e < end && isDigit(csq.charAt(e))) {
+        int explicit = 0;
+        for (; e < end && isDigit(csq.charAt(e)); e++) {
+          explicit = Math.min(explicit * 10 + (csq.charAt(e) - '0'), 100000);
+        }
+        exponent += negativeExponent ? -explicit : explicit;
+        scientific = true;
+        index = e;
+      }
+    }
+    result.integer = !fraction && !scientific && significantDigits <= MAX_LONG_DIGITS;
+    result.longValue = result.integer ? (negative ? -mantissa : mantissa) : 0;
+    double value;
+    if (mantissa == 0) {
+      value = 0d;
+    } else if (significantDigits <= MAX_LONG_DIGITS && mantissa <= MAX_EXACT_MANTISSA && exponent >= -22 && exponent <= 22) {
+      // both operands are exact, so the result is correctly rounded
+      value = exponent < 0 ? mantissa / POWERS_OF_TEN[-exponent] : mantissa * POWERS_OF_TEN[exponent];
+    } else {
+      value = Math.abs(Double.parseDouble(csq.subSequence(start, index).toString()));
+    }
+    result.value = negative ? -value : value;
+    return index;
+  }
+
+  private Unit<?> unitFor(CharSequence csq, int start, int end) throws ParserException {
+    int version = unitFormat instanceof AbstractUnitFormat ? ((AbstractUnitFormat) unitFormat).getVersion() : 0;
+    SymbolTable table = symbols;
+    int hash = SymbolTable.hash(csq, start, end);
+    if (table.version == version) {
+      Unit<?> unit = table.get(csq, start, end, hash);
+      if (unit != null) {
+        return unit;
+      }
+    }
+    String symbol = csq.subSequence(start, end).toString();
+    Unit<?> unit = unitFormat.parse(symbol);
+    synchronized (this) {
+      table = symbols;
+      if (table.version != version || table.size >= MAX_SYMBOLS) {
+        table = new SymbolTable(16, version);
+      }
+      symbols = table.with(symbol, hash, unit);
+    }
+    return unit;
+  }
+
+  /**
+   * An immutable open-addressing table from symbols to units, looked up by regions of character sequences.
+   */
+  private static final class SymbolTable {
+    private final String[] symbols;
+    private final int[] hashes;
+    private final Unit<?>[] units;
+    private final int size;
+    private final int version;
+
+    private SymbolTable(int capacity, int version) {
+      this(new String[capacity], new int[capacity], new Unit<?>[capacity], 0, version);
+    }
+
+    private SymbolTable(String[] symbols, int[] hashes, Unit<?>[] units, int size, int version) {
+      this.symbols = symbols;
+      this.hashes = hashes;
+      this.units = units;
+      this.size = size;
+      this.version = version;
+    }
+
+    private static int hash(CharSequence csq, int start, int end) {
+      int h = 0;
+      for (int i = start; i < end; i++) {
+        h = 31 * h + csq.charAt(i);
+      }
+      return h;
+    }
+
+    private int slot(int hash) {
+      return (hash ^ (hash >>> 16)) & (symbols.length - 1);
+    }
+
+    private Unit<?> get(CharSequence csq, int start, int end, int hash) {
+      for (int i = slot(hash);; i = (i + 1) & (symbols.length - 1)) {
+        String symbol = symbols[i];
+        if (symbol == null) {
+          return null;
+        }
+        if (hashes[i] == hash && matches(symbol, csq, start, end)) {
+          return units[i];
+        }
+      }
+    }
+
+    private static boolean matches(String symbol, CharSequence csq, int start, int end) {
+      if (symbol.length() != end - start) {
+        return false;
+      }
+      for (int i = 0; i < symbol.length(); i++) {
+        if (symbol.charAt(i) != csq.charAt(start + i)) {
+          return false;
+        }
+      }
+      return true;
+    }
+
+    private SymbolTable with(String symbol, int hash, Unit<?> unit) {
+      int capacity = symbols.length;
+      if ((size + 1) * 2 > capacity) {
+        capacity <<= 1;
+      }
+      SymbolTable table = new SymbolTable(capacity, version);
+      for (int i = 0; i < symbols.length; i++) {
+        if (symbols[i] != null && !symbols[i].equals(symbol)) {
+          table.insert(symbols[i], hashes[i], units[i]);
+        }
+      }
+      table.insert(symbol, hash, unit);
+      return new SymbolTable(table.symbols, table.hashes, table.units, table.count(), version);
+    }
+
+    private void insert(String symbol, int hash, Unit<?> unit) {
+      int i = slot(hash);
+      while (symbols[i] != null) {
+        i = (i + 1) & (symbols.length - 1);
+      }
+      symbols[i] = symbol;
+      hashes[i] = hash;
+      units[i] = unit;
+    }
+
+    private int count() {
+      int count = 0;
+      for (String symbol : symbols) {
+        if (symbol != null) {
+          count++;
+        }
+      }
+      return count;
+    }
+  }
+
+  /**
+   * A view of ASCII bytes as characters.
+   */
+  static final class AsciiSequence implements CharSequence {
+    private ByteBuffer buffer;
+    private int offset;
+    private int length;
+
+    void wrap(ByteBuffer buffer, int offset, int length) {
+      this.buffer = buffer;
+      this.offset = offset;
+      this.length = length;
+    }
+
+    @Override
+    public int length() {
+      return length;
+    }
+
+    @Override
+    public char charAt(int index) {
+      return (char) (buffer.get(offset + index) & 0xff);
+    }
+
+    @Override
+    public CharSequence subSequence(int start, int end) {
+      StringBuilder sb = new StringBuilder(end - start);
+      for (int i = start; i < end; i++) {
+        sb.append(charAt(i));
+      }
+      return sb.toString();
+    }
+
+    @Override
+    public String toString() {
+      return subSequence(0, length).toString();
+    }
+  }
+
+  /**
+   * A reusable holder of a parsed quantity, i.e. its value and unit.
+   */
+  public static final class Result {
+    private double value;
+    private long longValue;
+    private boolean integer;
+    private Unit<?> unit;
+    private int index;
+    private AsciiSequence ascii;
+
+    /**
+     * Returns the parsed value.
+     */
+    public double getValue() {
+      return value;
+    }
+
+    /**
+     * Returns whether the value was an integer of at most 18 digits, without decimal point or exponent.
+     */
+    public boolean isInteger() {
+      return integer;
+    }
+
+    /**
+     * Returns the parsed value as exact <code>long</code>, if {@link #isInteger()}.
+     *
+     * @throws ArithmeticException
+     *           if the value was not an integer.
+     */
+    public long getLongValue() {
+      if (!integer) {
+        throw new ArithmeticException("Not an integer: " + value);
+      }
+      return longValue;
+    }
+
+    /**
+     * Returns the parsed unit.
+     */
+    public Unit<?> getUnit() {
+      return unit;
+    }
+
+    /**
+     * Returns the index after the parsed characters.
+     */
+    public int getIndex() {
+      return index;
+    }
+
+    /**
+     * Returns the parsed quantity, with a <code>long</code> value for integers.
+     */
+    @SuppressWarnings({ "rawtypes", "unchecked" })
+    public ComparableQuantity<?> toQuantity() {
+      return Quantities.getQuantity(integer ? (Number) longValue : (Number) value, (Unit) unit);
+    }
+
+    @Override
+    public String toString() {
+      return (integer ? String.valueOf(longValue) : String.valueOf(value)) + " " + unit;
+    }
+  }
+}
@@ -226,33 +226,7 @@ public abstract class SimpleUnitFormat extends AbstractUnitFormat {
    * @return <code>toAppendTo</code>
    */
   public final StringBuffer format(Object unit, final StringBuffer toAppendTo, FieldPosition pos) {
-    try {
-      Object dest = toAppendTo;
-      if (dest instanceof Appendable) {
-        format((Unit<?>) unit, (Appendable) dest);
-      } else { // When retroweaver is used to produce 1.4 binaries.
-        format((Unit<?>) unit, new Appendable() {
-
-          public Appendable append(char arg0) throws IOException {
-            toAppendTo.append(arg0);
-            return null;
-          }
-
-          public Appendable append(CharSequence arg0) throws IOException {
-            toAppendTo.append(arg0);
-            return null;
-          }
-
-          public Appendable append(CharSequence arg0, int arg1, int arg2) throws IOException {
-            toAppendTo.append(arg0.subSequence(arg1, arg2));
-            return null;
-          }
-        });
-      }
-      return toAppendTo;
-    } catch (IOException e) {
-      throw new Error(e); // Should never happen.
-    }
+    return toAppendTo.append(format((Unit<?>) unit));
   }
 
   /**
@@ -292,14 +266,9 @@ public abstract class SimpleUnitFormat extends AbstractUnitFormat {
   public static class DefaultFormat extends SimpleUnitFormat {
 
     /**
-     * Holds the name to unit mapping.
+     * Holds the name to unit and unit to name mappings, replaced as a whole on updates.
      */
-    final HashMap<String, Unit<?>> _nameToUnit = new HashMap<>();
-
-    /**
-     * Holds the unit to name mapping.
-     */
-    final HashMap<Unit<?>, String> _unitToName = new HashMap<>();
+    volatile LabelTable _labels = LabelTable.EMPTY;
 
     protected DefaultFormat() {
     }
@@ -309,9 +278,9 @@ public abstract class SimpleUnitFormat extends AbstractUnitFormat {
       if (!isValidIdentifier(label))
         throw new IllegalArgumentException("Label: " + label + " is not a valid identifier.");
       synchronized (this) {
-        _nameToUnit.put(label, unit);
-        _unitToName.put(unit, label);
+        _labels = _labels.withLabel(unit, label);
       }
+      clearCaches();
     }
 
     @Override
@@ -319,8 +288,9 @@ public abstract class SimpleUnitFormat extends AbstractUnitFormat {
       if (!isValidIdentifier(alias))
         throw new IllegalArgumentException("Alias: " + alias + " is not a valid identifier.");
       synchronized (this) {
-        _nameToUnit.put(alias, unit);
+        _labels = _labels.withAlias(unit, alias);
       }
+      clearCaches();
     }
 
     @Override
@@ -343,7 +313,7 @@ public abstract class SimpleUnitFormat extends AbstractUnitFormat {
     // Returns the name for the specified unit or null if product unit.
     protected String nameFor(Unit<?> unit) {
       // Searches label database.
-      String label = _unitToName.get(unit);
+      String label = _labels.nameFor(unit);
       if (label != null)
         return label;
       if (unit instanceof BaseUnit)
@@ -413,9 +383,9 @@ public abstract class SimpleUnitFormat extends AbstractUnitFormat {
       return null; // TODO or return blank?
     }
 
-    // Returns the unit for the specified name.
+    // Returns the unit for the specified name, possibly a prefixed label.
     protected Unit<?> unitFor(String name) {
-      Unit<?> unit = _nameToUnit.get(name);
+      Unit<?> unit = _labels.prefixedUnitFor(name, 0, name.length());
       if (unit != null)
         return unit;
       unit = SYMBOL_TO_UNIT.get(name);
@@ -770,7 +740,7 @@ public abstract class SimpleUnitFormat extends AbstractUnitFormat {
     public Unit<?> parse(CharSequence csq) throws ParserException {
       // This implementation MUST always return an AbstractUnit<?>, or else
       // FinalDefaultInstance#parse(CharSequence) must be updated!
-      return parse(csq, 0);
+      return parseCached(csq);
     }
 
     @Override
@@ -812,7 +782,7 @@ public abstract class SimpleUnitFormat extends AbstractUnitFormat {
     @Override
     protected String nameFor(Unit<?> unit) {
       // First search if specific ASCII name should be used.
-      String name = _unitToName.get(unit);
+      String name = _labels.nameFor(unit);
       if (name != null)
         return name;
       // Else returns default name.
@@ -822,7 +792,7 @@ public abstract class SimpleUnitFormat extends AbstractUnitFormat {
     @Override
     protected Unit<?> unitFor(String name) {
       // First search if specific ASCII name.
-      Unit<?> unit = _nameToUnit.get(name);
+      Unit<?> unit = _labels.unitFor(name);
       if (unit != null)
         return unit;
       // Else returns default mapping.
@@ -995,5 +965,10 @@ public abstract class SimpleUnitFormat extends AbstractUnitFormat {
 
     DEFAULT.label(AbstractUnit.ONE, "one");
     ASCII.label(AbstractUnit.ONE, "one");
+
+    DEFAULT.setParseCacheSize(DEFAULT_CACHE_SIZE);
+    ASCII.setParseCacheSize(DEFAULT_CACHE_SIZE);
+    DEFAULT.setFormatCacheSize(DEFAULT_CACHE_SIZE);
+    ASCII.setFormatCacheSize(DEFAULT_CACHE_SIZE);
   }
 }
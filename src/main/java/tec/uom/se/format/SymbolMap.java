@@ -37,17 +37,18 @@ import javax.measure.Unit;
 import javax.measure.UnitConverter;
 
 import java.lang.reflect.Field;
+import java.util.Arrays;
 import java.util.Collections;
 import java.util.Comparator;
 import java.util.Enumeration;
 import java.util.HashMap;
-import java.util.List;
+import java.util.Locale;
 import java.util.Map;
 import java.util.ResourceBundle;
 import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
 import java.util.logging.Level;
 import java.util.logging.Logger;
-import java.util.stream.Collectors;
 
 /**
  * <p>
@@ -72,31 +73,80 @@ import java.util.stream.Collectors;
 public final class SymbolMap {
   private static final Logger logger = Logger.getLogger(SymbolMap.class.getName());
 
-  private final Map<String, Unit<?>> symbolToUnit;
-  private final Map<Unit<?>, String> unitToSymbol;
-  private final Map<String, Object> symbolToPrefix;
-  private final Map<Object, String> prefixToSymbol;
-  private final Map<UnitConverter, MetricPrefix> converterToPrefix;
+  /**
+   * The base name of the resource bundles of this library.
+   */
+  static final String BUNDLE_NAME = "tec.uom.se.format.messages";
+
+  /**
+   * The mappings read from the bundles of this library, by locale, shared by all the symbol maps created from them. Other bundles are read for each
+   * symbol map, so that neither they nor their class loaders are kept reachable.
+   */
+  private static final Map<Locale, Tables> BUNDLE_TABLES = new ConcurrentHashMap<>();
+
+  /**
+   * The name of the class generated at build time from the bundles of this package.
+   */
+  static final String GENERATED_TABLES_CLASS = "tec.uom.se.format.GeneratedSymbolTables";
+
+  /**
+   * The mappings generated at build time, which reference the units and prefixes directly instead of looking up their fields by reflection, or
+   * <code>null</code> if the sources were compiled without them.
+   */
+  private static final TableSource GENERATED_TABLES = generatedTables();
+
+  /**
+   * The current mappings, replaced as a whole when a label or alias is attached so that maps sharing them are not affected.
+   */
+  private volatile Tables tables;
+
+  /**
+   * Incremented on every change of the mappings, so that caches of the formats using them can be invalidated.
+   */
+  private volatile int version;
+
+  /**
+   * Creates a mapping using the specified tables.
+   */
+  private SymbolMap(Tables tables) {
+    this.tables = tables;
+  }
+
+  private static TableSource generatedTables() {
+    try {
+      return (TableSource) Class.forName(GENERATED_TABLES_CLASS).getDeclaredConstructor().newInstance();
+    } catch (ClassNotFoundException e) {
+      return null;
+    } catch (ReflectiveOperationException | ClassCastException e) {
+      logger.log(Level.WARNING, "Unable to load " + GENERATED_TABLES_CLASS, e);
+      return null;
+    }
+  }
 
   /**
-   * Creates an empty mapping.
+   * Reads the mappings of the specified resource bundle, from the tables generated at build time if the bundle is one of this library.
+   *
+   * @param rb
+   *          the resource bundle.
    */
-  private SymbolMap() {
-    symbolToUnit = new TreeMap<>();
-    unitToSymbol = new HashMap<>();
-    symbolToPrefix = new TreeMap<>();
-    prefixToSymbol = new HashMap<>();
-    converterToPrefix = new HashMap<>();
+  private static Tables read(ResourceBundle rb) {
+    Builder builder = new Builder();
+    if (GENERATED_TABLES != null && GENERATED_TABLES.fill(rb.getBaseBundleName(), rb.getLocale(), builder)) {
+      return builder.build();
+    }
+    readFields(rb, builder);
+    return builder.build();
   }
 
   /**
-   * Creates a symbol map from the specified resource bundle,
+   * Adds the mappings of the specified resource bundle to a builder, reading the unit or prefix of each key from the field it names.
    *
    * @param rb
    *          the resource bundle.
+   * @param builder
+   *          the builder receiving the mappings.
    */
-  private SymbolMap(ResourceBundle rb) {
-    this();
+  static void readFields(ResourceBundle rb, Builder builder) {
     for (Enumeration<String> i = rb.getKeys(); i.hasMoreElements();) {
       String fqn = i.nextElement();
       String symbol = rb.getString(fqn);
@@ -117,12 +167,12 @@ public final class SymbolMap {
         Object value = field.get(null);
         if (value instanceof Unit<?>) {
           if (isAlias) {
-            alias((Unit) value, symbol);
+            builder.alias((Unit) value, symbol);
           } else {
-            label((AbstractUnit<?>) value, symbol);
+            builder.label((AbstractUnit<?>) value, symbol);
           }
         } else if (value instanceof MetricPrefix) {
-          label((MetricPrefix) value, symbol);
+          builder.label((MetricPrefix) value, symbol);
         } else {
           throw new ClassCastException("unable to cast " + value + " to Unit or Prefix");
         }
@@ -133,13 +183,24 @@ public final class SymbolMap {
   }
 
   /**
-   * Creates a symbol map from the specified resource bundle,
+   * Creates a symbol map from the specified resource bundle. The bundles of this library are read only once per locale; symbol maps created from
+   * them share their mappings until they are changed through {@link #label(Unit, String)} or {@link #alias(Unit, String)}.
    *
    * @param rb
    *          the resource bundle.
    */
   public static SymbolMap of(ResourceBundle rb) {
-    return new SymbolMap(rb);
+    if (BUNDLE_NAME.equals(rb.getBaseBundleName())) {
+      return new SymbolMap(BUNDLE_TABLES.computeIfAbsent(rb.getLocale(), locale -> read(rb)));
+    }
+    return new SymbolMap(read(rb));
+  }
+
+  /**
+   * Returns the number of bundle tables cached.
+   */
+  static int cachedTables() {
+    return BUNDLE_TABLES.size();
   }
 
   /**
@@ -152,9 +213,9 @@ public final class SymbolMap {
    * @param symbol
    *          the new symbol for the unit.
    */
-  public void label(Unit<?> unit, String symbol) {
-    symbolToUnit.put(symbol, unit);
-    unitToSymbol.put(unit, symbol);
+  public synchronized void label(Unit<?> unit, String symbol) {
+    tables = tables.toBuilder().label(unit, symbol).build();
+    version++;
   }
 
   /**
@@ -167,8 +228,9 @@ public final class SymbolMap {
    * @param symbol
    *          the new symbol for the unit.
    */
-  public void alias(Unit<?> unit, String symbol) {
-    symbolToUnit.put(symbol, unit);
+  public synchronized void alias(Unit<?> unit, String symbol) {
+    tables = tables.toBuilder().alias(unit, symbol).build();
+    version++;
   }
 
   /**
@@ -176,10 +238,16 @@ public final class SymbolMap {
    * <code> symbolMap.label(MetricPrefix.GIGA, "G"); symbolMap.label(MetricPrefix.MICRO, "µ");
    * </code>
    */
-  public void label(MetricPrefix prefix, String symbol) {
-    symbolToPrefix.put(symbol, prefix);
-    prefixToSymbol.put(prefix, symbol);
-    converterToPrefix.put(prefix.getConverter(), prefix);
+  public synchronized void label(MetricPrefix prefix, String symbol) {
+    tables = tables.toBuilder().label(prefix, symbol).build();
+    version++;
+  }
+
+  /**
+   * Returns the number of changes of the mappings.
+   */
+  int getVersion() {
+    return version;
   }
 
   /**
@@ -190,7 +258,7 @@ public final class SymbolMap {
    * @return the corresponding unit or <code>null</code> if none.
    */
   public Unit<?> getUnit(String symbol) {
-    return symbolToUnit.get(symbol);
+    return tables.symbolToUnit.get(symbol);
   }
 
   /**
@@ -201,7 +269,7 @@ public final class SymbolMap {
    * @return the corresponding symbol or <code>null</code> if none.
    */
   public String getSymbol(Unit<?> unit) {
-    return unitToSymbol.get(unit);
+    return tables.unitToSymbol.get(unit);
   }
 
   /**
@@ -212,17 +280,14 @@ public final class SymbolMap {
    * @return the corresponding prefix or <code>null</code> if none.
    */
   public MetricPrefix getPrefix(String symbol) {
-	final List<String> list = symbolToPrefix.keySet().stream().collect(Collectors.toList());
-	final Comparator<String> comparator = Comparator.comparing(String::length);
-	Collections.sort(list, comparator.reversed());
-
-	for (String key : list) {
-	    if (symbol.startsWith(key)) {
-		return (MetricPrefix) symbolToPrefix.get(key);
-	    }
-	}
-	return null;
+    Tables t = tables;
+    for (String key : t.prefixSymbols) {
+      if (symbol.startsWith(key)) {
+        return t.symbolToPrefix.get(key);
+      }
     }
+    return null;
+  }
 
   /**
    * Returns the prefix for the specified converter.
@@ -232,7 +297,7 @@ public final class SymbolMap {
    * @return the corresponding prefix or <code>null</code> if none.
    */
   public MetricPrefix getPrefix(UnitConverter converter) {
-    return converterToPrefix.get(converter);
+    return tables.converterToPrefix.get(converter);
   }
 
   /**
@@ -243,21 +308,108 @@ public final class SymbolMap {
    * @return the corresponding symbol or <code>null</code> if none.
    */
   public String getSymbol(MetricPrefix prefix) {
-    return prefixToSymbol.get(prefix);
+    return tables.prefixToSymbol.get(prefix);
   }
 
   @Override
   public String toString() {
+    Tables t = tables;
     StringBuilder sb = new StringBuilder();
     sb.append("tec.uom.se.format.SymbolMap: [");
-    sb.append("symbolToUnit: ").append(symbolToUnit).append(',');
-    sb.append("unitToSymbol: ").append(unitToSymbol).append(',');
-    sb.append("symbolToPrefix: ").append(symbolToPrefix).append(',');
-    sb.append("prefixToSymbol: ").append(prefixToSymbol).append(',');
-    sb.append("converterToPrefix: ").append(converterToPrefix).append(',');
-    sb.append("converterToPrefix: ").append(converterToPrefix);
+    sb.append("symbolToUnit: ").append(t.symbolToUnit).append(',');
+    sb.append("unitToSymbol: ").append(t.unitToSymbol).append(',');
+    sb.append("symbolToPrefix: ").append(t.symbolToPrefix).append(',');
+    sb.append("prefixToSymbol: ").append(t.prefixToSymbol).append(',');
+    sb.append("converterToPrefix: ").append(t.converterToPrefix).append(',');
+    sb.append("converterToPrefix: ").append(t.converterToPrefix);
     sb.append(" ]");
     return sb.toString();
   }
 
+  /**
+   * An immutable set of mappings, created by a {@link Builder}.
+   */
+  private static final class Tables {
+    private final Map<String, Unit<?>> symbolToUnit;
+    private final Map<Unit<?>, String> unitToSymbol;
+    private final Map<String, MetricPrefix> symbolToPrefix;
+    private final Map<MetricPrefix, String> prefixToSymbol;
+    private final Map<UnitConverter, MetricPrefix> converterToPrefix;
+    /**
+     * The prefix symbols, longest first, so that the longest matching prefix is found first.
+     */
+    private final String[] prefixSymbols;
+
+    private Tables(Builder builder) {
+      symbolToUnit = Collections.unmodifiableMap(new TreeMap<>(builder.symbolToUnit));
+      unitToSymbol = Collections.unmodifiableMap(new HashMap<>(builder.unitToSymbol));
+      symbolToPrefix = Collections.unmodifiableMap(new TreeMap<>(builder.symbolToPrefix));
+      prefixToSymbol = Collections.unmodifiableMap(new HashMap<>(builder.prefixToSymbol));
+      converterToPrefix = Collections.unmodifiableMap(new HashMap<>(builder.converterToPrefix));
+      prefixSymbols = symbolToPrefix.keySet().toArray(new String[symbolToPrefix.size()]);
+      Arrays.sort(prefixSymbols, Comparator.comparing(String::length).reversed());
+    }
+
+    private Builder toBuilder() {
+      Builder builder = new Builder();
+      builder.symbolToUnit.putAll(symbolToUnit);
+      builder.unitToSymbol.putAll(unitToSymbol);
+      builder.symbolToPrefix.putAll(symbolToPrefix);
+      builder.prefixToSymbol.putAll(prefixToSymbol);
+      builder.converterToPrefix.putAll(converterToPrefix);
+      return builder;
+    }
+  }
+
+  /**
+   * Collects mappings before they are frozen into {@link Tables}, either from a resource bundle at runtime or by the tables generated at build time.
+   */
+  static final class Builder {
+    final Map<String, Unit<?>> symbolToUnit = new TreeMap<>();
+    final Map<Unit<?>, String> unitToSymbol = new HashMap<>();
+    final Map<String, MetricPrefix> symbolToPrefix = new TreeMap<>();
+    final Map<MetricPrefix, String> prefixToSymbol = new HashMap<>();
+    final Map<UnitConverter, MetricPrefix> converterToPrefix = new HashMap<>();
+
+    Builder label(Unit<?> unit, String symbol) {
+      symbolToUnit.put(symbol, unit);
+      unitToSymbol.put(unit, symbol);
+      return this;
+    }
+
+    Builder alias(Unit<?> unit, String symbol) {
+      symbolToUnit.put(symbol, unit);
+      return this;
+    }
+
+    Builder label(MetricPrefix prefix, String symbol) {
+      symbolToPrefix.put(symbol, prefix);
+      prefixToSymbol.put(prefix, symbol);
+      converterToPrefix.put(prefix.getConverter(), prefix);
+      return this;
+    }
+
+    Tables build() {
+      return new Tables(this);
+    }
+  }
+
+  /**
+   * Fills a {@link Builder} with the mappings of the bundles known at build time.
+   */
+  interface TableSource {
+    /**
+     * Adds the mappings of the specified bundle.
+     *
+     * @param baseName
+     *          the base name of the bundle.
+     * @param locale
+     *          the locale of the bundle.
+     * @param builder
+     *          the builder receiving the mappings.
+     * @return <code>true</code> if the bundle is known, <code>false</code> if it has to be read at runtime.
+     */
+    boolean fill(String baseName, Locale locale, Builder builder);
+  }
+
 }
@@ -0,0 +1,264 @@
+/*
+ * Units of Measurement Implementation for Java SE
+ * Copyright (c) 2005-2017, Jean-Marie Dautelle, Werner Keil, V2COM.
+ *
+ * All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without modification,
+ * are permitted provided that the following conditions are met:
+ *
+ * 1. Redistributions of source code must retain the above copyright notice,
+ *    this list of conditions and the following disclaimer.
+ *
+ * 2. Redistributions in binary form must reproduce the above copyright notice, this list of conditions
+ *    and the following disclaimer in the documentation and/or other materials provided with the distribution.
+ *
+ * 3. Neither the name of JSR-363 nor the names of its contributors may be used to endorse or promote products
+ *    derived from this software without specific prior written permission.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS"
+ * AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO,
+ * THE IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE
+ * ARE DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT HOLDER OR CONTRIBUTORS BE LIABLE
+ * FOR ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES
+ * (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES;
+ * LOSS OF USE, DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED
+ * AND ON ANY THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT
+ * (INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE OF THIS SOFTWARE,
+ * EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ */
+package tec.uom.se.function;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.Objects;
+import java.util.function.ToDoubleFunction;
+
+import javax.measure.Quantity;
+import javax.measure.Unit;
+
+import tec.uom.se.internal.function.ConverterCache;
+import tec.uom.se.quantity.time.TimedData;
+
+/**
+ * A state object keeping the K highest ranked elements of a stream in a bounded heap, e.g. the largest or smallest quantities, or the most recent
+ * timed data.
+ * <p>
+ * Each element is ranked by a primitive key extracted once when it is accepted (quantities are converted to a single unit), so selecting K of n
+ * elements takes O(n log K) time without sorting the whole stream. Heaps of the same kind can be combined, e.g. by the collectors in
+ * {@link QuantityFunctions}. Elements whose key is NaN are ignored; of equally ranked elements, those accepted first are kept and listed first.
+ * </p>
+ * <p>
+ * This class is not thread-safe.
+ * </p>
+ *
+ * @param <T>
+ *          The type of the elements.
+ */
+public final class BoundedQuantityHeap<T> {
+
+  private final int capacity;
+
+  private final ToDoubleFunction<? super T> ranking;
+
+  /**
+   * A min-heap of the ranks, the root being the lowest ranked element kept. Of equal ranks, the element accepted last ranks lowest.
+   */
+  private double[] ranks;
+
+  /**
+   * The order in which the elements were accepted.
+   */
+  private long[] sequences;
+
+  private Object[] elements;
+
+  private int size;
+
+  private long nextSequence;
+
+  private BoundedQuantityHeap(int capacity, ToDoubleFunction<? super T> ranking) {
+    this.capacity = checkCapacity(capacity);
+    this.ranking = ranking;
+    int initial = Math.min(capacity, 16);
+    this.ranks = new double[initial];
+    this.sequences = new long[initial];
+    this.elements = new Object[initial];
+  }
+
+  static int checkCapacity(int capacity) {
+    if (capacity < 1) {
+      throw new IllegalArgumentException("Capacity must be at least 1: " + capacity);
+    }
+    return capacity;
+  }
+
+  /**
+   * Creates a heap keeping the K largest quantities.
+   * 
+   * @param k
+   *          the number of quantities to keep, at least 1.
+   * @param unit
+   *          the unit in which quantities are compared, not null.
+   * @return the new heap
+   */
+  public static <Q extends Quantity<Q>> BoundedQuantityHeap<Quantity<Q>> largest(int k, Unit<Q> unit) {
+    ConverterCache<Q> converters = new ConverterCache<>(unit);
+    return new BoundedQuantityHeap<>(k, converters::convert);
+  }
+
+  /**
+   * Creates a heap keeping the K smallest quantities.
+   * 
+   * @param k
+   *          the number of quantities to keep, at least 1.
+   * @param unit
+   *          the unit in which quantities are compared, not null.
+   * @return the new heap
+   */
+  public static <Q extends Quantity<Q>> BoundedQuantityHeap<Quantity<Q>> smallest(int k, Unit<Q> unit) {
+    ConverterCache<Q> converters = new ConverterCache<>(unit);
+    return new BoundedQuantityHeap<>(k, q -> -converters.convert(q));
+  }
+
+  /**
+   * Creates a heap keeping the K timed data with the latest timestamps.
+   * 
+   * @param k
+   *          the number of timed data to keep, at least 1.
+   * @return the new heap
+   */
+  public static <T> BoundedQuantityHeap<TimedData<T>> latest(int k) {
+    return new BoundedQuantityHeap<>(k, TimedData::getTimestamp);
+  }
+
+  /**
+   * Records another element, which replaces the lowest ranked one if the heap is full and it ranks higher.
+   * 
+   * @param element
+   *          the input element, not null.
+   */
+  public void accept(T element) {
+    Objects.requireNonNull(element);
+    double rank = ranking.applyAsDouble(element);
+    if (Double.isNaN(rank)) {
+      return;
+    }
+    if (size < capacity) {
+      if (size == elements.length) {
+        int length = (int) Math.min(capacity, 2L * size);
+        ranks = Arrays.copyOf(ranks, length);
+        sequences = Arrays.copyOf(sequences, length);
+        elements = Arrays.copyOf(elements, length);
+      }
+      siftUp(size++, rank, nextSequence++, element);
+    } else if (rank > ranks[0]) {
+      siftDown(0, rank, nextSequence++, element);
+    }
+  }
+
+  /**
+   * Combines the state of another {@code BoundedQuantityHeap} into this one. The elements of the other heap count as accepted after those of this
+   * one.
+   * 
+   * @param other
+   *          another {@code BoundedQuantityHeap} of the same kind, not null.
+   * @return this heap, keeping the K highest ranked elements of both
+   */
+  @SuppressWarnings("unchecked")
+  public BoundedQuantityHeap<T> combine(BoundedQuantityHeap<T> other) {
+    for (int index : other.acceptanceOrder()) {
+      accept((T) other.elements[index]);
+    }
+    return this;
+  }
+
+  /**
+   * Get the number of elements kept.
+   * 
+   * @return the number of elements, at most K.
+   */
+  public int size() {
+    return size;
+  }
+
+  /**
+   * Returns the elements kept, highest ranked first, i.e. largest, smallest or latest first.
+   * 
+   * @return a new list of at most K elements
+   */
+  @SuppressWarnings("unchecked")
+  public List<T> toList() {
+    int[] accepted = acceptanceOrder();
+    double[] keys = new double[size];
+    for (int i = 0; i < size; i++) {
+      keys[i] = -ranks[accepted[i]];
+    }
+    // the sort is stable, so equally ranked elements stay in acceptance order
+    List<T> result = new ArrayList<>(size);
+    for (int index : KeySorter.sortedIndices(keys)) {
+      result.add((T) elements[accepted[index]]);
+    }
+    return Collections.unmodifiableList(result);
+  }
+
+  /**
+   * Returns the heap slots of the elements, in the order they were accepted.
+   */
+  private int[] acceptanceOrder() {
+    double[] keys = new double[size];
+    for (int i = 0; i < size; i++) {
+      keys[i] = sequences[i];
+    }
+    return KeySorter.sortedIndices(keys);
+  }
+
+  /**
+   * Returns whether the first element ranks lower than the second, the later accepted of equal ranks being the lower.
+   */
+  private static boolean lower(double rank, long sequence, double otherRank, long otherSequence) {
+    return rank < otherRank || (rank == otherRank && sequence > otherSequence);
+  }
+
+  private void siftUp(int index, double rank, long sequence, T element) {
+    while (index > 0) {
+      int parent = (index - 1) >>> 1;
+      if (!lower(rank, sequence, ranks[parent], sequences[parent])) {
+        break;
+      }
+      set(index, ranks[parent], sequences[parent], elements[parent]);
+      index = parent;
+    }
+    set(index, rank, sequence, element);
+  }
+
+  private void siftDown(int index, double rank, long sequence, T element) {
+    int half = size >>> 1;
+    while (index < half) {
+      int child = (index << 1) + 1;
+      int right = child + 1;
+      if (right < size && lower(ranks[right], sequences[right], ranks[child], sequences[child])) {
+        child = right;
+      }
+      if (!lower(ranks[child], sequences[child], rank, sequence)) {
+        break;
+      }
+      set(index, ranks[child], sequences[child], elements[child]);
+      index = child;
+    }
+    set(index, rank, sequence, element);
+  }
+
+  private void set(int index, double rank, long sequence, Object element) {
+    ranks[index] = rank;
+    sequences[index] = sequence;
+    elements[index] = element;
+  }
+
+  @Override
+  public String toString() {
+    return "[capacity:" + capacity + ",elements:" + toList() + "]";
+  }
+}
@@ -0,0 +1,142 @@
+/*
+ * Units of Measurement Implementation for Java SE
+ * Copyright (c) 2005-2017, Jean-Marie Dautelle, Werner Keil, V2COM.
+ *
+ * All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without modification,
+ * are permitted provided that the following conditions are met:
+ *
+ * 1. Redistributions of source code must retain the above copyright notice,
+ *    this list of conditions and the following disclaimer.
+ *
+ * 2. Redistributions in binary form must reproduce the above copyright notice, this list of conditions
+ *    and the following disclaimer in the documentation and/or other materials provided with the distribution.
+ *
+ * 3. Neither the name of JSR-363 nor the names of its contributors may be used to endorse or promote products
+ *    derived from this software without specific prior written permission.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS"
+ * AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO,
+ * THE IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE
+ * ARE DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT HOLDER OR CONTRIBUTORS BE LIABLE
+ * FOR ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES
+ * (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES;
+ * LOSS OF USE, DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED
+ * AND ON ANY THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT
+ * (INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE OF THIS SOFTWARE,
+ * EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ */
+package tec.uom.se.function;
+
+import java.util.concurrent.atomic.AtomicReferenceArray;
+
+import javax.measure.Quantity;
+import javax.measure.Unit;
+
+import tec.uom.se.internal.function.ConverterCache;
+
+/**
+ * A thread-safe accumulator for count, min, max, sum, mean and variance of quantities, stated in a fixed target unit. The state is striped over
+ * {@link QuantitySummaryStatistics} cells, each guarded by its own monitor and picked by the accepting thread, so many threads may accept into one
+ * shared instance with little contention and without combiner copies. It backs the concurrent collectors of {@link QuantityFunctions}.
+ * <p>
+ * Each cell keeps a compensated sum and Welford's running mean and squared deviation, which are merged with Chan's formula when a snapshot is taken.
+ * The result is as accurate as that of the sequential collectors, though its rounding may depend on how values were distributed over the cells.
+ * </p>
+ *
+ * @param <Q>
+ *          The type of the quantity.
+ */
+final class ConcurrentQuantitySummary<Q extends Quantity<Q>> {
+
+  private static final int STRIPES = stripes(Runtime.getRuntime().availableProcessors());
+
+  private final ConverterCache<Q> converters;
+
+  /**
+   * Cells created on first use by a thread hashing to them.
+   */
+  private final AtomicReferenceArray<QuantitySummaryStatistics<Q>> cells = new AtomicReferenceArray<>(STRIPES);
+
+  ConcurrentQuantitySummary(Unit<Q> unit) {
+    converters = new ConverterCache<>(unit);
+  }
+
+  /**
+   * Returns the smallest power of two that is at least twice the number of processors, at most 64.
+   */
+  static int stripes(int processors) {
+    int n = 1;
+    while (n < 2 * processors && n < 64) {
+      n <<= 1;
+    }
+    return n;
+  }
+
+  /**
+   * Records another quantity, may be called concurrently.
+   */
+  void accept(Quantity<Q> quantity) {
+    double value = converters.convert(quantity);
+    QuantitySummaryStatistics<Q> cell = cell();
+    synchronized (cell) {
+      cell.accept(value);
+    }
+  }
+
+  /**
+   * Returns the cell of the current thread, creating it if needed.
+   */
+  private QuantitySummaryStatistics<Q> cell() {
+    long id = Thread.currentThread().getId();
+    int h = (int) (id ^ (id >>> 32)) * 0x9E3779B9;
+    int index = (h ^ (h >>> 16)) & (cells.length() - 1);
+    QuantitySummaryStatistics<Q> cell = cells.get(index);
+    if (cell == null) {
+      cells.compareAndSet(index, null, new QuantitySummaryStatistics<>(converters.getUnit()));
+      cell = cells.get(index);
+    }
+    return cell;
+  }
+
+  /**
+   * Adds the state of another accumulator with the same unit to this one. Concurrent collectors normally share a single accumulator, so this is only
+   * needed when a stream is reduced without concurrency.
+   */
+  ConcurrentQuantitySummary<Q> combine(ConcurrentQuantitySummary<Q> other) {
+    if (other != this) {
+      QuantitySummaryStatistics<Q> snapshot = other.toSummaryStatistics();
+      QuantitySummaryStatistics<Q> cell = cell();
+      synchronized (cell) {
+        cell.combine(snapshot);
+      }
+    }
+    return this;
+  }
+
+  /**
+   * Returns a sum of the values accepted so far, stated in the target unit.
+   */
+  double sumValue() {
+    return toSummaryStatistics().sumValue();
+  }
+
+  /**
+   * Returns a snapshot of the current state. The result is exact if no concurrent updates happen while it is taken.
+   */
+  QuantitySummaryStatistics<Q> toSummaryStatistics() {
+    QuantitySummaryStatistics<Q> summary = new QuantitySummaryStatistics<>(converters.getUnit());
+    for (int i = 0; i < cells.length(); i++) {
+      QuantitySummaryStatistics<Q> cell = cells.get(i);
+      if (cell != null) {
+        QuantitySummaryStatistics<Q> copy;
+        synchronized (cell) {
+          copy = cell.to(summary.getUnit());
+        }
+        summary.combine(copy);
+      }
+    }
+    return summary;
+  }
+}
@@ -0,0 +1,83 @@
+/*
+ * Units of Measurement Implementation for Java SE
+ * Copyright (c) 2005-2017, Jean-Marie Dautelle, Werner Keil, V2COM.
+ *
+ * All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without modification,
+ * are permitted provided that the following conditions are met:
+ *
+ * 1. Redistributions of source code must retain the above copyright notice,
+ *    this list of conditions and the following disclaimer.
+ *
+ * 2. Redistributions in binary form must reproduce the above copyright notice, this list of conditions
+ *    and the following disclaimer in the documentation and/or other materials provided with the distribution.
+ *
+ * 3. Neither the name of JSR-363 nor the names of its contributors may be used to endorse or promote products
+ *    derived from this software without specific prior written permission.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS"
+ * AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO,
+ * THE IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE
+ * ARE DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT HOLDER OR CONTRIBUTORS BE LIABLE
+ * FOR ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES
+ * (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES;
+ * LOSS OF USE, DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED
+ * AND ON ANY THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT
+ * (INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE OF THIS SOFTWARE,
+ * EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ */
+package tec.uom.se.function;
+
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+import java.util.function.IntFunction;
+
+/**
+ * A mathematical constant computed as a <code>BigDecimal</code> on demand and cached. The most precise value computed so far is kept, and requests
+ * for fewer digits are served by truncating it, so that converters working with a <code>MathContext</code> compute the constant at most once per
+ * increase of precision.
+ */
+final class DecimalConstant {
+
+  /**
+   * Computes the constant with the given number of fraction digits, truncated.
+   */
+  private final IntFunction<BigDecimal> computation;
+
+  /**
+   * The most precise value computed so far, or <code>null</code>.
+   */
+  private volatile BigDecimal cached;
+
+  /**
+   * Creates a constant.
+   *
+   * @param computation
+   *          computes the constant with the given number of fraction digits, truncated toward zero.
+   */
+  DecimalConstant(IntFunction<BigDecimal> computation) {
+    this.computation = computation;
+  }
+
+  /**
+   * Returns the constant with the specified number of fraction digits, truncated toward zero.
+   *
+   * @param digits
+   *          the number of fraction digits.
+   * @return the constant, with a scale of <code>digits</code>.
+   */
+  BigDecimal get(int digits) {
+    BigDecimal value = cached;
+    if (value != null && value.scale() >= digits) {
+      return value.scale() == digits ? value : value.setScale(digits, RoundingMode.DOWN);
+    }
+    value = computation.apply(digits);
+    synchronized (this) {
+      if (cached == null || cached.scale() < value.scale()) {
+        cached = value;
+      }
+    }
+    return value;
+  }
+}
@@ -0,0 +1,87 @@
+/*
+ * Units of Measurement Implementation for Java SE
+ * Copyright (c) 2005-2017, Jean-Marie Dautelle, Werner Keil, V2COM.
+ *
+ * All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without modification,
+ * are permitted provided that the following conditions are met:
+ *
+ * 1. Redistributions of source code must retain the above copyright notice,
+ *    this list of conditions and the following disclaimer.
+ *
+ * 2. Redistributions in binary form must reproduce the above copyright notice, this list of conditions
+ *    and the following disclaimer in the documentation and/or other materials provided with the distribution.
+ *
+ * 3. Neither the name of JSR-363 nor the names of its contributors may be used to endorse or promote products
+ *    derived from this software without specific prior written permission.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS"
+ * AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO,
+ * THE IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE
+ * ARE DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT HOLDER OR CONTRIBUTORS BE LIABLE
+ * FOR ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES
+ * (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES;
+ * LOSS OF USE, DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED
+ * AND ON ANY THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT
+ * (INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE OF THIS SOFTWARE,
+ * EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ */
+package tec.uom.se.function;
+
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.function.Function;
+
+import javax.measure.Quantity;
+import javax.measure.Unit;
+
+/**
+ * Accumulates quantities into one {@link QuantitySummaryStatistics} per group, where the group is derived from the unit of each quantity (e.g. its
+ * dimension or system unit). Each group is summarized in the system unit of the first unit seen for it, so that e.g. "1000 m" and "1 km" end up in
+ * the same summary.
+ * <p>
+ * The group of each distinct unit is resolved only once; consecutive quantities of the same unit take a single reference comparison. This class is
+ * not thread-safe, it backs the grouping collectors of {@link QuantityFunctions}.
+ * </p>
+ *
+ * @param <K>
+ *          The type of the group key.
+ */
+@SuppressWarnings({ "rawtypes", "unchecked" })
+final class GroupedQuantitySummary<K> {
+
+  private final Function<Unit<?>, K> classifier;
+
+  private final Map<K, QuantitySummaryStatistics> summaries = new LinkedHashMap<>();
+
+  private final Map<Unit<?>, QuantitySummaryStatistics> unitToSummary = new HashMap<>();
+
+  private Unit<?> lastUnit;
+
+  private QuantitySummaryStatistics lastSummary;
+
+  GroupedQuantitySummary(Function<Unit<?>, K> classifier) {
+    this.classifier = classifier;
+  }
+
+  void accept(Quantity<?> quantity) {
+    Unit<?> unit = quantity.getUnit();
+    if (unit != lastUnit) {
+      lastSummary = unitToSummary.computeIfAbsent(unit, u -> summaries.computeIfAbsent(classifier.apply(u),
+          k -> new QuantitySummaryStatistics(u.getSystemUnit())));
+      lastUnit = unit;
+    }
+    lastSummary.accept((Quantity) quantity);
+  }
+
+  GroupedQuantitySummary<K> combine(GroupedQuantitySummary<K> other) {
+    other.summaries.forEach((key, summary) -> summaries.merge(key, summary, QuantitySummaryStatistics::combine));
+    return this;
+  }
+
+  Map<K, QuantitySummaryStatistics> getSummaries() {
+    return summaries;
+  }
+}
@@ -0,0 +1,141 @@
+/*
+ * Units of Measurement Implementation for Java SE
+ * Copyright (c) 2005-2017, Jean-Marie Dautelle, Werner Keil, V2COM.
+ *
+ * All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without modification,
+ * are permitted provided that the following conditions are met:
+ *
+ * 1. Redistributions of source code must retain the above copyright notice,
+ *    this list of conditions and the following disclaimer.
+ *
+ * 2. Redistributions in binary form must reproduce the above copyright notice, this list of conditions
+ *    and the following disclaimer in the documentation and/or other materials provided with the distribution.
+ *
+ * 3. Neither the name of JSR-363 nor the names of its contributors may be used to endorse or promote products
+ *    derived from this software without specific prior written permission.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS"
+ * AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO,
+ * THE IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE
+ * ARE DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT HOLDER OR CONTRIBUTORS BE LIABLE
+ * FOR ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES
+ * (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES;
+ * LOSS OF USE, DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED
+ * AND ON ANY THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT
+ * (INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE OF THIS SOFTWARE,
+ * EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ */
+package tec.uom.se.function;
+
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
+
+/**
+ * Sorts indices by primitive <code>double</code> keys, so that collections of quantities can be ordered after extracting each value only once,
+ * instead of converting both operands on every comparison. The sort is a stable merge sort, run on the common {@link ForkJoinPool} for large
+ * inputs. Keys are ordered as by {@link Double#compare(double, double)}.
+ */
+final class KeySorter {
+
+  /**
+   * Inputs below this size are sorted sequentially (as in {@link java.util.Arrays#parallelSort(double[])}).
+   */
+  static final int PARALLEL_THRESHOLD = 1 << 13;
+
+  private static final int INSERTION_THRESHOLD = 32;
+
+  private KeySorter() {
+  }
+
+  /**
+   * Returns the permutation of <code>0..keys.length-1</code> that orders the keys ascending.
+   */
+  static int[] sortedIndices(double[] keys) {
+    int n = keys.length;
+    int[] indices = new int[n];
+    for (int i = 0; i < n; i++) {
+      indices[i] = i;
+    }
+    int[] aux = new int[n];
+    if (n < PARALLEL_THRESHOLD || ForkJoinPool.getCommonPoolParallelism() <= 1) {
+      sort(keys, indices, aux, 0, n);
+    } else {
+      ForkJoinPool.commonPool().invoke(new SortTask(keys, indices, aux, 0, n));
+    }
+    return indices;
+  }
+
+  private static void sort(double[] keys, int[] indices, int[] aux, int from, int to) {
+    if (to - from <= INSERTION_THRESHOLD) {
+      insertionSort(keys, indices, from, to);
+      return;
+    }
+    int mid = (from + to) >>> 1;
+    sort(keys, indices, aux, from, mid);
+    sort(keys, indices, aux, mid, to);
+    merge(keys, indices, aux, from, mid, to);
+  }
+
+  private static void insertionSort(double[] keys, int[] indices, int from, int to) {
+    for (int i = from + 1; i < to; i++) {
+      int index = indices[i];
+      double key = keys[index];
+      int j = i - 1;
+      while (j >= from && Double.compare(keys[indices[j]], key) > 0) {
+        indices[j + 1] = indices[j];
+        j--;
+      }
+      indices[j + 1] = index;
+    }
+  }
+
+  private static void merge(double[] keys, int[] indices, int[] aux, int from, int mid, int to) {
+    if (Double.compare(keys[indices[mid - 1]], keys[indices[mid]]) <= 0) {
+      return; // already in order
+    }
+    System.arraycopy(indices, from, aux, from, to - from);
+    int i = from;
+    int j = mid;
+    for (int k = from; k < to; k++) {
+      if (i >= mid) {
+        indices[k] = aux[j++];
+      } else if (j >= to || Double.compare(keys[aux[i]], keys[aux[j]]) <= 0) {
+        indices[k] = aux[i++];
+      } else {
+        indices[k] = aux[j++];
+      }
+    }
+  }
+
+  private static final class SortTask extends RecursiveAction {
+
+    private static final long serialVersionUID = 1L;
+
+    private final double[] keys;
+    private final int[] indices;
+    private final int[] aux;
+    private final int from;
+    private final int to;
+
+    private SortTask(double[] keys, int[] indices, int[] aux, int from, int to) {
+      this.keys = keys;
+      this.indices = indices;
+      this.aux = aux;
+      this.from = from;
+      this.to = to;
+    }
+
+    @Override
+    protected void compute() {
+      if (to - from < PARALLEL_THRESHOLD) {
+        sort(keys, indices, aux, from, to);
+        return;
+      }
+      int mid = (from + to) >>> 1;
+      invokeAll(new SortTask(keys, indices, aux, from, mid), new SortTask(keys, indices, aux, mid, to));
+      merge(keys, indices, aux, from, mid, to);
+    }
+  }
+}
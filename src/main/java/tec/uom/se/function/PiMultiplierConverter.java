@@ -56,8 +56,6 @@ public final class PiMultiplierConverter extends AbstractConverter implements Va
      */
   private static final long serialVersionUID = -5763262154104962367L;
 
-  private static final Logger logger = Logger.getLogger(PiMultiplierConverter.class.getName());
-
   /**
    * Creates a Pi multiplier converter.
    */
@@ -111,10 +109,22 @@ public final class PiMultiplierConverter extends AbstractConverter implements Va
    */
   static final class Pi {
 
+    /**
+     * π at the highest precision requested so far, shared by the π multiplier and divisor converters.
+     */
+    private static final DecimalConstant VALUE = new DecimalConstant(Pi::compute);
+
     private Pi() {
     }
 
+    /**
+     * Returns π with <code>numDigits</code> fraction digits, truncated.
+     */
     public static BigDecimal pi(int numDigits) {
+      return VALUE.get(numDigits);
+    }
+
+    private static BigDecimal compute(int numDigits) {
       int calcDigits = numDigits + 10;
       return FOUR.multiply((FOUR.multiply(arccot(FIVE, calcDigits))).subtract(arccot(TWO_THIRTY_NINE, calcDigits))).setScale(numDigits,
           RoundingMode.DOWN);
@@ -137,7 +147,10 @@ public final class PiMultiplierConverter extends AbstractConverter implements Va
       int nTerms = 0;
 
       BigDecimal nearZero = BigDecimal.ONE.scaleByPowerOfTen(-numDigits);
-      logger.log(Level.FINER, "arccot: ARGUMENT=" + x + " (nearZero=" + nearZero + ")");
+      // looked up here, as creating a logger while the units are initialized costs more than initializing them
+      Logger logger = Logger.getLogger(PiMultiplierConverter.class.getName());
+      boolean finest = logger.isLoggable(Level.FINEST);
+      logger.log(Level.FINER, "arccot: ARGUMENT={0} (nearZero={1})", new Object[] { x, nearZero });
       boolean add = false;
       // Add one term of Taylor series each time thru loop. Stop looping
       // when _term_
@@ -151,10 +164,12 @@ public final class PiMultiplierConverter extends AbstractConverter implements Va
         add = !add;
         // System.out.println("arccot: xpower=" + xpower + ", term=" +
         // term);
-        logger.log(Level.FINEST, "arccot: term=" + term);
+        if (finest) {
+          logger.log(Level.FINEST, "arccot: term=" + term);
+        }
         nTerms++;
       }
-      logger.log(Level.FINER, "arccot: done. nTerms=" + nTerms);
+      logger.log(Level.FINER, "arccot: done. nTerms={0}", nTerms);
       return sum;
     }
   }
@@ -29,17 +29,29 @@
  */
 package tec.uom.se.function;
 
+import java.util.ArrayList;
 import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
 import java.util.Objects;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
 import java.util.function.BinaryOperator;
 import java.util.function.Function;
 import java.util.function.Predicate;
 import java.util.function.Supplier;
 import java.util.stream.Collector;
+import java.util.stream.Collector.Characteristics;
+import java.util.stream.Collectors;
 
+import javax.measure.Dimension;
 import javax.measure.Quantity;
 import javax.measure.Unit;
 
+import tec.uom.se.internal.function.ConverterCache;
+import tec.uom.se.quantity.Quantities;
+import tec.uom.se.quantity.time.TimedData;
+
 /**
  * @author Otavio
  * @author Werner
@@ -183,6 +195,92 @@ public final class QuantityFunctions {
     return sortNatural.reversed();
   }
 
+  /**
+   * Sorts quantities by their value in the unit of the first quantity, in the same order as {@link #sortNatural()}. The value of each quantity is
+   * converted only once into a primitive key, instead of converting both operands on every comparison; large lists are sorted in parallel. The sort
+   * is stable.
+   * 
+   * @param quantities
+   *          the quantities to sort, not null.
+   * @return a new list with the quantities in ascending order
+   * @throws NullPointerException
+   *           if the list or any of its elements is null
+   */
+  public static <Q extends Quantity<Q>> List<Quantity<Q>> sort(List<? extends Quantity<Q>> quantities) {
+    if (quantities.isEmpty()) {
+      return new ArrayList<>();
+    }
+    return sort(quantities, quantities.get(0).getUnit());
+  }
+
+  /**
+   * Sorts quantities by their value in the given unit.
+   * 
+   * @param quantities
+   *          the quantities to sort, not null.
+   * @param unit
+   *          the unit in which values are compared, not null.
+   * @return a new list with the quantities in ascending order
+   * @throws NullPointerException
+   *           if the list or any of its elements is null
+   * @see #sort(List)
+   */
+  @SuppressWarnings("unchecked")
+  public static <Q extends Quantity<Q>> List<Quantity<Q>> sort(List<? extends Quantity<Q>> quantities, Unit<Q> unit) {
+    Object[] elements = quantities.toArray();
+    int[] indices = KeySorter.sortedIndices(keys(elements, unit));
+    List<Quantity<Q>> sorted = new ArrayList<>(elements.length);
+    for (int index : indices) {
+      sorted.add((Quantity<Q>) elements[index]);
+    }
+    return sorted;
+  }
+
+  /**
+   * Sorts an array of quantities in place by their value in the unit of the first quantity.
+   * 
+   * @param quantities
+   *          the quantities to sort, not null.
+   * @throws NullPointerException
+   *           if the array or any of its elements is null
+   * @see #sort(List)
+   */
+  public static <Q extends Quantity<Q>> void sort(Quantity<Q>[] quantities) {
+    if (quantities.length > 0) {
+      sort(quantities, quantities[0].getUnit());
+    }
+  }
+
+  /**
+   * Sorts an array of quantities in place by their value in the given unit.
+   * 
+   * @param quantities
+   *          the quantities to sort, not null.
+   * @param unit
+   *          the unit in which values are compared, not null.
+   * @throws NullPointerException
+   *           if the array or any of its elements is null
+   * @see #sort(List)
+   */
+  @SuppressWarnings("unchecked")
+  public static <Q extends Quantity<Q>> void sort(Quantity<Q>[] quantities, Unit<Q> unit) {
+    Object[] elements = quantities.clone();
+    int[] indices = KeySorter.sortedIndices(keys(elements, unit));
+    for (int i = 0; i < indices.length; i++) {
+      quantities[i] = (Quantity<Q>) elements[indices[i]];
+    }
+  }
+
+  @SuppressWarnings("unchecked")
+  private static <Q extends Quantity<Q>> double[] keys(Object[] quantities, Unit<Q> unit) {
+    ConverterCache<Q> converters = new ConverterCache<>(unit);
+    double[] keys = new double[quantities.length];
+    for (int i = 0; i < keys.length; i++) {
+      keys[i] = converters.convert((Quantity<Q>) Objects.requireNonNull(quantities[i]));
+    }
+    return keys;
+  }
+
   /**
    * Creates a BinaryOperator to calculate the minimum Quantity
    * 
@@ -286,8 +384,8 @@ public final class QuantityFunctions {
    * @return the Predicate greater than this number, ignoring units
    */
   public static <Q extends Quantity<Q>> Predicate<Quantity<Q>> isGreaterThan(Number value) {
-		return q -> q.getValue().doubleValue() > value.doubleValue();
-	}
+    return ThresholdPredicate.greaterThan(value, false);
+  }
 
   /**
    * creates a filter to greater than the quantity measure
@@ -297,8 +395,8 @@ public final class QuantityFunctions {
    * @return the Predicate greater than this measure
    */
   public static <Q extends Quantity<Q>> Predicate<Quantity<Q>> isGreaterThan(Quantity<Q> quantity) {
-		return q -> q.to(quantity.getUnit()).getValue().doubleValue() > quantity.getValue().doubleValue();
-	}
+    return ThresholdPredicate.greaterThan(quantity, false);
+  }
 
   /**
    * creates a Filter to greater or equals than number, ignoring units
@@ -308,8 +406,8 @@ public final class QuantityFunctions {
    * @return the Predicate greater or equals than this number, ignoring units
    */
   public static <Q extends Quantity<Q>> Predicate<Quantity<Q>> isGreaterThanOrEqualTo(Number value) {
-		return q -> q.getValue().doubleValue() >= value.doubleValue();
-	}
+    return ThresholdPredicate.greaterThan(value, true);
+  }
 
   /**
    * creates a filter to greater or equals than the quantity measure
@@ -319,8 +417,8 @@ public final class QuantityFunctions {
    * @return the Predicate greater or equals than this measure
    */
   public static <Q extends Quantity<Q>> Predicate<Quantity<Q>> isGreaterThanOrEqualTo(Quantity<Q> quantity) {
-		return q -> q.to(quantity.getUnit()).getValue().doubleValue() >= quantity.getValue().doubleValue();
-	}
+    return ThresholdPredicate.greaterThan(quantity, true);
+  }
 
   /**
    * creates a Filter to lesser than number, ignoring units
@@ -330,8 +428,8 @@ public final class QuantityFunctions {
    * @return the Predicate greater than this number, ignoring units
    */
   public static <Q extends Quantity<Q>> Predicate<Quantity<Q>> isLesserThan(Number value) {
-		return q -> q.getValue().doubleValue() < value.doubleValue();
-	}
+    return ThresholdPredicate.lesserThan(value, false);
+  }
 
   /**
    * creates a filter to lesser than the quantity measure
@@ -341,8 +439,8 @@ public final class QuantityFunctions {
    * @return the Predicate lesser than this measure
    */
   public static <Q extends Quantity<Q>> Predicate<Quantity<Q>> isLesserThan(Quantity<Q> quantity) {
-		return q -> q.to(quantity.getUnit()).getValue().doubleValue() < quantity.getValue().doubleValue();
-	}
+    return ThresholdPredicate.lesserThan(quantity, false);
+  }
 
   /**
    * creates a Filter to lesser or equals than number, ignoring units
@@ -352,8 +450,8 @@ public final class QuantityFunctions {
    * @return the Predicate lesser or equals than this number, ignoring units
    */
   public static <Q extends Quantity<Q>> Predicate<Quantity<Q>> isLesserThanOrEqualTo(Number value) {
-		return q -> q.getValue().doubleValue() <= value.doubleValue();
-	}
+    return ThresholdPredicate.lesserThan(value, true);
+  }
 
   /**
    * creates a filter to lesser or equals than the quantity measure
@@ -363,8 +461,8 @@ public final class QuantityFunctions {
    * @return the Predicate lesser or equals than this measure
    */
   public static <Q extends Quantity<Q>> Predicate<Quantity<Q>> isLesserThanOrEqualTo(Quantity<Q> quantity) {
-		return q -> q.to(quantity.getUnit()).getValue().doubleValue() <= quantity.getValue().doubleValue();
-	}
+    return ThresholdPredicate.lesserThan(quantity, true);
+  }
 
   /**
    * creates a Filter to between, lesser or equals and greater or equals, than number, ignoring units
@@ -376,9 +474,7 @@ public final class QuantityFunctions {
    * @return the Predicate lesser or equals than this number, ignoring units
    */
   public static <Q extends Quantity<Q>> Predicate<Quantity<Q>> isBetween(Number min, Number max) {
-    Predicate<Quantity<Q>> minFilter = isGreaterThanOrEqualTo(min);
-    Predicate<Quantity<Q>> maxFilter = isLesserThanOrEqualTo(max);
-    return minFilter.and(maxFilter);
+    return ThresholdPredicate.between(min, max);
   }
 
   /**
@@ -391,7 +487,7 @@ public final class QuantityFunctions {
    * @return the Predicate lesser or equals than this measure
    */
   public static <Q extends Quantity<Q>> Predicate<Quantity<Q>> isBetween(Quantity<Q> min, Quantity<Q> max) {
-    return isGreaterThanOrEqualTo(min).and(isLesserThanOrEqualTo(max));
+    return ThresholdPredicate.between(min, max);
   }
 
   /**
@@ -405,7 +501,203 @@ public final class QuantityFunctions {
 		return Collector.of(supplier, QuantitySummaryStatistics<Q>::accept, QuantitySummaryStatistics<Q>::combine);
 	}
 
+  /**
+   * Sample standard deviation of Quantity
+   * 
+   * @param unit
+   *          the unit of the result, not null.
+   * @return the Collector of the standard deviation, computed with Welford's method
+   * @see QuantitySummaryStatistics#getStandardDeviation()
+   */
+  public static <Q extends Quantity<Q>> Collector<Quantity<Q>, ?, Quantity<Q>> standardDeviation(Unit<Q> unit) {
+    return Collectors.collectingAndThen(summarizeQuantity(unit), QuantitySummaryStatistics<Q>::getStandardDeviation);
+  }
+
+  /**
+   * Approximate distribution of Quantity, to query several quantiles from one pass.
+   * 
+   * @param unit
+   *          the unit of the sketch, not null.
+   * @param relativeAccuracy
+   *          the relative accuracy of the quantiles, between 0 and 1 (exclusive).
+   * @return the QuantityQuantileSketch Collector
+   */
+  public static <Q extends Quantity<Q>> Collector<Quantity<Q>, QuantityQuantileSketch<Q>, QuantityQuantileSketch<Q>> quantiles(Unit<Q> unit,
+      double relativeAccuracy) {
+    Objects.requireNonNull(unit);
+    QuantityQuantileSketch.checkRelativeAccuracy(relativeAccuracy);
+    return Collector.of(() -> new QuantityQuantileSketch<>(unit, relativeAccuracy), QuantityQuantileSketch<Q>::accept,
+        QuantityQuantileSketch<Q>::combine);
+  }
+
+  /**
+   * Approximate distribution of Quantity, with a relative accuracy of {@value QuantityQuantileSketch#DEFAULT_RELATIVE_ACCURACY}.
+   * 
+   * @param unit
+   *          the unit of the sketch, not null.
+   * @return the QuantityQuantileSketch Collector
+   */
+  public static <Q extends Quantity<Q>> Collector<Quantity<Q>, QuantityQuantileSketch<Q>, QuantityQuantileSketch<Q>> quantiles(Unit<Q> unit) {
+    return quantiles(unit, QuantityQuantileSketch.DEFAULT_RELATIVE_ACCURACY);
+  }
+
+  /**
+   * Approximate quantile of Quantity, e.g. <code>quantile(Units.SECOND, 0.99)</code> for the 99th percentile of durations, with a relative accuracy
+   * of {@value QuantityQuantileSketch#DEFAULT_RELATIVE_ACCURACY}.
+   * 
+   * @param unit
+   *          the unit of the result, not null.
+   * @param quantile
+   *          the quantile, between 0 and 1 (inclusive).
+   * @return the Collector of the quantile
+   */
+  public static <Q extends Quantity<Q>> Collector<Quantity<Q>, ?, Quantity<Q>> quantile(Unit<Q> unit, double quantile) {
+    if (!(quantile >= 0d && quantile <= 1d)) {
+      throw new IllegalArgumentException("Quantile must be between 0 and 1: " + quantile);
+    }
+    return Collectors.collectingAndThen(quantiles(unit), sketch -> sketch.getQuantile(quantile));
+  }
+
+  /**
+   * The k largest Quantity, largest first, selected in a bounded heap instead of sorting the whole stream.
+   *
+   * @param k
+   *          the number of quantities to keep, at least 1.
+   * @param unit
+   *          the unit in which quantities are compared, not null.
+   * @return the Collector of the k largest quantities
+   * @see BoundedQuantityHeap#largest(int, Unit)
+   */
+  public static <Q extends Quantity<Q>> Collector<Quantity<Q>, ?, List<Quantity<Q>>> largest(int k, Unit<Q> unit) {
+    Objects.requireNonNull(unit);
+    BoundedQuantityHeap.checkCapacity(k);
+    return Collector.of(() -> BoundedQuantityHeap.largest(k, unit), BoundedQuantityHeap<Quantity<Q>>::accept,
+        BoundedQuantityHeap<Quantity<Q>>::combine, BoundedQuantityHeap<Quantity<Q>>::toList);
+  }
+
+  /**
+   * The k smallest Quantity, smallest first, selected in a bounded heap instead of sorting the whole stream.
+   *
+   * @param k
+   *          the number of quantities to keep, at least 1.
+   * @param unit
+   *          the unit in which quantities are compared, not null.
+   * @return the Collector of the k smallest quantities
+   * @see BoundedQuantityHeap#smallest(int, Unit)
+   */
+  public static <Q extends Quantity<Q>> Collector<Quantity<Q>, ?, List<Quantity<Q>>> smallest(int k, Unit<Q> unit) {
+    Objects.requireNonNull(unit);
+    BoundedQuantityHeap.checkCapacity(k);
+    return Collector.of(() -> BoundedQuantityHeap.smallest(k, unit), BoundedQuantityHeap<Quantity<Q>>::accept,
+        BoundedQuantityHeap<Quantity<Q>>::combine, BoundedQuantityHeap<Quantity<Q>>::toList);
+  }
+
+  /**
+   * The k TimedData with the latest timestamps, latest first, selected in a bounded heap.
+   *
+   * @param k
+   *          the number of timed data to keep, at least 1.
+   * @return the Collector of the k latest timed data
+   * @see BoundedQuantityHeap#latest(int)
+   */
+  public static <T> Collector<TimedData<T>, ?, List<TimedData<T>>> latest(int k) {
+    BoundedQuantityHeap.checkCapacity(k);
+    return Collector.of(() -> BoundedQuantityHeap.<T> latest(k), BoundedQuantityHeap<TimedData<T>>::accept,
+        BoundedQuantityHeap<TimedData<T>>::combine, BoundedQuantityHeap<TimedData<T>>::toList);
+  }
+
+  /**
+   * Concurrent summary of Quantity, for use with parallel streams. All threads accumulate into one shared, striped accumulator, so no intermediate
+   * summaries are created or combined.
+   * 
+   * @param unit
+   *          the unit of the summary, not null.
+   * @return the concurrent and unordered summarizing Collector
+   * @see #summarizeQuantity(Unit)
+   */
+  public static <Q extends Quantity<Q>> Collector<Quantity<Q>, ?, QuantitySummaryStatistics<Q>> summarizeQuantityConcurrent(Unit<Q> unit) {
+    Objects.requireNonNull(unit);
+    return Collector.of(() -> new ConcurrentQuantitySummary<>(unit), ConcurrentQuantitySummary<Q>::accept, ConcurrentQuantitySummary<Q>::combine,
+        ConcurrentQuantitySummary<Q>::toSummaryStatistics, Characteristics.CONCURRENT, Characteristics.UNORDERED);
+  }
+
+  /**
+   * Concurrent sum converting to unit, for use with parallel streams.
+   * 
+   * @param unit
+   *          unit to be converting, not null.
+   * @return the concurrent and unordered sum Collector
+   * @see #sum(Unit)
+   */
+  public static <Q extends Quantity<Q>> Collector<Quantity<Q>, ?, Quantity<Q>> sumConcurrent(Unit<Q> unit) {
+    Objects.requireNonNull(unit);
+    return Collector.of(() -> new ConcurrentQuantitySummary<>(unit), ConcurrentQuantitySummary<Q>::accept, ConcurrentQuantitySummary<Q>::combine,
+        c -> Quantities.getQuantity(c.sumValue(), unit), Characteristics.CONCURRENT, Characteristics.UNORDERED);
+  }
+
+  /**
+   * Concurrent summary of Quantity grouped by unit, for use with parallel streams. Each group is summarized in its own unit.
+   * 
+   * @return the concurrent and unordered Collector into a map from unit to summary
+   * @see #groupByUnit()
+   */
+  public static <Q extends Quantity<Q>> Collector<Quantity<Q>, ?, ConcurrentMap<Unit<Q>, QuantitySummaryStatistics<Q>>> summarizeByUnitConcurrent() {
+    return Collector.<Quantity<Q>, ConcurrentMap<Unit<Q>, ConcurrentQuantitySummary<Q>>, ConcurrentMap<Unit<Q>, QuantitySummaryStatistics<Q>>> of(
+        ConcurrentHashMap::new, (map, q) -> map.computeIfAbsent(q.getUnit(), ConcurrentQuantitySummary::new).accept(q), (a, b) -> {
+          b.forEach((u, c) -> a.merge(u, c, ConcurrentQuantitySummary::combine));
+          return a;
+        }, map -> {
+          ConcurrentMap<Unit<Q>, QuantitySummaryStatistics<Q>> result = new ConcurrentHashMap<>();
+          map.forEach((u, c) -> result.put(u, c.toSummaryStatistics()));
+          return result;
+        }, Characteristics.CONCURRENT, Characteristics.UNORDERED);
+  }
+
   public static <Q extends Quantity<Q>> Function<Quantity<Q>, Unit<Q>> groupByUnit() {
 		return Quantity::getUnit;
 	}
+
+  /**
+   * Classifier by system unit, so that e.g. quantities in metres and kilometres fall into the same group.
+   * 
+   * @return the function from a quantity to the system unit of its unit
+   */
+  public static <Q extends Quantity<Q>> Function<Quantity<Q>, Unit<Q>> groupBySystemUnit() {
+    return q -> q.getUnit().getSystemUnit();
+  }
+
+  /**
+   * Classifier by dimension, e.g. to separate a feed of mixed quantities into lengths, durations etc.
+   * 
+   * @return the function from a quantity to the dimension of its unit
+   */
+  public static Function<Quantity<?>, Dimension> groupByDimension() {
+    return q -> q.getUnit().getDimension();
+  }
+
+  /**
+   * Summary of Quantity grouped by system unit. Each quantity is converted once into its system unit through a converter cached per unit, so that
+   * e.g. "1000 m" and "1 km" are summarized together, in metres.
+   * 
+   * @return the Collector into a map from system unit to summary
+   * @see #groupBySystemUnit()
+   */
+  @SuppressWarnings("unchecked")
+  public static <Q extends Quantity<Q>> Collector<Quantity<Q>, ?, Map<Unit<Q>, QuantitySummaryStatistics<Q>>> summarizeBySystemUnit() {
+    return Collector.of(() -> new GroupedQuantitySummary<Unit<Q>>(u -> (Unit<Q>) u.getSystemUnit()), GroupedQuantitySummary::accept,
+        GroupedQuantitySummary::combine, g -> (Map) g.getSummaries());
+  }
+
+  /**
+   * Summary of Quantity grouped by dimension, for feeds mixing quantities of different kinds and units. Each group is summarized in the system unit
+   * of the first unit seen for its dimension.
+   * 
+   * @return the Collector into a map from dimension to summary
+   * @see #groupByDimension()
+   */
+  @SuppressWarnings("unchecked")
+  public static Collector<Quantity<?>, ?, Map<Dimension, QuantitySummaryStatistics<?>>> summarizeByDimension() {
+    return Collector.of(() -> new GroupedQuantitySummary<Dimension>(Unit::getDimension), GroupedQuantitySummary::accept,
+        GroupedQuantitySummary::combine, g -> (Map) g.getSummaries());
+  }
 }
@@ -0,0 +1,382 @@
+/*
+ * Units of Measurement Implementation for Java SE
+ * Copyright (c) 2005-2017, Jean-Marie Dautelle, Werner Keil, V2COM.
+ *
+ * All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without modification,
+ * are permitted provided that the following conditions are met:
+ *
+ * 1. Redistributions of source code must retain the above copyright notice,
+ *    this list of conditions and the following disclaimer.
+ *
+ * 2. Redistributions in binary form must reproduce the above copyright notice, this list of conditions
+ *    and the following disclaimer in the documentation and/or other materials provided with the distribution.
+ *
+ * 3. Neither the name of JSR-363 nor the names of its contributors may be used to endorse or promote products
+ *    derived from this software without specific prior written permission.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS"
+ * AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO,
+ * THE IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE
+ * ARE DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT HOLDER OR CONTRIBUTORS BE LIABLE
+ * FOR ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES
+ * (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES;
+ * LOSS OF USE, DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED
+ * AND ON ANY THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT
+ * (INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE OF THIS SOFTWARE,
+ * EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ */
+package tec.uom.se.function;
+
+import java.util.Objects;
+
+import javax.measure.Quantity;
+import javax.measure.Unit;
+import javax.measure.UnitConverter;
+
+import tec.uom.se.internal.function.ConverterCache;
+import tec.uom.se.quantity.Quantities;
+
+/**
+ * A mergeable, bounded-memory sketch of the distribution of quantities, answering approximate quantile queries (median, p99 etc.) in a fixed target
+ * unit.
+ * <p>
+ * Values are counted in logarithmically sized buckets, so that every quantile is returned with a relative error of at most the configured accuracy
+ * (e.g. <code>0.01</code> for 1%). With the limit of {@value #DEFAULT_MAX_BUCKETS} buckets per sign and an accuracy of 1%, this holds for values
+ * spanning about 35 orders of magnitude; beyond that the buckets of the smallest magnitudes are collapsed. The minimum and maximum are exact. Sketches with the same accuracy are merged exactly by
+ * {@link #combine(QuantityQuantileSketch)}.
+ * </p>
+ * <p>
+ * This class is not thread-safe; it is designed to work with {@linkplain java.util.stream streams} through
+ * {@link QuantityFunctions#quantiles(Unit, double)}.
+ * </p>
+ *
+ * @param <Q>
+ *          The type of the quantity.
+ * @see <a href="https://arxiv.org/abs/1908.10693">DDSketch: A Fast and Fully-Mergeable Quantile Sketch with Relative-Error Guarantees</a>
+ */
+public class QuantityQuantileSketch<Q extends Quantity<Q>> {
+
+  /**
+   * The relative accuracy used when none is given.
+   */
+  public static final double DEFAULT_RELATIVE_ACCURACY = 0.01;
+
+  static final int DEFAULT_MAX_BUCKETS = 4096;
+
+  private final ConverterCache<Q> converters;
+
+  private final double relativeAccuracy;
+
+  private final double gamma;
+
+  private final double logGamma;
+
+  private final Buckets positive;
+
+  private final Buckets negative;
+
+  private long zeroCount;
+
+  private long count;
+
+  private double min = Double.POSITIVE_INFINITY;
+
+  private double max = Double.NEGATIVE_INFINITY;
+
+  /**
+   * Creates a new instance, targeting the given {@link javax.measure.Unit}.
+   * 
+   * @param unit
+   *          the target unit, not null.
+   * @param relativeAccuracy
+   *          the relative accuracy of the quantiles, between 0 and 1 (exclusive).
+   */
+  QuantityQuantileSketch(Unit<Q> unit, double relativeAccuracy) {
+    this.converters = new ConverterCache<>(unit);
+    this.relativeAccuracy = checkRelativeAccuracy(relativeAccuracy);
+    this.gamma = (1d + relativeAccuracy) / (1d - relativeAccuracy);
+    this.logGamma = Math.log(gamma);
+    this.positive = new Buckets(DEFAULT_MAX_BUCKETS);
+    this.negative = new Buckets(DEFAULT_MAX_BUCKETS);
+  }
+
+  static double checkRelativeAccuracy(double relativeAccuracy) {
+    if (!(relativeAccuracy > 0d && relativeAccuracy < 1d)) {
+      throw new IllegalArgumentException("Relative accuracy must be between 0 and 1: " + relativeAccuracy);
+    }
+    return relativeAccuracy;
+  }
+
+  /**
+   * Records another value into the sketch.
+   * 
+   * @param quantity
+   *          the input quantity value to be added, not null.
+   * @throws IllegalArgumentException
+   *           if the value is not finite.
+   */
+  public void accept(Quantity<Q> quantity) {
+    Objects.requireNonNull(quantity);
+    accept(converters.convert(quantity), 1L);
+  }
+
+  private void accept(double value, long n) {
+    if (Double.isNaN(value) || Double.isInfinite(value)) {
+      throw new IllegalArgumentException("Value must be finite: " + value);
+    }
+    if (value >= Double.MIN_NORMAL) {
+      positive.add(index(value), n);
+    } else if (value <= -Double.MIN_NORMAL) {
+      negative.add(index(-value), n);
+    } else {
+      zeroCount += n;
+    }
+    count += n;
+    min = Math.min(min, value);
+    max = Math.max(max, value);
+  }
+
+  /**
+   * Combines the state of another sketch into this one. If the other sketch targets a different unit, the representative value of each of its
+   * buckets is converted into the unit of this sketch.
+   * 
+   * @param sketch
+   *          another {@code QuantityQuantileSketch} with the same relative accuracy, not null.
+   * @return this sketch
+   * @throws IllegalArgumentException
+   *           if the relative accuracies differ.
+   */
+  public QuantityQuantileSketch<Q> combine(QuantityQuantileSketch<Q> sketch) {
+    Objects.requireNonNull(sketch);
+    if (sketch.relativeAccuracy != relativeAccuracy) {
+      throw new IllegalArgumentException("Cannot combine sketches of different accuracy");
+    }
+    if (sketch.count == 0) {
+      return this;
+    }
+    UnitConverter converter = converters.converterFrom(sketch.getUnit());
+    if (converter == null) {
+      positive.addAll(sketch.positive);
+      negative.addAll(sketch.negative);
+      zeroCount += sketch.zeroCount;
+      count += sketch.count;
+      min = Math.min(min, sketch.min);
+      max = Math.max(max, sketch.max);
+      return this;
+    }
+    double previousMin = min;
+    double previousMax = max;
+    for (int i = sketch.positive.minIndex; i <= sketch.positive.maxIndex; i++) {
+      long n = sketch.positive.get(i);
+      if (n > 0) {
+        accept(converter.convert(sketch.value(i)), n);
+      }
+    }
+    for (int i = sketch.negative.minIndex; i <= sketch.negative.maxIndex; i++) {
+      long n = sketch.negative.get(i);
+      if (n > 0) {
+        accept(converter.convert(-sketch.value(i)), n);
+      }
+    }
+    if (sketch.zeroCount > 0) {
+      accept(converter.convert(0d), sketch.zeroCount);
+    }
+    // the extremes are known exactly, unlike the representative values of the buckets
+    double convertedMin = converter.convert(sketch.min);
+    double convertedMax = converter.convert(sketch.max);
+    min = Math.min(previousMin, Math.min(convertedMin, convertedMax));
+    max = Math.max(previousMax, Math.max(convertedMin, convertedMax));
+    return this;
+  }
+
+  private int index(double value) {
+    return (int) Math.ceil(Math.log(value) / logGamma);
+  }
+
+  /**
+   * Returns the representative value of a bucket, within the relative accuracy of every value counted in it.
+   */
+  private double value(int index) {
+    return 2d * Math.pow(gamma, index) / (gamma + 1d);
+  }
+
+  /**
+   * Returns the unit the sketch is stated in.
+   */
+  Unit<Q> getUnit() {
+    return converters.getUnit();
+  }
+
+  /**
+   * Get the number of items added to this sketch.
+   * 
+   * @return the number of items, >= 0.
+   */
+  public long getCount() {
+    return count;
+  }
+
+  /**
+   * Get the relative accuracy of the quantiles returned by this sketch.
+   * 
+   * @return the relative accuracy
+   */
+  public double getRelativeAccuracy() {
+    return relativeAccuracy;
+  }
+
+  /**
+   * Get the approximate quantile of all amounts added, e.g. <code>getQuantile(0.99)</code> for the 99th percentile.
+   * 
+   * @param quantile
+   *          the quantile, between 0 and 1 (inclusive).
+   * @return the quantile, zero if no amount was added
+   * @throws IllegalArgumentException
+   *           if the quantile is not between 0 and 1.
+   */
+  public Quantity<Q> getQuantile(double quantile) {
+    return Quantities.getQuantity(quantileValue(quantile), getUnit());
+  }
+
+  /**
+   * Get the approximate quantile of all amounts added converted to unit
+   * 
+   * @param quantile
+   *          the quantile, between 0 and 1 (inclusive).
+   * @param unit
+   *          to convert
+   * @return the quantile converted to this unit
+   */
+  public Quantity<Q> getQuantile(double quantile, Unit<Q> unit) {
+    return getQuantile(quantile).to(unit);
+  }
+
+  /**
+   * Get the approximate median of all amounts added.
+   * 
+   * @return the median
+   */
+  public Quantity<Q> getMedian() {
+    return getQuantile(0.5);
+  }
+
+  double quantileValue(double quantile) {
+    if (!(quantile >= 0d && quantile <= 1d)) {
+      throw new IllegalArgumentException("Quantile must be between 0 and 1: " + quantile);
+    }
+    if (count == 0) {
+      return 0d;
+    }
+    if (quantile == 0d) {
+      return min;
+    }
+    if (quantile == 1d) {
+      return max;
+    }
+    double rank = quantile * (count - 1);
+    long n = 0;
+    double value = Double.NaN;
+    for (int i = negative.maxIndex; i >= negative.minIndex && Double.isNaN(value); i--) {
+      n += negative.get(i);
+      if (n > rank) {
+        value = -value(i);
+      }
+    }
+    if (Double.isNaN(value)) {
+      n += zeroCount;
+      if (n > rank) {
+        value = 0d;
+      }
+    }
+    for (int i = positive.minIndex; i <= positive.maxIndex && Double.isNaN(value); i++) {
+      n += positive.get(i);
+      if (n > rank) {
+        value = value(i);
+      }
+    }
+    return Math.max(min, Math.min(max, value));
+  }
+
+  @Override
+  public String toString() {
+    final StringBuilder sb = new StringBuilder();
+    sb.append("[unit: ").append(getUnit()).append(",");
+    sb.append("count:").append(count).append(",");
+    sb.append("relativeAccuracy:").append(relativeAccuracy).append(",");
+    sb.append("median:").append(getMedian()).append("]");
+    return sb.toString();
+  }
+
+  /**
+   * Dense counts of consecutive bucket indices. When the indices in use span more than the maximum number of buckets, the lowest ones are collapsed
+   * into the lowest remaining bucket.
+   */
+  static final class Buckets {
+    private final int maxBuckets;
+    long[] counts = new long[0];
+    private int offset;
+    private int minIndex = Integer.MAX_VALUE;
+    private int maxIndex = Integer.MIN_VALUE;
+
+    Buckets(int maxBuckets) {
+      this.maxBuckets = maxBuckets;
+    }
+
+    long get(int index) {
+      return counts[index - offset];
+    }
+
+    void add(int index, long n) {
+      if (index < offset && isCollapsed()) {
+        // the lowest bucket already absorbs everything below it, a resize would only copy the same counts
+        index = offset;
+      } else if (index < offset || index >= offset + counts.length) {
+        resize(Math.min(index, minIndex), Math.max(index, maxIndex));
+      }
+      int target = Math.max(index, offset);
+      counts[target - offset] += n;
+      minIndex = Math.min(minIndex, target);
+      maxIndex = Math.max(maxIndex, target);
+    }
+
+    /**
+     * Returns whether the array has reached its maximum length and is aligned to the highest index in use.
+     */
+    private boolean isCollapsed() {
+      return counts.length == maxBuckets && offset == maxIndex - maxBuckets + 1;
+    }
+
+    private void addAll(Buckets other) {
+      for (int i = other.maxIndex; i >= other.minIndex; i--) {
+        long n = other.get(i);
+        if (n > 0) {
+          add(i, n);
+        }
+      }
+    }
+
+    private void resize(int low, int high) {
+      long span = (long) high - low + 1;
+      int length = (int) Math.min(maxBuckets, Math.max(2L * counts.length, Math.max(64L, span)));
+      // keeps the highest indices when collapsing, otherwise leaves room on both sides
+      int newOffset = span > length ? high - length + 1 : (int) (low - (length - span) / 2);
+      long[] resized = new long[length];
+      int newMin = Integer.MAX_VALUE;
+      int newMax = Integer.MIN_VALUE;
+      for (int i = 0; i < counts.length; i++) {
+        if (counts[i] > 0) {
+          int target = Math.max(offset + i, newOffset);
+          resized[target - newOffset] += counts[i];
+          newMin = Math.min(newMin, target);
+          newMax = Math.max(newMax, target);
+        }
+      }
+      counts = resized;
+      offset = newOffset;
+      minIndex = newMin;
+      maxIndex = newMax;
+    }
+  }
+}
@@ -0,0 +1,187 @@
+/*
+ * Units of Measurement Implementation for Java SE
+ * Copyright (c) 2005-2017, Jean-Marie Dautelle, Werner Keil, V2COM.
+ *
+ * All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without modification,
+ * are permitted provided that the following conditions are met:
+ *
+ * 1. Redistributions of source code must retain the above copyright notice,
+ *    this list of conditions and the following disclaimer.
+ *
+ * 2. Redistributions in binary form must reproduce the above copyright notice, this list of conditions
+ *    and the following disclaimer in the documentation and/or other materials provided with the distribution.
+ *
+ * 3. Neither the name of JSR-363 nor the names of its contributors may be used to endorse or promote products
+ *    derived from this software without specific prior written permission.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS"
+ * AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO,
+ * THE IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE
+ * ARE DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT HOLDER OR CONTRIBUTORS BE LIABLE
+ * FOR ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES
+ * (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES;
+ * LOSS OF USE, DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED
+ * AND ON ANY THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT
+ * (INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE OF THIS SOFTWARE,
+ * EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ */
+package tec.uom.se.function;
+
+import java.util.Arrays;
+import java.util.Objects;
+import java.util.Spliterator;
+import java.util.function.Consumer;
+import java.util.stream.DoubleStream;
+import java.util.stream.Stream;
+import java.util.stream.StreamSupport;
+
+import javax.measure.Quantity;
+import javax.measure.Unit;
+import javax.measure.UnitConverter;
+
+import tec.uom.se.internal.function.ConverterCache;
+import tec.uom.se.quantity.Quantities;
+
+/**
+ * Stream sources for quantities held in primitive columns, i.e. an array of values sharing a single unit.
+ * <p>
+ * The streams are {@link Spliterator#SIZED sized}, split evenly and materialize each quantity only when it is consumed, so parallel reductions such
+ * as {@link QuantityFunctions#summarizeQuantity(Unit)} scale with the number of values rather than with the cost of a list of quantity objects.
+ * </p>
+ */
+public final class QuantityStreams {
+
+  private QuantityStreams() {
+  }
+
+  /**
+   * Returns a sequential stream of the quantities given by the values in a unit. Call {@link Stream#parallel()} to process it in parallel.
+   * 
+   * @param values
+   *          the values, not null. The array must not be modified while the stream is in use.
+   * @param unit
+   *          the unit of all values, not null.
+   * @return a stream of quantities
+   */
+  public static <Q extends Quantity<Q>> Stream<Quantity<Q>> of(double[] values, Unit<Q> unit) {
+    return of(values, 0, values.length, unit);
+  }
+
+  /**
+   * Returns a sequential stream of the quantities given by a range of values in a unit.
+   * 
+   * @param values
+   *          the values, not null. The array must not be modified while the stream is in use.
+   * @param fromIndex
+   *          the first index, inclusive.
+   * @param toIndex
+   *          the last index, exclusive.
+   * @param unit
+   *          the unit of all values, not null.
+   * @return a stream of quantities
+   * @throws ArrayIndexOutOfBoundsException
+   *           if the range is outside the array
+   */
+  public static <Q extends Quantity<Q>> Stream<Quantity<Q>> of(double[] values, int fromIndex, int toIndex, Unit<Q> unit) {
+    checkRange(values.length, fromIndex, toIndex);
+    return StreamSupport.stream(new ColumnSpliterator<>(values, fromIndex, toIndex, Objects.requireNonNull(unit)), false);
+  }
+
+  /**
+   * Returns a sequential primitive stream of the values converted from their unit to another one, without creating any quantity.
+   * 
+   * @param values
+   *          the values, not null. The array must not be modified while the stream is in use.
+   * @param unit
+   *          the unit of all values, not null.
+   * @param targetUnit
+   *          the unit of the returned values, not null.
+   * @return a stream of values in the target unit
+   */
+  public static <Q extends Quantity<Q>> DoubleStream values(double[] values, Unit<Q> unit, Unit<Q> targetUnit) {
+    DoubleStream stream = Arrays.stream(values);
+    UnitConverter converter = new ConverterCache<>(targetUnit).converterFrom(unit);
+    return converter == null ? stream : stream.map(converter::convert);
+  }
+
+  /**
+   * Summarizes a primitive stream of values in a unit, e.g. one returned by {@link #values(double[], Unit, Unit)}. Parallel streams are reduced per
+   * split and combined.
+   * 
+   * @param values
+   *          the values, not null.
+   * @param unit
+   *          the unit of all values, not null.
+   * @return the summary of the values
+   */
+  public static <Q extends Quantity<Q>> QuantitySummaryStatistics<Q> summarize(DoubleStream values, Unit<Q> unit) {
+    Objects.requireNonNull(unit);
+    return values.collect(() -> new QuantitySummaryStatistics<>(unit), QuantitySummaryStatistics::accept, QuantitySummaryStatistics::combine);
+  }
+
+  private static void checkRange(int length, int fromIndex, int toIndex) {
+    if (fromIndex < 0 || toIndex > length || fromIndex > toIndex) {
+      throw new ArrayIndexOutOfBoundsException("Range [" + fromIndex + ", " + toIndex + ") out of bounds for length " + length);
+    }
+  }
+
+  /**
+   * A spliterator over a range of a value column, splitting at the midpoint.
+   */
+  private static final class ColumnSpliterator<Q extends Quantity<Q>> implements Spliterator<Quantity<Q>> {
+    private final double[] values;
+    private final Unit<Q> unit;
+    private int index;
+    private final int fence;
+
+    private ColumnSpliterator(double[] values, int origin, int fence, Unit<Q> unit) {
+      this.values = values;
+      this.index = origin;
+      this.fence = fence;
+      this.unit = unit;
+    }
+
+    @Override
+    public boolean tryAdvance(Consumer<? super Quantity<Q>> action) {
+      Objects.requireNonNull(action);
+      if (index < fence) {
+        action.accept(Quantities.getQuantity(values[index++], unit));
+        return true;
+      }
+      return false;
+    }
+
+    @Override
+    public void forEachRemaining(Consumer<? super Quantity<Q>> action) {
+      Objects.requireNonNull(action);
+      int i = index;
+      index = fence;
+      for (; i < fence; i++) {
+        action.accept(Quantities.getQuantity(values[i], unit));
+      }
+    }
+
+    @Override
+    public Spliterator<Quantity<Q>> trySplit() {
+      int origin = index;
+      int mid = (origin + fence) >>> 1;
+      if (origin >= mid) {
+        return null;
+      }
+      index = mid;
+      return new ColumnSpliterator<>(values, origin, mid, unit);
+    }
+
+    @Override
+    public long estimateSize() {
+      return fence - index;
+    }
+
+    @Override
+    public int characteristics() {
+      return SIZED | SUBSIZED | IMMUTABLE | ORDERED | NONNULL;
+    }
+  }
+}
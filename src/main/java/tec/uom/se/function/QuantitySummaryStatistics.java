@@ -30,37 +30,50 @@
 package tec.uom.se.function;
 
 import java.util.Objects;
-import java.util.function.BinaryOperator;
 
 import javax.measure.Quantity;
 import javax.measure.Unit;
+import javax.measure.UnitConverter;
 
+import tec.uom.se.internal.function.CompensatedSum;
+import tec.uom.se.internal.function.ConverterCache;
 import tec.uom.se.quantity.Quantities;
 
 /**
+ * A state object for collecting statistics such as count, min, max, sum, average and standard deviation of quantities, stated in a fixed target unit.
+ * <p>
+ * Like {@link java.util.DoubleSummaryStatistics}, the state is kept in primitive fields: each accepted quantity is converted once into the target unit
+ * (through a converter cached per incoming unit) and folded into a compensated sum. {@link Quantity} instances are only created by the getters.
+ * </p>
+ * <p>
+ * This class is not thread-safe; it is designed to work with (though does not require) {@linkplain java.util.stream streams}, where each thread
+ * accumulates into its own instance which are then merged with {@link #combine(QuantitySummaryStatistics)}.
+ * </p>
+ *
  * @author Otavio
  * @author Werner
- * @version 1.0
+ * @version 1.1
  * @since 1.0
  * @param <Q>
  */
 public class QuantitySummaryStatistics<Q extends Quantity<Q>> {
 
-  private final Quantity<Q> empty;
+  private final ConverterCache<Q> converters;
 
   private long count;
 
-  private Quantity<Q> min;
-
-  private Quantity<Q> max;
+  private final CompensatedSum sum = new CompensatedSum();
 
-  private Quantity<Q> sum;
+  private double min = Double.POSITIVE_INFINITY;
 
-  private Quantity<Q> average;
+  private double max = Double.NEGATIVE_INFINITY;
 
-  private final BinaryOperator<Quantity<Q>> minFunctions = QuantityFunctions.min();
+  /**
+   * Running mean and sum of squared deviations from it (Welford).
+   */
+  private double mean;
 
-  private final BinaryOperator<Quantity<Q>> maxFunctions = QuantityFunctions.max();
+  private double m2;
 
   /**
    * Creates a new instance, targeting the given {@link javax.measure.Unit}.
@@ -69,8 +82,7 @@ public class QuantitySummaryStatistics<Q extends Quantity<Q>> {
    *          the target unit, not null.
    */
   QuantitySummaryStatistics(Unit<Q> unit) {
-    empty = Quantities.getQuantity(0, unit);
-    setQuantity(empty);
+    converters = new ConverterCache<>(unit);
   }
 
   /**
@@ -80,54 +92,61 @@ public class QuantitySummaryStatistics<Q extends Quantity<Q>> {
    *          the input quantity value to be added, not null.
    */
   public void accept(Quantity<Q> quantity) {
-
     Objects.requireNonNull(quantity);
+    accept(converters.convert(quantity));
+  }
 
-    if (isEmpty()) {
-      setQuantity(quantity.to(empty.getUnit()));
-      count++;
-    } else {
-      doSummary(quantity.to(empty.getUnit()));
-    }
+  /**
+   * Records a value already stated in the target unit.
+   */
+  void accept(double value) {
+    ++count;
+    double delta = value - mean;
+    mean += delta / count;
+    m2 += delta * (value - mean);
+    sum.add(value);
+    min = Math.min(min, value);
+    max = Math.max(max, value);
   }
 
   /**
-   * Combines the state of another {@code QuantitySummaryStatistics} into this one.
+   * Combines the state of another {@code QuantitySummaryStatistics} into this one. If the other summary targets a different unit, its state is
+   * converted into the unit of this summary first.
    * 
    * @param quantitySummary
    *          another {@code QuantitySummaryStatistics}, not null.
+   * @return this summary
    */
   public QuantitySummaryStatistics<Q> combine(QuantitySummaryStatistics<Q> quantitySummary) {
     Objects.requireNonNull(quantitySummary);
-
-    if (!equals(quantitySummary)) {
+    if (quantitySummary.count == 0) {
       return this;
     }
-
-    min = minFunctions.apply(min, quantitySummary.min.to(empty.getUnit()));
-    max = maxFunctions.apply(max, quantitySummary.max.to(empty.getUnit()));
-    sum = sum.add(quantitySummary.sum);
-    count += quantitySummary.count;
-    average = sum.divide(count);
+    QuantitySummaryStatistics<Q> other = quantitySummary.to(getUnit());
+    long total = count + other.count;
+    double delta = other.mean - mean;
+    mean += delta * other.count / total;
+    m2 += other.m2 + delta * delta * ((double) count * other.count / total);
+    count = total;
+    sum.add(other.sum);
+    min = Math.min(min, other.min);
+    max = Math.max(max, other.max);
     return this;
   }
 
-  private void doSummary(Quantity<Q> moneraty) {
-    min = minFunctions.apply(min, moneraty);
-    max = maxFunctions.apply(max, moneraty);
-    sum = sum.add(moneraty);
-    average = sum.divide(++count);
-  }
-
   private boolean isEmpty() {
     return count == 0;
   }
 
-  private void setQuantity(Quantity<Q> quantity) {
-    min = quantity;
-    max = quantity;
-    sum = quantity;
-    average = quantity;
+  /**
+   * Returns the unit the summary is stated in.
+   */
+  Unit<Q> getUnit() {
+    return converters.getUnit();
+  }
+
+  private Quantity<Q> quantity(double value) {
+    return Quantities.getQuantity(value, getUnit());
   }
 
   /**
@@ -139,13 +158,20 @@ public class QuantitySummaryStatistics<Q extends Quantity<Q>> {
     return count;
   }
 
+  /**
+   * Returns the compensated sum as a primitive, stated in the target unit.
+   */
+  double sumValue() {
+    return sum.value();
+  }
+
   /**
    * Get the minimal quantity found within this summary.
    * 
    * @return the minimal quantity
    */
   public Quantity<Q> getMin() {
-    return min;
+    return quantity(isEmpty() ? 0d : min);
   }
 
   /**
@@ -156,7 +182,7 @@ public class QuantitySummaryStatistics<Q extends Quantity<Q>> {
    * @return the minimal quantity converted to this unit
    */
   public Quantity<Q> getMin(Unit<Q> unit) {
-    return min.to(unit);
+    return getMin().to(unit);
   }
 
   /**
@@ -165,7 +191,7 @@ public class QuantitySummaryStatistics<Q extends Quantity<Q>> {
    * @return the maximal quantity
    */
   public Quantity<Q> getMax() {
-    return max;
+    return quantity(isEmpty() ? 0d : max);
   }
 
   /**
@@ -176,7 +202,7 @@ public class QuantitySummaryStatistics<Q extends Quantity<Q>> {
    * @return the maximal quantity converted to this unit
    */
   public Quantity<Q> getMax(Unit<Q> unit) {
-    return max.to(unit);
+    return getMax().to(unit);
   }
 
   /**
@@ -185,7 +211,7 @@ public class QuantitySummaryStatistics<Q extends Quantity<Q>> {
    * @return the total amount
    */
   public Quantity<Q> getSum() {
-    return sum;
+    return quantity(sumValue());
   }
 
   /**
@@ -196,7 +222,7 @@ public class QuantitySummaryStatistics<Q extends Quantity<Q>> {
    * @return the total amount converted to this unit
    */
   public Quantity<Q> getSum(Unit<Q> unit) {
-    return sum.to(unit);
+    return getSum().to(unit);
   }
 
   /**
@@ -205,7 +231,7 @@ public class QuantitySummaryStatistics<Q extends Quantity<Q>> {
    * @return the quantity average quantity
    */
   public Quantity<Q> getAverage() {
-    return average;
+    return quantity(isEmpty() ? 0d : sumValue() / count);
   }
 
   /**
@@ -216,7 +242,49 @@ public class QuantitySummaryStatistics<Q extends Quantity<Q>> {
    * @return the average quantity converted to this unit
    */
   public Quantity<Q> getAverage(Unit<Q> unit) {
-    return average.to(unit);
+    return getAverage().to(unit);
+  }
+
+  /**
+   * Get the sample variance of all amounts added, stated in the square of the unit of this summary.
+   * 
+   * @return the variance, zero if fewer than two amounts were added
+   */
+  @SuppressWarnings({ "rawtypes", "unchecked" })
+  public Quantity<?> getVariance() {
+    return Quantities.getQuantity(varianceValue(), (Unit) getUnit().pow(2));
+  }
+
+  /**
+   * Get the sample standard deviation of all amounts added.
+   * 
+   * @return the standard deviation, zero if fewer than two amounts were added
+   */
+  public Quantity<Q> getStandardDeviation() {
+    return quantity(Math.sqrt(varianceValue()));
+  }
+
+  /**
+   * Get the sample standard deviation of all amounts added converted to unit. As a difference of amounts, the deviation is only scaled by the
+   * conversion, any offset (e.g. between Celsius and Kelvin) is not applied.
+   * 
+   * @param unit
+   *          to convert
+   * @return the standard deviation converted to this unit
+   */
+  public Quantity<Q> getStandardDeviation(Unit<Q> unit) {
+    return Quantities.getQuantity(Math.sqrt(varianceValue()) * Math.abs(scale(getUnit().getConverterTo(unit))), unit);
+  }
+
+  private double varianceValue() {
+    return count < 2 ? 0d : m2 / (count - 1);
+  }
+
+  /**
+   * Returns the factor by which the converter scales differences of values.
+   */
+  private static double scale(UnitConverter converter) {
+    return converter.convert(1d) - converter.convert(0d);
   }
 
   /**
@@ -228,11 +296,26 @@ public class QuantitySummaryStatistics<Q extends Quantity<Q>> {
    */
   public QuantitySummaryStatistics<Q> to(Unit<Q> unit) {
     QuantitySummaryStatistics<Q> summary = new QuantitySummaryStatistics<>(unit);
-    summary.average = average.to(unit);
     summary.count = count;
-    summary.max = max.to(unit);
-    summary.min = min.to(unit);
-    summary.sum = sum.to(unit);
+    UnitConverter converter = summary.converters.converterFrom(getUnit());
+    if (converter == null || isEmpty()) {
+      summary.sum.add(sum);
+      summary.min = min;
+      summary.max = max;
+      summary.mean = mean;
+      summary.m2 = m2;
+      return summary;
+    }
+    // converters may be affine (e.g. temperatures), so the sum is derived from the converted average
+    double total = converter.isLinear() ? converter.convert(sumValue()) : converter.convert(sumValue() / count) * count;
+    summary.sum.set(total);
+    double convertedMin = converter.convert(min);
+    double convertedMax = converter.convert(max);
+    summary.min = Math.min(convertedMin, convertedMax);
+    summary.max = Math.max(convertedMin, convertedMax);
+    double scale = scale(converter);
+    summary.mean = converter.convert(mean);
+    summary.m2 = m2 * scale * scale;
     return summary;
   }
 
@@ -244,25 +327,25 @@ public class QuantitySummaryStatistics<Q extends Quantity<Q>> {
     if (QuantitySummaryStatistics.class.isInstance(obj)) {
       @SuppressWarnings("rawtypes")
       QuantitySummaryStatistics other = QuantitySummaryStatistics.class.cast(obj);
-      return Objects.equals(empty.getUnit(), other.empty.getUnit());
+      return Objects.equals(getUnit(), other.getUnit());
     }
     return false;
   }
 
   @Override
   public int hashCode() {
-    return empty.getUnit().hashCode();
+    return getUnit().hashCode();
   }
 
   @Override
   public String toString() {
     final StringBuilder sb = new StringBuilder();
-    sb.append("[currency: ").append(empty.getUnit()).append(",");
+    sb.append("[unit: ").append(getUnit()).append(",");
     sb.append("count:").append(count).append(",");
-    sb.append("min:").append(min).append(",");
-    sb.append("max:").append(max).append(",");
-    sb.append("sum:").append(sum).append(",");
-    sb.append("average:").append(average).append("]");
+    sb.append("min:").append(getMin()).append(",");
+    sb.append("max:").append(getMax()).append(",");
+    sb.append("sum:").append(getSum()).append(",");
+    sb.append("average:").append(getAverage()).append("]");
     return sb.toString();
   }
 }
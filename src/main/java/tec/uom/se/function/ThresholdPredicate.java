@@ -0,0 +1,203 @@
+/*
+ * Units of Measurement Implementation for Java SE
+ * Copyright (c) 2005-2017, Jean-Marie Dautelle, Werner Keil, V2COM.
+ *
+ * All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without modification,
+ * are permitted provided that the following conditions are met:
+ *
+ * 1. Redistributions of source code must retain the above copyright notice,
+ *    this list of conditions and the following disclaimer.
+ *
+ * 2. Redistributions in binary form must reproduce the above copyright notice, this list of conditions
+ *    and the following disclaimer in the documentation and/or other materials provided with the distribution.
+ *
+ * 3. Neither the name of JSR-363 nor the names of its contributors may be used to endorse or promote products
+ *    derived from this software without specific prior written permission.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS"
+ * AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO,
+ * THE IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE
+ * ARE DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT HOLDER OR CONTRIBUTORS BE LIABLE
+ * FOR ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES
+ * (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES;
+ * LOSS OF USE, DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED
+ * AND ON ANY THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT
+ * (INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE OF THIS SOFTWARE,
+ * EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ */
+package tec.uom.se.function;
+
+import java.util.Arrays;
+import java.util.Map;
+import java.util.Objects;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Predicate;
+
+import javax.measure.Quantity;
+import javax.measure.Unit;
+import javax.measure.UnitConverter;
+
+import tec.uom.se.internal.function.ConverterCache;
+
+/**
+ * A predicate testing whether quantities lie within a lower and/or upper bound, each inclusive or exclusive. The bounds are converted into each
+ * incoming unit the first time that unit is seen and cached, so after that a test is a primitive comparison of the value of the quantity. Like
+ * {@link ConverterCache}, the bounds of the first units seen are kept in a small immutable table scanned by identity, so that tests write no shared
+ * state once it is populated.
+ * <p>
+ * Instances are thread-safe. They back the threshold predicates of {@link QuantityFunctions}.
+ * </p>
+ *
+ * @param <Q>
+ *          The type of the quantity.
+ */
+final class ThresholdPredicate<Q extends Quantity<Q>> implements Predicate<Quantity<Q>> {
+
+  private final Unit<Q> unit;
+
+  private final Bounds<Q> bounds;
+
+  private final Map<Unit<Q>, Bounds<Q>> boundsByUnit = new ConcurrentHashMap<>();
+
+  /**
+   * The bounds of the first units seen, replaced as a whole when a unit is added.
+   */
+  private volatile Bounds<?>[] table;
+
+  private ThresholdPredicate(Unit<Q> unit, double lower, boolean lowerInclusive, double upper, boolean upperInclusive) {
+    this.unit = unit;
+    this.bounds = new Bounds<>(unit, lower, lowerInclusive, upper, upperInclusive);
+    this.table = new Bounds<?>[] { bounds };
+  }
+
+  /**
+   * Creates a predicate for quantities greater than (or equal to) the given one.
+   */
+  static <Q extends Quantity<Q>> ThresholdPredicate<Q> greaterThan(Quantity<Q> quantity, boolean inclusive) {
+    return new ThresholdPredicate<>(quantity.getUnit(), ConverterCache.valueOf(quantity), inclusive, Double.POSITIVE_INFINITY, true);
+  }
+
+  /**
+   * Creates a predicate for quantities lesser than (or equal to) the given one.
+   */
+  static <Q extends Quantity<Q>> ThresholdPredicate<Q> lesserThan(Quantity<Q> quantity, boolean inclusive) {
+    return new ThresholdPredicate<>(quantity.getUnit(), Double.NEGATIVE_INFINITY, true, ConverterCache.valueOf(quantity), inclusive);
+  }
+
+  /**
+   * Creates a predicate for quantities between the given ones, inclusive.
+   */
+  static <Q extends Quantity<Q>> ThresholdPredicate<Q> between(Quantity<Q> min, Quantity<Q> max) {
+    Unit<Q> unit = min.getUnit();
+    double upper = ConverterCache.valueOf(max);
+    if (!unit.equals(max.getUnit())) {
+      upper = max.getUnit().getConverterTo(unit).convert(upper);
+    }
+    return new ThresholdPredicate<>(unit, ConverterCache.valueOf(min), true, upper, true);
+  }
+
+  @Override
+  public boolean test(Quantity<Q> quantity) {
+    return boundsFor(quantity.getUnit()).contains(ConverterCache.valueOf(quantity));
+  }
+
+  private Bounds<?> boundsFor(Unit<Q> u) {
+    for (Bounds<?> b : table) {
+      if (b.unit == u) {
+        return b;
+      }
+    }
+    Bounds<Q> b = boundsByUnit.get(u);
+    if (b == null) {
+      b = boundsIn(u);
+      Bounds<Q> previous = boundsByUnit.putIfAbsent(u, b);
+      if (previous != null) {
+        b = previous;
+      }
+      add(b);
+    }
+    return b;
+  }
+
+  /**
+   * Appends newly computed bounds to the identity table unless it is full.
+   */
+  private synchronized void add(Bounds<Q> b) {
+    Bounds<?>[] t = table;
+    if (t.length >= ConverterCache.TABLE_SIZE) {
+      return;
+    }
+    for (Bounds<?> existing : t) {
+      if (existing.unit == b.unit) {
+        return;
+      }
+    }
+    Bounds<?>[] bigger = Arrays.copyOf(t, t.length + 1);
+    bigger[t.length] = b;
+    table = bigger;
+  }
+
+  private Bounds<Q> boundsIn(Unit<Q> target) {
+    if (target.equals(unit)) {
+      return new Bounds<>(target, bounds.lower, bounds.lowerInclusive, bounds.upper, bounds.upperInclusive);
+    }
+    UnitConverter converter = unit.getConverterTo(target);
+    double lower = converter.convert(bounds.lower);
+    double upper = converter.convert(bounds.upper);
+    if (converter.convert(1d) < converter.convert(0d)) {
+      // a decreasing conversion swaps the bounds
+      return new Bounds<>(target, upper, bounds.upperInclusive, lower, bounds.lowerInclusive);
+    }
+    return new Bounds<>(target, lower, bounds.lowerInclusive, upper, bounds.upperInclusive);
+  }
+
+  /**
+   * Returns a predicate for values greater than (or equal to) the given number, ignoring units.
+   */
+  static <Q extends Quantity<Q>> Predicate<Quantity<Q>> greaterThan(Number value, boolean inclusive) {
+    final double threshold = Objects.requireNonNull(value).doubleValue();
+    return inclusive ? q -> ConverterCache.valueOf(q) >= threshold : q -> ConverterCache.valueOf(q) > threshold;
+  }
+
+  /**
+   * Returns a predicate for values lesser than (or equal to) the given number, ignoring units.
+   */
+  static <Q extends Quantity<Q>> Predicate<Quantity<Q>> lesserThan(Number value, boolean inclusive) {
+    final double threshold = Objects.requireNonNull(value).doubleValue();
+    return inclusive ? q -> ConverterCache.valueOf(q) <= threshold : q -> ConverterCache.valueOf(q) < threshold;
+  }
+
+  /**
+   * Returns a predicate for values between the given numbers, inclusive, ignoring units.
+   */
+  static <Q extends Quantity<Q>> Predicate<Quantity<Q>> between(Number min, Number max) {
+    final double lower = Objects.requireNonNull(min).doubleValue();
+    final double upper = Objects.requireNonNull(max).doubleValue();
+    return q -> {
+      double value = ConverterCache.valueOf(q);
+      return value >= lower && value <= upper;
+    };
+  }
+
+  private static final class Bounds<Q extends Quantity<Q>> {
+    private final Unit<?> unit;
+    private final double lower;
+    private final boolean lowerInclusive;
+    private final double upper;
+    private final boolean upperInclusive;
+
+    private Bounds(Unit<?> unit, double lower, boolean lowerInclusive, double upper, boolean upperInclusive) {
+      this.unit = unit;
+      this.lower = lower;
+      this.lowerInclusive = lowerInclusive;
+      this.upper = upper;
+      this.upperInclusive = upperInclusive;
+    }
+
+    private boolean contains(double value) {
+      return (lowerInclusive ? value >= lower : value > lower) && (upperInclusive ? value <= upper : value < upper);
+    }
+  }
+}
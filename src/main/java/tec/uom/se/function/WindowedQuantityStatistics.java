@@ -0,0 +1,392 @@
+/*
+ * Units of Measurement Implementation for Java SE
+ * Copyright (c) 2005-2017, Jean-Marie Dautelle, Werner Keil, V2COM.
+ *
+ * All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without modification,
+ * are permitted provided that the following conditions are met:
+ *
+ * 1. Redistributions of source code must retain the above copyright notice,
+ *    this list of conditions and the following disclaimer.
+ *
+ * 2. Redistributions in binary form must reproduce the above copyright notice, this list of conditions
+ *    and the following disclaimer in the documentation and/or other materials provided with the distribution.
+ *
+ * 3. Neither the name of JSR-363 nor the names of its contributors may be used to endorse or promote products
+ *    derived from this software without specific prior written permission.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS"
+ * AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO,
+ * THE IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE
+ * ARE DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT HOLDER OR CONTRIBUTORS BE LIABLE
+ * FOR ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES
+ * (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES;
+ * LOSS OF USE, DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED
+ * AND ON ANY THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT
+ * (INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE OF THIS SOFTWARE,
+ * EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ */
+package tec.uom.se.function;
+
+import java.time.Duration;
+import java.util.Objects;
+import java.util.function.Consumer;
+
+import javax.measure.Quantity;
+import javax.measure.Unit;
+
+import tec.uom.se.internal.function.CompensatedSum;
+import tec.uom.se.internal.function.ConverterCache;
+import tec.uom.se.quantity.Quantities;
+import tec.uom.se.quantity.time.TimedData;
+import tec.uom.se.spi.Measurement;
+
+/**
+ * A state object for collecting count, min, max, sum and average of the quantities within a time window, stated in a fixed target unit. The window
+ * is either sliding (e.g. the last 60 seconds before the latest timestamp) or tumbling (consecutive, non-overlapping periods aligned to the epoch,
+ * e.g. calendar minutes).
+ * <p>
+ * Timestamps and values are kept in primitive ring buffers, the sum is updated incrementally and min/max are tracked through monotonic deques, so
+ * that accepting a value and evicting expired ones takes amortized constant time. Timestamps are in milliseconds, like
+ * {@link TimedData#getTimestamp()} and {@link Measurement#getTimestamp()}, and must not decrease.
+ * </p>
+ * <p>
+ * This class is not thread-safe.
+ * </p>
+ *
+ * @param <Q>
+ *          The type of the quantity.
+ */
+public class WindowedQuantityStatistics<Q extends Quantity<Q>> {
+
+  private static final int INITIAL_CAPACITY = 16;
+
+  private final ConverterCache<Q> converters;
+
+  private final long window;
+
+  private final boolean tumbling;
+
+  private Consumer<QuantitySummaryStatistics<Q>> windowListener;
+
+  private long[] timestamps = new long[INITIAL_CAPACITY];
+
+  private double[] values = new double[INITIAL_CAPACITY];
+
+  /**
+   * Sequence numbers of the oldest value in the window and of the next value to add.
+   */
+  private long head;
+
+  private long tail;
+
+  private final SequenceDeque minima = new SequenceDeque();
+
+  private final SequenceDeque maxima = new SequenceDeque();
+
+  private final CompensatedSum sum = new CompensatedSum();
+
+  private long latest = Long.MIN_VALUE;
+
+  private long windowStart = Long.MIN_VALUE;
+
+  private WindowedQuantityStatistics(Unit<Q> unit, Duration window, boolean tumbling) {
+    this.converters = new ConverterCache<>(unit);
+    this.window = Objects.requireNonNull(window).toMillis();
+    if (this.window <= 0) {
+      throw new IllegalArgumentException("Window must be at least one millisecond: " + window);
+    }
+    this.tumbling = tumbling;
+  }
+
+  /**
+   * Creates statistics over a sliding window, containing the values of the given duration up to (and including) the latest timestamp.
+   * 
+   * @param unit
+   *          the target unit, not null.
+   * @param window
+   *          the length of the window, at least one millisecond.
+   * @return the windowed statistics
+   */
+  public static <Q extends Quantity<Q>> WindowedQuantityStatistics<Q> sliding(Unit<Q> unit, Duration window) {
+    return new WindowedQuantityStatistics<>(unit, window, false);
+  }
+
+  /**
+   * Creates statistics over tumbling windows of the given duration. Each window starts at a multiple of the duration since the epoch, and is reset
+   * when the first timestamp after its end is seen.
+   * 
+   * @param unit
+   *          the target unit, not null.
+   * @param window
+   *          the length of each window, at least one millisecond.
+   * @return the windowed statistics
+   * @see #onWindowClosed(Consumer)
+   */
+  public static <Q extends Quantity<Q>> WindowedQuantityStatistics<Q> tumbling(Unit<Q> unit, Duration window) {
+    return new WindowedQuantityStatistics<>(unit, window, true);
+  }
+
+  /**
+   * Registers a listener receiving the summary of each non-empty tumbling window when it is closed, e.g. to publish per-minute averages.
+   * 
+   * @param listener
+   *          the listener, or null to remove it.
+   * @return this statistics
+   */
+  public WindowedQuantityStatistics<Q> onWindowClosed(Consumer<QuantitySummaryStatistics<Q>> listener) {
+    this.windowListener = listener;
+    return this;
+  }
+
+  /**
+   * Records another timed quantity into the window.
+   * 
+   * @param data
+   *          the input quantity with its timestamp, not null.
+   * @throws IllegalArgumentException
+   *           if the timestamp is before the latest one.
+   */
+  public void accept(TimedData<? extends Quantity<Q>> data) {
+    accept(data.getTimestamp(), data.get());
+  }
+
+  /**
+   * Records another measurement into the window.
+   * 
+   * @param measurement
+   *          the input measurement, not null.
+   * @throws IllegalArgumentException
+   *           if the timestamp is before the latest one.
+   */
+  public void accept(Measurement<Q> measurement) {
+    accept(measurement.getTimestamp(), measurement.getQuantity());
+  }
+
+  /**
+   * Records another quantity into the window.
+   * 
+   * @param timestamp
+   *          the time of the quantity, in milliseconds since the epoch.
+   * @param quantity
+   *          the input quantity, not null.
+   * @throws IllegalArgumentException
+   *           if the timestamp is before the latest one.
+   */
+  public void accept(long timestamp, Quantity<Q> quantity) {
+    Objects.requireNonNull(quantity);
+    if (timestamp < latest) {
+      throw new IllegalArgumentException("Timestamp " + timestamp + " is before the latest one " + latest);
+    }
+    double value = converters.convert(quantity);
+    advanceTo(timestamp);
+    if (tail - head == values.length) {
+      grow();
+    }
+    int index = index(tail);
+    timestamps[index] = timestamp;
+    values[index] = value;
+    sum.add(value);
+    while (!minima.isEmpty() && values[index(minima.peekLast())] >= value) {
+      minima.pollLast();
+    }
+    minima.addLast(tail);
+    while (!maxima.isEmpty() && values[index(maxima.peekLast())] <= value) {
+      maxima.pollLast();
+    }
+    maxima.addLast(tail);
+    tail++;
+  }
+
+  /**
+   * Moves the window forward to the given time without adding a value, evicting the values which have expired. Earlier timestamps are ignored.
+   * 
+   * @param timestamp
+   *          the current time, in milliseconds since the epoch.
+   */
+  public void advanceTo(long timestamp) {
+    if (timestamp <= latest && windowStart != Long.MIN_VALUE) {
+      return;
+    }
+    latest = Math.max(latest, timestamp);
+    if (tumbling) {
+      long start = Math.floorDiv(timestamp, window) * window;
+      if (start != windowStart) {
+        if (windowListener != null && head != tail) {
+          windowListener.accept(toSummaryStatistics());
+        }
+        while (head != tail) {
+          evict();
+        }
+        windowStart = start;
+      }
+    } else {
+      windowStart = timestamp - window;
+      while (head != tail && timestamps[index(head)] <= windowStart) {
+        evict();
+      }
+    }
+  }
+
+  private void evict() {
+    if (!minima.isEmpty() && minima.peekFirst() == head) {
+      minima.pollFirst();
+    }
+    if (!maxima.isEmpty() && maxima.peekFirst() == head) {
+      maxima.pollFirst();
+    }
+    sum.add(-values[index(head)]);
+    head++;
+    if (head == tail) {
+      // no values left, drop any rounding residue
+      sum.set(0d);
+    }
+  }
+
+  private int index(long sequence) {
+    return (int) (sequence & (values.length - 1));
+  }
+
+  private void grow() {
+    int capacity = values.length << 1;
+    long[] newTimestamps = new long[capacity];
+    double[] newValues = new double[capacity];
+    for (long s = head; s < tail; s++) {
+      int from = index(s);
+      int to = (int) (s & (capacity - 1));
+      newTimestamps[to] = timestamps[from];
+      newValues[to] = values[from];
+    }
+    timestamps = newTimestamps;
+    values = newValues;
+  }
+
+  private Quantity<Q> quantity(double value) {
+    return Quantities.getQuantity(value, converters.getUnit());
+  }
+
+  /**
+   * Get the number of items within the window.
+   * 
+   * @return the number of items, >= 0.
+   */
+  public long getCount() {
+    return tail - head;
+  }
+
+  /**
+   * Get the start of the current window, in milliseconds since the epoch. A tumbling window includes its start, a sliding window only the times after
+   * it.
+   * 
+   * @return the start of the window, or {@link Long#MIN_VALUE} if nothing was recorded yet
+   */
+  public long getWindowStart() {
+    return windowStart;
+  }
+
+  /**
+   * Get the minimal quantity within the window.
+   * 
+   * @return the minimal quantity, zero if the window is empty
+   */
+  public Quantity<Q> getMin() {
+    return quantity(minima.isEmpty() ? 0d : values[index(minima.peekFirst())]);
+  }
+
+  /**
+   * Get the maximal quantity within the window.
+   * 
+   * @return the maximal quantity, zero if the window is empty
+   */
+  public Quantity<Q> getMax() {
+    return quantity(maxima.isEmpty() ? 0d : values[index(maxima.peekFirst())]);
+  }
+
+  /**
+   * Get the sum of all quantities within the window.
+   * 
+   * @return the total amount
+   */
+  public Quantity<Q> getSum() {
+    return quantity(sum.value());
+  }
+
+  /**
+   * Get the average of all quantities within the window.
+   * 
+   * @return the average, zero if the window is empty
+   */
+  public Quantity<Q> getAverage() {
+    return quantity(head == tail ? 0d : sum.value() / (tail - head));
+  }
+
+  /**
+   * Returns a summary of the quantities currently within the window.
+   * 
+   * @return a new summary, in the unit of these statistics
+   */
+  public QuantitySummaryStatistics<Q> toSummaryStatistics() {
+    QuantitySummaryStatistics<Q> summary = new QuantitySummaryStatistics<>(converters.getUnit());
+    for (long s = head; s < tail; s++) {
+      summary.accept(values[index(s)]);
+    }
+    return summary;
+  }
+
+  @Override
+  public String toString() {
+    final StringBuilder sb = new StringBuilder();
+    sb.append("[unit: ").append(converters.getUnit()).append(",");
+    sb.append(tumbling ? "tumbling:" : "sliding:").append(window).append("ms,");
+    sb.append("count:").append(getCount()).append(",");
+    sb.append("min:").append(getMin()).append(",");
+    sb.append("max:").append(getMax()).append(",");
+    sb.append("sum:").append(getSum()).append(",");
+    sb.append("average:").append(getAverage()).append("]");
+    return sb.toString();
+  }
+
+  /**
+   * A double-ended queue of sequence numbers in a growable ring buffer.
+   */
+  private static final class SequenceDeque {
+    private long[] elements = new long[INITIAL_CAPACITY];
+    private int first;
+    private int size;
+
+    private boolean isEmpty() {
+      return size == 0;
+    }
+
+    private long peekFirst() {
+      return elements[first];
+    }
+
+    private long peekLast() {
+      return elements[(first + size - 1) & (elements.length - 1)];
+    }
+
+    private void pollFirst() {
+      first = (first + 1) & (elements.length - 1);
+      size--;
+    }
+
+    private void pollLast() {
+      size--;
+    }
+
+    private void addLast(long sequence) {
+      if (size == elements.length) {
+        long[] grown = new long[elements.length << 1];
+        for (int i = 0; i < size; i++) {
+          grown[i] = elements[(first + i) & (elements.length - 1)];
+        }
+        elements = grown;
+        first = 0;
+      }
+      elements[(first + size) & (elements.length - 1)] = sequence;
+      size++;
+    }
+  }
+}
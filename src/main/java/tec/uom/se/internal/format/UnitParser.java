@@ -0,0 +1,631 @@
+/*
+ * Units of Measurement Implementation for Java SE
+ * Copyright (c) 2005-2017, Jean-Marie Dautelle, Werner Keil, V2COM.
+ *
+ * All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without modification,
+ * are permitted provided that the following conditions are met:
+ *
+ * 1. Redistributions of source code must retain the above copyright notice,
+ *    this list of conditions and the following disclaimer.
+ *
+ * 2. Redistributions in binary form must reproduce the above copyright notice, this list of conditions
+ *    and the following disclaimer in the documentation and/or other materials provided with the distribution.
+ *
+ * 3. Neither the name of JSR-363 nor the names of its contributors may be used to endorse or promote products
+ *    derived from this software without specific prior written permission.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS"
+ * AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO,
+ * THE IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE
+ * ARE DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT HOLDER OR CONTRIBUTORS BE LIABLE
+ * FOR ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES
+ * (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES;
+ * LOSS OF USE, DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED
+ * AND ON ANY THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT
+ * (INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE OF THIS SOFTWARE,
+ * EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ */
+package tec.uom.se.internal.format;
+
+import javax.measure.Unit;
+
+import tec.uom.se.AbstractUnit;
+import tec.uom.se.format.SymbolMap;
+import tec.uom.se.function.LogConverter;
+import tec.uom.se.unit.MetricPrefix;
+import tec.uom.se.unit.ProductUnit;
+import tec.uom.se.unit.TransformedUnit;
+
+/**
+ * <p>
+ * Hand-written recursive-descent parser accepting the same grammar as the generated {@link UnitFormatParser}.
+ * </p>
+ * 
+ * <p>
+ * The parser works directly on a {@link CharSequence} with index arithmetic, keeps a single token of state (plus an on-demand peek for the two
+ * places where the grammar needs a second token of lookahead) and reports errors through {@link #getErrorKind()} and {@link #getErrorIndex()}
+ * instead of throwing. Products, quotients and powers of plain units are built with a single call into {@link ProductUnit} rather than through
+ * chains of intermediate units.
+ * </p>
+ * 
+ * <p>
+ * Instances are cheap and not thread-safe; create one per parse, or one per thread.
+ * </p>
+ * 
+ */
+public final class UnitParser implements UnitTokenConstants {
+
+  /** No error occurred. */
+  public static final int NO_ERROR = 0;
+
+  /** The input contains a character sequence that is not a token (the generated parser throws {@link TokenMgrError}). */
+  public static final int LEXICAL_ERROR = 1;
+
+  /** The tokens do not match the grammar or a unit identifier is unknown (the generated parser throws {@link TokenException}). */
+  public static final int SYNTAX_ERROR = 2;
+
+  /** Kind of the pseudo-token returned by the lexer on a lexical error. */
+  private static final int ERROR = -1;
+
+  private final SymbolMap symbols;
+
+  private CharSequence csq;
+  private int end;
+
+  /** The current token. */
+  private int kind;
+  private int tokenStart;
+  private int tokenEnd;
+  /** Value of the current token if it is an INTEGER or a FLOATING_POINT. */
+  private double number;
+  private long integer;
+
+  private int errorKind;
+  private int errorIndex;
+  private String errorMessage;
+
+  /**
+   * Creates a parser resolving unit identifiers with the given symbol map.
+   * 
+   * @param symbols
+   *          the symbol map.
+   */
+  public UnitParser(SymbolMap symbols) {
+    this.symbols = symbols;
+  }
+
+  /**
+   * Parses the whole of the given character sequence.
+   * 
+   * @param csq
+   *          the character sequence to parse.
+   * @return the unit parsed or <code>null</code> if an error occurred.
+   */
+  public Unit<?> parse(CharSequence csq) {
+    return parse(csq, 0, csq.length());
+  }
+
+  /**
+   * Parses the characters of the given sequence from <code>start</code> (inclusive) to <code>end</code> (exclusive).
+   * 
+   * @param csq
+   *          the character sequence to parse.
+   * @param start
+   *          the index of the first character.
+   * @param end
+   *          the index after the last character.
+   * @return the unit parsed or <code>null</code> if an error occurred, in which case the error kind, index and message are available.
+   */
+  public Unit<?> parse(CharSequence csq, int start, int end) {
+    this.csq = csq;
+    this.end = end;
+    this.errorKind = NO_ERROR;
+    this.errorIndex = -1;
+    this.errorMessage = null;
+    tokenEnd = start;
+    next();
+    Unit<?> result = compoundExpr();
+    if (result != null && kind != EOF) {
+      result = fail();
+    }
+    this.csq = null;
+    return result;
+  }
+
+  /**
+   * Returns the kind of error of the last parse.
+   * 
+   * @return {@link #NO_ERROR}, {@link #LEXICAL_ERROR} or {@link #SYNTAX_ERROR}.
+   */
+  public int getErrorKind() {
+    return errorKind;
+  }
+
+  /**
+   * Returns the index in the parsed character sequence where the last parse failed, or <code>-1</code> if it succeeded.
+   */
+  public int getErrorIndex() {
+    return errorIndex;
+  }
+
+  /**
+   * Returns a description of the error of the last parse, or <code>null</code> if it succeeded.
+   */
+  public String getErrorMessage() {
+    return errorMessage;
+  }
+
+  // //////////////////////
+  // Parser productions //
+  // //////////////////////
+
+  private Unit<?> compoundExpr() {
+    Unit<?> result = addExpr();
+    if (result == null)
+      return null;
+    while (kind == COLON) {
+      next();
+    }
+    return result;
+  }
+
+  private Unit<?> addExpr() {
+    double n1 = 0;
+    boolean hasN1 = false;
+    boolean negative1 = false;
+    if (isNumber(kind)) {
+      int following = peek();
+      if (following == PLUS || following == MINUS) {
+        n1 = number;
+        hasN1 = true;
+        next();
+        negative1 = kind == MINUS;
+        next();
+      }
+    }
+    Unit<?> result = mulExpr();
+    if (result == null)
+      return null;
+    if (hasN1) {
+      if (negative1) {
+        result = result.multiply(-1);
+      }
+      result = result.shift(n1);
+    }
+    if (kind == PLUS || kind == MINUS) {
+      boolean negative2 = kind == MINUS;
+      next();
+      if (!isNumber(kind))
+        return fail();
+      result = result.shift(negative2 ? -number : number);
+      next();
+    }
+    return result;
+  }
+
+  private Unit<?> mulExpr() {
+    Unit<?> result = exponentExpr();
+    while (result != null) {
+      if (kind == ASTERISK || kind == MIDDLE_DOT) {
+        next();
+        Unit<?> temp = exponentExpr();
+        result = temp == null ? null : result.multiply(temp);
+      } else if (kind == SOLIDUS) {
+        next();
+        Unit<?> temp = exponentExpr();
+        result = temp == null ? null : divide(result, temp);
+      } else {
+        break;
+      }
+    }
+    return result;
+  }
+
+  private Unit<?> exponentExpr() {
+    switch (kind) {
+      case INTEGER:
+      case E:
+        if (peek() == CARET) {
+          double base = kind == INTEGER ? integer : Math.E;
+          next();
+          next();
+          Unit<?> result = atomicExpr();
+          return result == null ? null : result.transform(new LogConverter(base).inverse());
+        }
+        if (kind == E)
+          return fail();
+        return powerExpr();
+      case OPEN_PAREN:
+      case FLOATING_POINT:
+      case UNIT_IDENTIFIER:
+        return powerExpr();
+      case LOG:
+      case NAT_LOG:
+        double base = 10;
+        if (kind == NAT_LOG) {
+          base = Math.E;
+          next();
+        } else {
+          next();
+          if (kind == INTEGER) {
+            base = integer;
+            next();
+          }
+        }
+        if (kind != OPEN_PAREN)
+          return fail();
+        next();
+        Unit<?> result = addExpr();
+        if (result == null)
+          return null;
+        if (kind != CLOSE_PAREN)
+          return fail();
+        next();
+        return result.transform(new LogConverter(base));
+      default:
+        return fail();
+    }
+  }
+
+  private Unit<?> powerExpr() {
+    Unit<?> result = atomicExpr();
+    if (result == null)
+      return null;
+    if (kind == CARET || kind == SUPERSCRIPT_INTEGER) {
+      return exp(result);
+    }
+    return result;
+  }
+
+  private Unit<?> atomicExpr() {
+    switch (kind) {
+      case INTEGER:
+      case FLOATING_POINT:
+        double factor = number;
+        next();
+        return AbstractUnit.ONE.multiply(factor);
+      case UNIT_IDENTIFIER:
+        String symbol = csq.subSequence(tokenStart, tokenEnd).toString();
+        Unit<?> unit = symbols.getUnit(symbol);
+        if (unit == null) {
+          MetricPrefix prefix = symbols.getPrefix(symbol);
+          if (prefix != null) {
+            unit = symbols.getUnit(symbol.substring(symbols.getSymbol(prefix).length()));
+            if (unit != null) {
+              unit = unit.transform(prefix.getConverter());
+            }
+          }
+          if (unit == null)
+            return fail("Unknown unit '" + symbol + "'");
+        }
+        next();
+        return unit;
+      case OPEN_PAREN:
+        next();
+        Unit<?> result = addExpr();
+        if (result == null)
+          return null;
+        if (kind != CLOSE_PAREN)
+          return fail();
+        next();
+        return result;
+      default:
+        return fail();
+    }
+  }
+
+  /** Parses an exponent and applies it to the given unit. */
+  private Unit<?> exp(Unit<?> unit) {
+    int pow;
+    int root = 1;
+    if (kind == SUPERSCRIPT_INTEGER) {
+      pow = 0;
+      for (int i = tokenStart; i < tokenEnd; i++) {
+        pow = pow * 10 + superscriptDigit(csq.charAt(i));
+      }
+      next();
+    } else { // CARET
+      next();
+      if (kind == OPEN_PAREN) {
+        next();
+        pow = signedInteger();
+        if (errorKind != NO_ERROR)
+          return null;
+        if (kind == SOLIDUS) {
+          next();
+          root = signedInteger();
+          if (errorKind != NO_ERROR)
+            return null;
+        }
+        if (kind != CLOSE_PAREN)
+          return fail();
+        next();
+      } else {
+        pow = signedInteger();
+        if (errorKind != NO_ERROR)
+          return null;
+      }
+    }
+    Unit<?> result = pow(unit, pow);
+    return root != 1 ? result.root(root) : result;
+  }
+
+  /** Parses an optionally signed integer; the caller checks the error kind. */
+  private int signedInteger() {
+    boolean negative = false;
+    if (kind == PLUS || kind == MINUS) {
+      negative = kind == MINUS;
+      next();
+    }
+    if (kind != INTEGER || integer > Integer.MAX_VALUE) {
+      fail();
+      return 0;
+    }
+    int value = (int) integer;
+    next();
+    return negative ? -value : value;
+  }
+
+  // //////////////////
+  // Unit building //
+  // //////////////////
+
+  /**
+   * Units for which {@link ProductUnit} can compute a quotient or power in one step. A transformed product unit (even as the element of a
+   * product) has its converter factored out by {@link Unit#multiply(Unit)} and must take the general path.
+   */
+  private static boolean isPlain(Unit<?> unit) {
+    if (unit instanceof TransformedUnit) {
+      return !(((TransformedUnit<?>) unit).getParentUnit() instanceof ProductUnit);
+    }
+    if (unit instanceof ProductUnit) {
+      ProductUnit<?> product = (ProductUnit<?>) unit;
+      for (int i = 0; i < product.getUnitCount(); i++) {
+        if (!isPlain(product.getUnit(i)))
+          return false;
+      }
+    }
+    return true;
+  }
+
+  private static Unit<?> divide(Unit<?> left, Unit<?> right) {
+    if (isPlain(left) && isPlain(right)) {
+      return ProductUnit.getQuotientInstance(left, right);
+    }
+    return left.divide(right);
+  }
+
+  private static Unit<?> pow(Unit<?> unit, int n) {
+    if (n == 1)
+      return unit;
+    if (n == 0 || AbstractUnit.ONE.equals(unit))
+      return AbstractUnit.ONE;
+    if (isPlain(unit)) {
+      return ProductUnit.getPowInstance(unit, n);
+    }
+    return unit.pow(n);
+  }
+
+  // ///////////
+  // Lexer //
+  // ///////////
+
+  private static boolean isNumber(int kind) {
+    return kind == INTEGER || kind == FLOATING_POINT;
+  }
+
+  private Unit<?> fail() {
+    if (kind == ERROR) {
+      return fail(LEXICAL_ERROR, tokenStart, "Unexpected character '" + csq.charAt(tokenStart) + "'");
+    }
+    return fail(SYNTAX_ERROR, tokenStart, kind == EOF ? "Unexpected end of input" : "Unexpected '" + csq.subSequence(tokenStart, tokenEnd) + "'");
+  }
+
+  private Unit<?> fail(String message) {
+    return fail(SYNTAX_ERROR, tokenStart, message);
+  }
+
+  /** Records the first error of a parse, later ones are consequences of it. */
+  private Unit<?> fail(int errorKind, int index, String message) {
+    if (this.errorKind == NO_ERROR) {
+      this.errorKind = errorKind;
+      this.errorIndex = index;
+      this.errorMessage = message + " at index " + index;
+    }
+    return null;
+  }
+
+  /** Advances to the next token. */
+  private void next() {
+    tokenStart = tokenEnd;
+    tokenEnd = scan(tokenStart, true);
+  }
+
+  /**
+   * Returns the kind of the token following the current one without consuming anything. A lexical error is recorded right away, as the
+   * generated parser fails during its lookahead.
+   */
+  private int peek() {
+    int savedKind = kind;
+    double savedNumber = number;
+    long savedInteger = integer;
+    scan(tokenEnd, false);
+    int result = kind;
+    if (result == ERROR) {
+      fail(LEXICAL_ERROR, tokenEnd, "Unexpected character '" + csq.charAt(tokenEnd) + "'");
+    }
+    kind = savedKind;
+    number = savedNumber;
+    integer = savedInteger;
+    return result;
+  }
+
+  /**
+   * Scans the token starting at the given index, sets its kind (and value) and returns its end index. Unlike the generated token manager,
+   * this never allocates: keywords are matched in place and numbers are only converted when <code>convert</code> is set.
+   */
+  private int scan(int i, boolean convert) {
+    if (i >= end) {
+      kind = EOF;
+      return i;
+    }
+    char c = csq.charAt(i);
+    switch (c) {
+      case '+':
+        kind = PLUS;
+        return i + 1;
+      case '-':
+        kind = MINUS;
+        return i + 1;
+      case '*':
+        kind = ASTERISK;
+        return i + 1;
+      case '\u00b7':
+        kind = MIDDLE_DOT;
+        return i + 1;
+      case '/':
+        kind = SOLIDUS;
+        return i + 1;
+      case '^':
+        kind = CARET;
+        return i + 1;
+      case ':':
+        kind = COLON;
+        return i + 1;
+      case '(':
+        kind = OPEN_PAREN;
+        return i + 1;
+      case ')':
+        kind = CLOSE_PAREN;
+        return i + 1;
+      default:
+    }
+    if (isDigit(c) || c == '.') {
+      return scanNumber(i, convert);
+    }
+    if (superscriptDigit(c) >= 0) {
+      int j = i + 1;
+      while (j < end && superscriptDigit(csq.charAt(j)) >= 0) {
+        j++;
+      }
+      kind = SUPERSCRIPT_INTEGER;
+      return j;
+    }
+    if (isInitialChar(c)) {
+      int j = i + 1;
+      while (j < end && (isInitialChar(csq.charAt(j)) || isDigit(csq.charAt(j)))) {
+        j++;
+      }
+      kind = keyword(i, j - i);
+      return j;
+    }
+    kind = ERROR;
+    return i + 1;
+  }
+
+  private int scanNumber(int i, boolean convert) {
+    int j = i;
+    long value = 0;
+    boolean overflow = false;
+    while (j < end && isDigit(csq.charAt(j))) {
+      if (value > (Long.MAX_VALUE - 9) / 10) {
+        overflow = true;
+      }
+      value = value * 10 + (csq.charAt(j) - '0');
+      j++;
+    }
+    boolean floating = false;
+    if (j < end && csq.charAt(j) == '.') {
+      if (j + 1 < end && isDigit(csq.charAt(j + 1))) {
+        j += 2;
+        while (j < end && isDigit(csq.charAt(j))) {
+          j++;
+        }
+        floating = true;
+      } else if (j == i) {
+        kind = ERROR; // A lone '.'
+        return i + 1;
+      }
+    }
+    if (j < end && (csq.charAt(j) == 'e' || csq.charAt(j) == 'E')) {
+      int k = j + 1;
+      if (k < end && (csq.charAt(k) == '+' || csq.charAt(k) == '-')) {
+        k++;
+      }
+      if (k < end && isDigit(csq.charAt(k))) {
+        j = k + 1;
+        while (j < end && isDigit(csq.charAt(j))) {
+          j++;
+        }
+        floating = true;
+      }
+    }
+    if (floating) {
+      kind = FLOATING_POINT;
+      if (convert) {
+        number = Double.parseDouble(csq.subSequence(i, j).toString());
+      }
+    } else if (overflow) {
+      kind = ERROR; // Not representable, the generated parser fails on Long.valueOf.
+      return i;
+    } else {
+      kind = INTEGER;
+      integer = value;
+      number = value;
+    }
+    return j;
+  }
+
+  private int keyword(int start, int length) {
+    char c = csq.charAt(start);
+    if (length == 1 && c == 'e')
+      return E;
+    if (length == 2 && c == 'l' && csq.charAt(start + 1) == 'n')
+      return NAT_LOG;
+    if (length == 3 && c == 'l' && csq.charAt(start + 1) == 'o' && csq.charAt(start + 2) == 'g')
+      return LOG;
+    return UNIT_IDENTIFIER;
+  }
+
+  private static boolean isDigit(char c) {
+    return c >= '0' && c <= '9';
+  }
+
+  /** Returns the value of the given superscript digit or <code>-1</code> if it is not one. */
+  private static int superscriptDigit(char c) {
+    switch (c) {
+      case '\u2070':
+        return 0;
+      case '\u00b9':
+        return 1;
+      case '\u00b2':
+        return 2;
+      case '\u00b3':
+        return 3;
+      default:
+        return c >= '\u2074' && c <= '\u2079' ? c - '\u2070' : -1;
+    }
+  }
+
+  private static boolean isInitialChar(char c) {
+    if (c <= ' ')
+      return false;
+    switch (c) {
+      case '(':
+      case ')':
+      case '*':
+      case '+':
+      case '-':
+      case '.':
+      case '/':
+      case ':':
+      case '^':
+      case '\u00b7':
+        return false;
+      default:
+        return !isDigit(c) && superscriptDigit(c) < 0;
+    }
+  }
+}
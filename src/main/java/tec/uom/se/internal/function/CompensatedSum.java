@@ -0,0 +1,100 @@
+/*
+ * Units of Measurement Implementation for Java SE
+ * Copyright (c) 2005-2017, Jean-Marie Dautelle, Werner Keil, V2COM.
+ *
+ * All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without modification,
+ * are permitted provided that the following conditions are met:
+ *
+ * 1. Redistributions of source code must retain the above copyright notice,
+ *    this list of conditions and the following disclaimer.
+ *
+ * 2. Redistributions in binary form must reproduce the above copyright notice, this list of conditions
+ *    and the following disclaimer in the documentation and/or other materials provided with the distribution.
+ *
+ * 3. Neither the name of JSR-363 nor the names of its contributors may be used to endorse or promote products
+ *    derived from this software without specific prior written permission.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS"
+ * AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO,
+ * THE IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE
+ * ARE DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT HOLDER OR CONTRIBUTORS BE LIABLE
+ * FOR ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES
+ * (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES;
+ * LOSS OF USE, DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED
+ * AND ON ANY THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT
+ * (INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE OF THIS SOFTWARE,
+ * EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ */
+package tec.uom.se.internal.function;
+
+/**
+ * A <code>double</code> sum using Kahan-Babuska compensated summation, shared by the reductions of quantities. The uncompensated sum is kept along,
+ * so that a sum overflowing to an infinity is returned as such instead of <code>NaN</code>.
+ * <p>
+ * This class is not thread-safe.
+ * </p>
+ */
+public final class CompensatedSum {
+
+  private double sum;
+
+  /**
+   * Low order bits of the sum.
+   */
+  private double compensation;
+
+  /**
+   * Uncompensated sum, used when the sum overflows to an infinity.
+   */
+  private double simpleSum;
+
+  /**
+   * Adds a value to the sum.
+   */
+  public void add(double value) {
+    simpleSum += value;
+    addWithCompensation(value);
+  }
+
+  /**
+   * Adds the sum of another instance to this one.
+   */
+  public void add(CompensatedSum other) {
+    simpleSum += other.simpleSum;
+    addWithCompensation(other.sum);
+    addWithCompensation(other.compensation);
+  }
+
+  private void addWithCompensation(double value) {
+    double t = sum + value;
+    if (Math.abs(sum) >= Math.abs(value)) {
+      compensation += (sum - t) + value;
+    } else {
+      compensation += (value - t) + sum;
+    }
+    sum = t;
+  }
+
+  /**
+   * Replaces the sum with the given value, dropping any compensation.
+   */
+  public void set(double value) {
+    sum = value;
+    simpleSum = value;
+    compensation = 0d;
+  }
+
+  /**
+   * Returns the compensated sum.
+   */
+  public double value() {
+    double total = sum + compensation;
+    if (Double.isNaN(total) && Double.isInfinite(simpleSum)) {
+      // the compensated sum is NaN after overflowing to infinities of the same sign
+      return simpleSum;
+    }
+    return total;
+  }
+}
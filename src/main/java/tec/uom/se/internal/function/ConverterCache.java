@@ -0,0 +1,163 @@
+/*
+ * Units of Measurement Implementation for Java SE
+ * Copyright (c) 2005-2017, Jean-Marie Dautelle, Werner Keil, V2COM.
+ *
+ * All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without modification,
+ * are permitted provided that the following conditions are met:
+ *
+ * 1. Redistributions of source code must retain the above copyright notice,
+ *    this list of conditions and the following disclaimer.
+ *
+ * 2. Redistributions in binary form must reproduce the above copyright notice, this list of conditions
+ *    and the following disclaimer in the documentation and/or other materials provided with the distribution.
+ *
+ * 3. Neither the name of JSR-363 nor the names of its contributors may be used to endorse or promote products
+ *    derived from this software without specific prior written permission.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS"
+ * AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO,
+ * THE IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE
+ * ARE DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT HOLDER OR CONTRIBUTORS BE LIABLE
+ * FOR ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES
+ * (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES;
+ * LOSS OF USE, DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED
+ * AND ON ANY THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT
+ * (INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE OF THIS SOFTWARE,
+ * EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ */
+package tec.uom.se.internal.function;
+
+import java.util.Arrays;
+import java.util.Map;
+import java.util.Objects;
+import java.util.concurrent.ConcurrentHashMap;
+
+import javax.measure.Quantity;
+import javax.measure.Unit;
+import javax.measure.UnitConverter;
+
+import tec.uom.se.AbstractConverter;
+import tec.uom.se.AbstractQuantity;
+
+/**
+ * Caches the {@link UnitConverter} from each unit encountered to a fixed target unit, so that reductions over many quantities resolve a converter
+ * only once per distinct unit instead of once per element.
+ * <p>
+ * The first units seen are kept in a small immutable table which is scanned by identity, so homogeneous and mixed-unit streams alike resolve their
+ * converter without allocating or writing shared state once the table is populated. Units that are only equal to a table entry, or that arrive
+ * after the table is full, are looked up in a map. Instances are thread-safe.
+ * </p>
+ *
+ * @param <Q>
+ *          The type of the quantity.
+ */
+public final class ConverterCache<Q extends Quantity<Q>> {
+
+  /**
+   * Marker stored in the map for units that need no conversion (<code>ConcurrentHashMap</code> does not accept <code>null</code> values).
+   */
+  private static final UnitConverter IDENTITY = AbstractConverter.IDENTITY;
+
+  /**
+   * Maximum number of units kept in the identity table.
+   */
+  public static final int TABLE_SIZE = 8;
+
+  private final Unit<Q> unit;
+
+  private final Map<Unit<Q>, UnitConverter> converters = new ConcurrentHashMap<>();
+
+  /**
+   * Units and their converters (<code>null</code> for no conversion) at the same index, replaced as a whole when a unit is added.
+   */
+  private volatile Table table;
+
+  public ConverterCache(Unit<Q> unit) {
+    this.unit = Objects.requireNonNull(unit);
+    this.table = new Table(new Unit<?>[] { unit }, new UnitConverter[1]);
+  }
+
+  /**
+   * Returns the target unit of this cache.
+   */
+  public Unit<Q> getUnit() {
+    return unit;
+  }
+
+  /**
+   * Returns the converter from the given unit to the target unit, or <code>null</code> if both units are equal and no conversion is needed.
+   */
+  public UnitConverter converterFrom(Unit<Q> from) {
+    Table t = table;
+    Unit<?>[] units = t.units;
+    for (int i = 0; i < units.length; i++) {
+      if (units[i] == from) {
+        return t.converters[i];
+      }
+    }
+    UnitConverter converter = converters.get(from);
+    if (converter == null) {
+      converter = from.getConverterTo(unit);
+      if (converter.isIdentity()) {
+        converter = IDENTITY;
+      }
+      converters.putIfAbsent(from, converter);
+      add(from, converter == IDENTITY ? null : converter);
+    }
+    return converter == IDENTITY ? null : converter;
+  }
+
+  /**
+   * Appends a newly resolved unit to the identity table unless it is full.
+   */
+  private synchronized void add(Unit<Q> from, UnitConverter converter) {
+    Table t = table;
+    int n = t.units.length;
+    if (n >= TABLE_SIZE) {
+      return;
+    }
+    for (Unit<?> u : t.units) {
+      if (u == from) {
+        return;
+      }
+    }
+    Unit<?>[] units = Arrays.copyOf(t.units, n + 1);
+    UnitConverter[] convs = Arrays.copyOf(t.converters, n + 1);
+    units[n] = from;
+    convs[n] = converter;
+    table = new Table(units, convs);
+  }
+
+  /**
+   * Returns the value of the given quantity stated in the target unit.
+   */
+  public double convert(Quantity<Q> quantity) {
+    UnitConverter converter = converterFrom(quantity.getUnit());
+    double value = valueOf(quantity);
+    return converter == null ? value : converter.convert(value);
+  }
+
+  /**
+   * Returns the value of the given quantity in its own unit, without boxing it for our own quantity implementations.
+   */
+  @SuppressWarnings({ "rawtypes", "unchecked" })
+  public static double valueOf(Quantity<?> quantity) {
+    if (quantity instanceof AbstractQuantity) {
+      AbstractQuantity q = (AbstractQuantity) quantity;
+      return q.doubleValue(q.getUnit());
+    }
+    return quantity.getValue().doubleValue();
+  }
+
+  private static final class Table {
+    private final Unit<?>[] units;
+    private final UnitConverter[] converters;
+
+    private Table(Unit<?>[] units, UnitConverter[] converters) {
+      this.units = units;
+      this.converters = converters;
+    }
+  }
+}
@@ -34,6 +34,9 @@ import static tec.uom.se.format.FormatBehavior.LOCALE_NEUTRAL;
 import java.math.BigDecimal;
 import java.math.BigInteger;
 import java.text.ParsePosition;
+import java.util.Arrays;
+import java.util.Iterator;
+import java.util.NoSuchElementException;
 import java.util.Objects;
 
 import javax.measure.Quantity;
@@ -106,4 +109,129 @@ public final class Quantities {
     }
     return new NumberQuantity<>(value, unit);
   }
+
+  /**
+   * Returns the sum of the specified quantities, stated in the specified unit. The sum is exact for integral and {@link BigDecimal} values (using
+   * {@link java.math.MathContext#DECIMAL128} for conversions), otherwise it is a compensated <code>double</code> sum. Each distinct unit is
+   * converted only once, and no intermediate quantities are created.
+   * 
+   * @param quantities
+   *          the quantities to sum.
+   * @param unit
+   *          the unit of the result.
+   * @return the sum, zero if there are no quantities.
+   * @throws NullPointerException
+   *           when the quantities, any of them or the unit were null
+   */
+  public static <Q extends Quantity<Q>> ComparableQuantity<Q> sum(Iterable<? extends Quantity<Q>> quantities, Unit<Q> unit) {
+    return getQuantity(accumulate(quantities, unit).getSum(), unit);
+  }
+
+  /**
+   * Returns the sum of the specified quantities, stated in the specified unit.
+   * 
+   * @see #sum(Iterable, Unit)
+   */
+  public static <Q extends Quantity<Q>> ComparableQuantity<Q> sum(Quantity<Q>[] quantities, Unit<Q> unit) {
+    return sum(Arrays.asList(quantities), unit);
+  }
+
+  /**
+   * Returns the arithmetic mean of the specified quantities, stated in the specified unit.
+   * 
+   * @param quantities
+   *          the quantities to average.
+   * @param unit
+   *          the unit of the result.
+   * @return the mean, as a {@link BigDecimal} if the sum is exact.
+   * @throws NoSuchElementException
+   *           if there are no quantities
+   * @see #sum(Iterable, Unit)
+   */
+  public static <Q extends Quantity<Q>> ComparableQuantity<Q> mean(Iterable<? extends Quantity<Q>> quantities, Unit<Q> unit) {
+    QuantityAccumulator<Q> accumulator = accumulate(quantities, unit);
+    if (accumulator.getCount() == 0) {
+      throw new NoSuchElementException();
+    }
+    return getQuantity(accumulator.getMean(), unit);
+  }
+
+  /**
+   * Returns the arithmetic mean of the specified quantities, stated in the specified unit.
+   * 
+   * @see #mean(Iterable, Unit)
+   */
+  public static <Q extends Quantity<Q>> ComparableQuantity<Q> mean(Quantity<Q>[] quantities, Unit<Q> unit) {
+    return mean(Arrays.asList(quantities), unit);
+  }
+
+  /**
+   * Returns the smallest of the specified quantities. Quantities are compared by their value in the unit of the first one, converting each distinct
+   * unit only once.
+   * 
+   * @param quantities
+   *          the quantities to compare.
+   * @return the first smallest quantity.
+   * @throws NoSuchElementException
+   *           if there are no quantities
+   */
+  public static <Q extends Quantity<Q>> Quantity<Q> min(Iterable<? extends Quantity<Q>> quantities) {
+    return extreme(quantities, true);
+  }
+
+  /**
+   * Returns the smallest of the specified quantities.
+   * 
+   * @see #min(Iterable)
+   */
+  public static <Q extends Quantity<Q>> Quantity<Q> min(Quantity<Q>[] quantities) {
+    return min(Arrays.asList(quantities));
+  }
+
+  /**
+   * Returns the largest of the specified quantities. Quantities are compared by their value in the unit of the first one, converting each distinct
+   * unit only once.
+   * 
+   * @param quantities
+   *          the quantities to compare.
+   * @return the first largest quantity.
+   * @throws NoSuchElementException
+   *           if there are no quantities
+   */
+  public static <Q extends Quantity<Q>> Quantity<Q> max(Iterable<? extends Quantity<Q>> quantities) {
+    return extreme(quantities, false);
+  }
+
+  /**
+   * Returns the largest of the specified quantities.
+   * 
+   * @see #max(Iterable)
+   */
+  public static <Q extends Quantity<Q>> Quantity<Q> max(Quantity<Q>[] quantities) {
+    return max(Arrays.asList(quantities));
+  }
+
+  private static <Q extends Quantity<Q>> QuantityAccumulator<Q> accumulate(Iterable<? extends Quantity<Q>> quantities, Unit<Q> unit) {
+    QuantityAccumulator<Q> accumulator = new QuantityAccumulator<>(unit);
+    for (Quantity<Q> quantity : quantities) {
+      accumulator.add(Objects.requireNonNull(quantity));
+    }
+    return accumulator;
+  }
+
+  private static <Q extends Quantity<Q>> Quantity<Q> extreme(Iterable<? extends Quantity<Q>> quantities, boolean min) {
+    Iterator<? extends Quantity<Q>> iterator = quantities.iterator();
+    Quantity<Q> result = Objects.requireNonNull(iterator.next());
+    QuantityAccumulator<Q> values = new QuantityAccumulator<>(result.getUnit());
+    double extreme = values.doubleValue(result);
+    while (iterator.hasNext()) {
+      Quantity<Q> quantity = Objects.requireNonNull(iterator.next());
+      double value = values.doubleValue(quantity);
+      if (min ? value < extreme : value > extreme) {
+        extreme = value;
+        result = quantity;
+      }
+    }
+    return result;
+  }
 }
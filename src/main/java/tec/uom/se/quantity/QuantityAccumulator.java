@@ -0,0 +1,175 @@
+/*
+ * Units of Measurement Implementation for Java SE
+ * Copyright (c) 2005-2017, Jean-Marie Dautelle, Werner Keil, V2COM.
+ *
+ * All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without modification,
+ * are permitted provided that the following conditions are met:
+ *
+ * 1. Redistributions of source code must retain the above copyright notice,
+ *    this list of conditions and the following disclaimer.
+ *
+ * 2. Redistributions in binary form must reproduce the above copyright notice, this list of conditions
+ *    and the following disclaimer in the documentation and/or other materials provided with the distribution.
+ *
+ * 3. Neither the name of JSR-363 nor the names of its contributors may be used to endorse or promote products
+ *    derived from this software without specific prior written permission.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS"
+ * AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO,
+ * THE IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE
+ * ARE DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT HOLDER OR CONTRIBUTORS BE LIABLE
+ * FOR ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES
+ * (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES;
+ * LOSS OF USE, DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED
+ * AND ON ANY THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT
+ * (INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE OF THIS SOFTWARE,
+ * EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ */
+package tec.uom.se.quantity;
+
+import java.math.BigDecimal;
+import java.math.BigInteger;
+import java.math.MathContext;
+
+import javax.measure.Quantity;
+import javax.measure.Unit;
+import javax.measure.UnitConverter;
+
+import tec.uom.se.AbstractConverter;
+import tec.uom.se.internal.function.CompensatedSum;
+import tec.uom.se.internal.function.ConverterCache;
+
+/**
+ * Accumulates quantities into a sum stated in a fixed unit, backing the bulk reductions of {@link Quantities}.
+ * <p>
+ * The sum stays exact as long as possible: integral values in the target unit are added as <code>long</code>, decimal values (and integral values
+ * needing a conversion) as {@link BigDecimal} using {@link MathContext#DECIMAL128}. Once a floating point value is added, the accumulator continues
+ * with a Kahan-Babuska compensated <code>double</code> sum. Converters are resolved once per distinct unit.
+ * </p>
+ *
+ * @param <Q>
+ *          The type of the quantity.
+ */
+final class QuantityAccumulator<Q extends Quantity<Q>> {
+
+  private static final MathContext CONTEXT = MathContext.DECIMAL128;
+
+  private final ConverterCache<Q> converters;
+
+  private long count;
+
+  private boolean inexact;
+
+  private long longSum;
+
+  private BigDecimal decimalSum;
+
+  private final CompensatedSum sum = new CompensatedSum();
+
+  QuantityAccumulator(Unit<Q> unit) {
+    this.converters = new ConverterCache<>(unit);
+  }
+
+  /**
+   * Returns the value of the given quantity stated in the target unit, as a <code>double</code>.
+   */
+  double doubleValue(Quantity<Q> quantity) {
+    return converters.convert(quantity);
+  }
+
+  void add(Quantity<Q> quantity) {
+    count++;
+    if (inexact || quantity instanceof DoubleQuantity) {
+      addInexact(doubleValue(quantity));
+      return;
+    }
+    UnitConverter converter = converters.converterFrom(quantity.getUnit());
+    Number value = quantity.getValue();
+    if (converter == null && isIntegral(value)) {
+      addExact(value.longValue());
+      return;
+    }
+    BigDecimal decimal = toDecimal(value);
+    if (decimal != null && converter != null) {
+      decimal = converter instanceof AbstractConverter ? convert((AbstractConverter) converter, decimal) : null;
+    }
+    if (decimal == null) {
+      addInexact(converter == null ? value.doubleValue() : converter.convert(value.doubleValue()));
+    } else {
+      decimalSum = decimalSum == null ? decimal : decimalSum.add(decimal);
+    }
+  }
+
+  private static BigDecimal convert(AbstractConverter converter, BigDecimal value) {
+    try {
+      return converter.convert(value, CONTEXT);
+    } catch (ArithmeticException | UnsupportedOperationException e) {
+      return null;
+    }
+  }
+
+  private void addExact(long value) {
+    long result = longSum + value;
+    if (((longSum ^ result) & (value ^ result)) < 0) { // overflow
+      decimalSum = BigDecimal.valueOf(longSum).add(decimalSum == null ? BigDecimal.ZERO : decimalSum);
+      longSum = value;
+    } else {
+      longSum = result;
+    }
+  }
+
+  private void addInexact(double value) {
+    if (!inexact) {
+      inexact = true;
+      sum.set(exactSum().doubleValue());
+    }
+    sum.add(value);
+  }
+
+  private BigDecimal exactSum() {
+    BigDecimal total = BigDecimal.valueOf(longSum);
+    return decimalSum == null ? total : decimalSum.add(total);
+  }
+
+  long getCount() {
+    return count;
+  }
+
+  /**
+   * Returns the sum, as a {@link Long}, {@link BigDecimal} or {@link Double} depending on whether it is still exact.
+   */
+  Number getSum() {
+    if (inexact) {
+      return sum.value();
+    }
+    return decimalSum == null ? Long.valueOf(longSum) : exactSum();
+  }
+
+  /**
+   * Returns the arithmetic mean, as a {@link BigDecimal} or {@link Double} depending on whether the sum is still exact.
+   */
+  Number getMean() {
+    Number total = getSum();
+    if (total instanceof Double) {
+      return total.doubleValue() / count;
+    }
+    return (total instanceof BigDecimal ? (BigDecimal) total : BigDecimal.valueOf(total.longValue())).divide(BigDecimal.valueOf(count), CONTEXT);
+  }
+
+  private static boolean isIntegral(Number value) {
+    return value instanceof Long || value instanceof Integer || value instanceof Short || value instanceof Byte;
+  }
+
+  private static BigDecimal toDecimal(Number value) {
+    if (value instanceof BigDecimal) {
+      return (BigDecimal) value;
+    } else if (value instanceof BigInteger) {
+      return new BigDecimal((BigInteger) value);
+    } else if (isIntegral(value)) {
+      return BigDecimal.valueOf(value.longValue());
+    }
+    return null;
+  }
+}
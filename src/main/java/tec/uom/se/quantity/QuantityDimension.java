@@ -68,8 +68,6 @@ import java.util.logging.Logger;
  * @version 1.0, $Date: 2016-10-18 $
  */
 public final class QuantityDimension implements Dimension, Serializable {
-  private static final Logger logger = Logger.getLogger(QuantityDimension.class.getName());
-
   /**
 	 * 
 	 */
@@ -162,7 +160,7 @@ public final class QuantityDimension implements Dimension, Serializable {
     // types)
     Unit<Q> siUnit = Units.getInstance().getUnit(quantityType);
     if (siUnit == null)
-      logger.log(Level.FINER, "Quantity type: " + quantityType + " unknown"); // we're
+      Logger.getLogger(QuantityDimension.class.getName()).log(Level.FINER, "Quantity type: " + quantityType + " unknown"); // we're
     // logging
     // but
     // probably
@@ -35,6 +35,7 @@ import javax.measure.spi.ServiceProvider;
 import javax.measure.spi.SystemOfUnitsService;
 import javax.measure.spi.UnitFormatService;
 
+import tec.uom.lib.common.function.IntPrioritySupplier;
 import tec.uom.se.quantity.DefaultQuantityFactory;
 
 import java.util.ArrayList;
@@ -64,8 +65,27 @@ public class DefaultServiceProvider extends ServiceProvider implements Comparabl
 
 	private static final Comparator<Object> SERVICE_COMPARATOR = DefaultServiceProvider::compareServices;
 
+	/**
+	 * The quantity factory of each quantity type, stored with the type so that looking it up needs no hashing.
+	 */
 	@SuppressWarnings("rawtypes")
-	private final Map<Class, QuantityFactory> QUANTITY_FACTORIES = new ConcurrentHashMap<>();
+	private final ClassValue<QuantityFactory> quantityFactories = new ClassValue<QuantityFactory>() {
+		@SuppressWarnings("unchecked")
+		@Override
+		protected QuantityFactory computeValue(Class<?> type) {
+			return DefaultQuantityFactory.getInstance((Class) type);
+		}
+	};
+
+	/**
+	 * The service of highest priority, resolved on first use.
+	 */
+	private volatile SystemOfUnitsService systemOfUnitsService;
+
+	/**
+	 * The service of highest priority, resolved on first use.
+	 */
+	private volatile UnitFormatService unitFormatService;
 
 	/**
 	 * Returns a priority value of 10.
@@ -104,17 +124,13 @@ public class DefaultServiceProvider extends ServiceProvider implements Comparabl
 		return services.get(0);
 	}
 
+	/**
+	 * Orders services by descending {@link IntPrioritySupplier#getPriority() priority}, services not supplying one having priority 0, and then by
+	 * class name.
+	 */
 	static int compareServices(Object o1, Object o2) {
-		int prio1 = 0;
-		int prio2 = 0;
-//		Priority prio1Annot = o1.getClass().getAnnotation(Priority.class);
-//		if (prio1Annot != null) {
-//			prio1 = prio1Annot.value();
-//		}
-//		Priority prio2Annot = o2.getClass().getAnnotation(Priority.class);
-//		if (prio2Annot != null) {
-//			prio2 = prio2Annot.value();
-//		}
+		int prio1 = priorityOf(o1);
+		int prio2 = priorityOf(o2);
 		if (prio1 < prio2) {
 			return 1;
 		}
@@ -124,6 +140,10 @@ public class DefaultServiceProvider extends ServiceProvider implements Comparabl
 		return o2.getClass().getSimpleName().compareTo(o1.getClass().getSimpleName());
 	}
 
+	private static int priorityOf(Object service) {
+		return service instanceof IntPrioritySupplier ? ((IntPrioritySupplier) service).getPriority() : 0;
+	}
+
 	/**
 	 * Loads and registers services.
 	 *
@@ -141,8 +161,9 @@ public class DefaultServiceProvider extends ServiceProvider implements Comparabl
 			}
 			Collections.sort(services, SERVICE_COMPARATOR);
 			@SuppressWarnings("unchecked")
-			final List<T> previousServices = (List<T>) servicesLoaded.putIfAbsent(serviceType, (List<Object>) services);
-			return Collections.unmodifiableList(previousServices != null ? previousServices : services);
+			final List<T> previousServices = (List<T>) servicesLoaded.putIfAbsent(serviceType,
+					(List<Object>) Collections.unmodifiableList(services));
+			return previousServices != null ? previousServices : Collections.unmodifiableList(services);
 		} catch (Exception e) {
 			Logger.getLogger(DefaultServiceProvider.class.getName()).log(Level.WARNING,
 					"Error loading services of type " + serviceType, e);
@@ -158,12 +179,22 @@ public class DefaultServiceProvider extends ServiceProvider implements Comparabl
 
 	@Override
 	public SystemOfUnitsService getSystemOfUnitsService() {
-		return getService(SystemOfUnitsService.class);
+		SystemOfUnitsService service = systemOfUnitsService;
+		if (service == null) { // resolved at most once per thread racing here, with the same result
+			service = getService(SystemOfUnitsService.class);
+			systemOfUnitsService = service;
+		}
+		return service;
 	}
 
 	@Override
 	public UnitFormatService getUnitFormatService() {
-		return getService(UnitFormatService.class);
+		UnitFormatService service = unitFormatService;
+		if (service == null) {
+			service = getService(UnitFormatService.class);
+			unitFormatService = service;
+		}
+		return service;
 	}
 
 	 /**
@@ -179,11 +210,6 @@ public class DefaultServiceProvider extends ServiceProvider implements Comparabl
 	  public final <Q extends Quantity<Q>> QuantityFactory<Q> getQuantityFactory(Class<Q> quantity) {
 	    if (quantity == null)
 	      throw new NullPointerException();
-	    if (!QUANTITY_FACTORIES.containsKey(quantity)) {
-	      synchronized (QUANTITY_FACTORIES) {
-	        QUANTITY_FACTORIES.put(quantity, DefaultQuantityFactory.getInstance(quantity));
-	      }
-	    }
-	    return QUANTITY_FACTORIES.get(quantity);
+	    return quantityFactories.get(quantity);
 	  }
 }
\ No newline at end of file
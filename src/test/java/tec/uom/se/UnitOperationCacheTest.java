@@ -0,0 +1,125 @@
+/*
+ * Units of Measurement Implementation for Java SE
+ * Copyright (c) 2005-2017, Jean-Marie Dautelle, Werner Keil, V2COM.
+ *
+ * All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without modification,
+ * are permitted provided that the following conditions are met:
+ *
+ * 1. Redistributions of source code must retain the above copyright notice,
+ *    this list of conditions and the following disclaimer.
+ *
+ * 2. Redistributions in binary form must reproduce the above copyright notice, this list of conditions
+ *    and the following disclaimer in the documentation and/or other materials provided with the distribution.
+ *
+ * 3. Neither the name of JSR-363 nor the names of its contributors may be used to endorse or promote products
+ *    derived from this software without specific prior written permission.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS"
+ * AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO,
+ * THE IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE
+ * ARE DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT HOLDER OR CONTRIBUTORS BE LIABLE
+ * FOR ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES
+ * (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES;
+ * LOSS OF USE, DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED
+ * AND ON ANY THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT
+ * (INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE OF THIS SOFTWARE,
+ * EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ */
+package tec.uom.se;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertNotSame;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+import static tec.uom.se.unit.MetricPrefix.KILO;
+import static tec.uom.se.unit.Units.KILOGRAM;
+import static tec.uom.se.unit.Units.METRE;
+import static tec.uom.se.unit.Units.METRE_PER_SQUARE_SECOND;
+import static tec.uom.se.unit.Units.NEWTON;
+import static tec.uom.se.unit.Units.SECOND;
+
+import javax.measure.Unit;
+
+import org.junit.Test;
+
+import tec.uom.se.unit.ProductUnit;
+
+public class UnitOperationCacheTest {
+
+  @Test
+  public void testEqualResult() {
+    Unit<?> force = KILOGRAM.multiply(METRE_PER_SQUARE_SECOND);
+    Unit<?> again = KILOGRAM.multiply(METRE_PER_SQUARE_SECOND);
+    assertNotSame(force, again);
+    assertEquals(force, again);
+    assertEquals(force.getSymbol(), again.getSymbol());
+    assertEquals(ProductUnit.getProductInstance(KILOGRAM, METRE_PER_SQUARE_SECOND), force);
+    assertEquals(NEWTON.getDimension(), force.getDimension());
+
+    Unit<?> speed = METRE.divide(SECOND);
+    assertEquals(speed, METRE.divide(SECOND));
+    assertEquals(ProductUnit.getQuotientInstance(METRE, SECOND), speed);
+    assertEquals(METRE.multiply(SECOND.inverse()), speed);
+    assertEquals(SECOND.inverse(), AbstractUnit.ONE.divide(SECOND));
+  }
+
+  @Test
+  public void testTransformedOperands() throws Exception {
+    Unit<?> kilometre = KILO(METRE);
+    Unit<?> kilometrePerSecond = kilometre.divide(SECOND);
+    Unit<?> again = kilometre.divide(SECOND);
+    assertNotSame(kilometrePerSecond, again);
+    assertEquals(kilometrePerSecond, again);
+    assertEquals(kilometrePerSecond, KILO(METRE).divide(SECOND));
+    assertEquals(1000, again.getConverterToAny(METRE.divide(SECOND)).convert(1.0), 0);
+  }
+
+  @Test
+  public void testExistingUnitsReturned() {
+    Unit<?> kilometre = KILO(METRE);
+    assertSame(kilometre, kilometre.multiply(AbstractUnit.ONE));
+    assertSame(kilometre, kilometre.multiply(AbstractUnit.ONE));
+    Unit<?> metreSecond = METRE.multiply(SECOND);
+    assertSame(METRE, metreSecond.divide(SECOND));
+    assertSame(METRE, metreSecond.divide(SECOND));
+  }
+
+  @Test
+  public void testRenamingDoesNotAffectOtherCallers() {
+    Unit<?> massFlow = KILOGRAM.divide(SECOND);
+    AbstractUnit<?> first = (AbstractUnit<?>) METRE.multiply(massFlow);
+    assertNotNull(UnitOperationCache.cached(METRE, massFlow, false));
+    AbstractUnit<?> renamed = (AbstractUnit<?>) METRE.multiply(massFlow);
+    renamed.setName("renamed");
+    AbstractUnit<?> again = (AbstractUnit<?>) METRE.multiply(massFlow);
+    assertNull(first.getName());
+    assertNull(again.getName());
+    assertEquals(renamed, again);
+    assertNotSame(first, renamed);
+    assertNotSame(renamed, again);
+  }
+
+  @Test
+  public void testHitAfterGarbageCollection() {
+    Unit<?> area = METRE.multiply(METRE);
+    // only the identity of the cached instance is kept, so that the test does not keep it reachable
+    int cached = System.identityHashCode(UnitOperationCache.cached(METRE, METRE, false));
+    System.gc();
+    assertNotNull(UnitOperationCache.cached(METRE, METRE, false));
+    assertEquals(cached, System.identityHashCode(UnitOperationCache.cached(METRE, METRE, false)));
+    assertEquals(area, METRE.multiply(METRE));
+    assertEquals(cached, System.identityHashCode(UnitOperationCache.cached(METRE, METRE, false)));
+  }
+
+  @Test
+  public void testBounded() {
+    for (int i = 0; i < 2 * UnitOperationCache.MAXIMUM_SIZE; i++) {
+      METRE.multiply(SECOND.multiply(i + 2));
+    }
+    assertTrue(UnitOperationCache.size() <= UnitOperationCache.MAXIMUM_SIZE);
+  }
+}
@@ -34,6 +34,13 @@ import static org.junit.Assert.*;
 import static tec.uom.se.unit.MetricPrefix.*;
 import static tec.uom.se.unit.Units.*;
 
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+import java.util.ResourceBundle;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
 import java.util.logging.Level;
 import java.util.logging.Logger;
 
@@ -119,4 +126,32 @@ public class EBNFFormatTest {
     // System.out.println(u);
   }
 
+  @Test
+  public void testParserReuse() throws Exception {
+    final UnitFormat uncached = EBNFUnitFormat.getInstance(SymbolMap.of(ResourceBundle.getBundle("tec.uom.se.format.messages", Locale.ROOT)));
+    ExecutorService executor = Executors.newFixedThreadPool(4);
+    try {
+      List<Future<?>> futures = new ArrayList<>();
+      for (int t = 0; t < 4; t++) {
+        futures.add(executor.submit(() -> {
+          for (int i = 0; i < 200; i++) {
+            try {
+              uncached.parse("bl//^--1a");
+              fail("Parsed an irregular string");
+            } catch (ParserException | IllegalArgumentException e) {
+              // the parser must recover for the next string
+            }
+            assertEquals(KILO(METRE), uncached.parse("km"));
+            assertEquals(METRE.divide(SECOND), uncached.parse("m/s"));
+          }
+        }));
+      }
+      for (Future<?> future : futures) {
+        future.get();
+      }
+    } finally {
+      executor.shutdown();
+    }
+  }
+
 }
@@ -0,0 +1,135 @@
+/*
+ * Units of Measurement Implementation for Java SE
+ * Copyright (c) 2005-2017, Jean-Marie Dautelle, Werner Keil, V2COM.
+ *
+ * All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without modification,
+ * are permitted provided that the following conditions are met:
+ *
+ * 1. Redistributions of source code must retain the above copyright notice,
+ *    this list of conditions and the following disclaimer.
+ *
+ * 2. Redistributions in binary form must reproduce the above copyright notice, this list of conditions
+ *    and the following disclaimer in the documentation and/or other materials provided with the distribution.
+ *
+ * 3. Neither the name of JSR-363 nor the names of its contributors may be used to endorse or promote products
+ *    derived from this software without specific prior written permission.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS"
+ * AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO,
+ * THE IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE
+ * ARE DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT HOLDER OR CONTRIBUTORS BE LIABLE
+ * FOR ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES
+ * (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES;
+ * LOSS OF USE, DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED
+ * AND ON ANY THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT
+ * (INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE OF THIS SOFTWARE,
+ * EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ */
+package tec.uom.se.format;
+
+import static org.junit.Assert.*;
+
+import static tec.uom.se.unit.MetricPrefix.*;
+import static tec.uom.se.unit.Units.*;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import javax.measure.Unit;
+import javax.measure.format.ParserException;
+
+import org.junit.Test;
+
+public class LabelTableTest {
+
+  private static Unit<?> lookup(LabelTable table, String name) {
+    return table.prefixedUnitFor(name, 0, name.length());
+  }
+
+  @Test
+  public void testSnapshots() {
+    LabelTable empty = LabelTable.EMPTY;
+    LabelTable metre = empty.withLabel(METRE, "m");
+    LabelTable both = metre.withAlias(METRE, "metre").withLabel(SECOND, "s");
+    assertNull(empty.unitFor("m"));
+    assertNull(metre.unitFor("metre"));
+    assertEquals(METRE, both.unitFor("metre"));
+    assertEquals("m", both.nameFor(METRE));
+    assertEquals("s", both.nameFor(SECOND));
+    // older snapshots stay as they were
+    assertNull(metre.nameFor(SECOND));
+    assertEquals(METRE, metre.unitFor("m"));
+  }
+
+  @Test
+  public void testPrefixedLookup() {
+    Unit<?> wattHour = WATT.multiply(HOUR);
+    LabelTable table = LabelTable.EMPTY.withLabel(wattHour, "Wh").withLabel(SECOND, "s").withLabel(LITRE, "l").withLabel(KILOGRAM, "kg")
+        .withLabel(METRE, "m").withAlias(METRE, "metre").withLabel(KILO(METRE), "km").withLabel(DAY, "d");
+    assertEquals(KILO(wattHour), lookup(table, "kWh"));
+    assertEquals(MICRO(SECOND), lookup(table, "µs"));
+    assertEquals(DEKA(LITRE), lookup(table, "dal"));
+    assertEquals(DECI(DAY), lookup(table, "dd"));
+    assertEquals(KILO(METRE), lookup(table, "km"));
+    assertEquals(SECOND, lookup(table, "s"));
+    assertNull(lookup(table, "kmetre")); // aliases take no prefix
+    assertNull(lookup(table, "Mkm")); // nor prefixed units
+    assertNull(lookup(table, "mkg"));
+    assertNull(lookup(table, "k"));
+    assertNull(lookup(table, "kWhx"));
+    assertEquals(KILO(wattHour), table.prefixedUnitFor("[kWh]", 1, 4));
+  }
+
+  @Test
+  public void testFormatParsesPrefixedLabel() {
+    SimpleUnitFormat format = new SimpleUnitFormat.DefaultFormat();
+    Unit<?> wattHour = WATT.multiply(HOUR);
+    format.label(wattHour, "Wh");
+    assertEquals(MEGA(wattHour), format.parse("MWh"));
+    assertEquals("Wh", format.format(wattHour));
+    try {
+      format.parse("Mh");
+      fail("Parsed an unknown unit");
+    } catch (ParserException e) {
+      // expected
+    }
+  }
+
+  @Test
+  public void testConcurrentLabelling() throws Exception {
+    final SimpleUnitFormat format = new SimpleUnitFormat.DefaultFormat();
+    format.label(METRE, "m");
+    ExecutorService executor = Executors.newFixedThreadPool(4);
+    try {
+      List<Future<?>> futures = new ArrayList<>();
+      futures.add(executor.submit(() -> {
+        for (int i = 0; i < 500; i++) {
+          format.label(SECOND.multiply(i + 2), "s" + name(i));
+        }
+      }));
+      for (int t = 0; t < 3; t++) {
+        futures.add(executor.submit(() -> {
+          for (int i = 0; i < 2000; i++) {
+            assertEquals(KILO(METRE), format.parse("km"));
+            assertEquals("m", format.format(METRE));
+          }
+        }));
+      }
+      for (Future<?> future : futures) {
+        future.get();
+      }
+    } finally {
+      executor.shutdown();
+    }
+    assertEquals(SECOND.multiply(501), format.parse("s" + name(499)));
+  }
+
+  private static String name(int i) {
+    return i < 26 ? String.valueOf((char) ('a' + i)) : name(i / 26 - 1) + (char) ('a' + i % 26);
+  }
+}
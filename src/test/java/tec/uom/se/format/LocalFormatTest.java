@@ -32,10 +32,14 @@ package tec.uom.se.format;
 import org.junit.Ignore;
 import org.junit.Test;
 
+import java.util.Locale;
+
 import javax.measure.Unit;
 import javax.measure.format.UnitFormat;
 
 import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotSame;
+import static org.junit.Assert.assertSame;
 import static tec.uom.se.unit.MetricPrefix.KILO;
 import static tec.uom.se.unit.MetricPrefix.MILLI;
 import static tec.uom.se.unit.Units.METRE;
@@ -56,6 +60,14 @@ public class LocalFormatTest {
     assertEquals("km", u.toString());
   }
 
+  @Test
+  public void testInstancePerLocale() {
+    final LocalUnitFormat format = LocalUnitFormat.getInstance(Locale.GERMAN);
+    assertSame(format, LocalUnitFormat.getInstance(Locale.GERMAN));
+    assertNotSame(format, LocalUnitFormat.getInstance(Locale.ENGLISH));
+    assertEquals("km", format.format(KILO(METRE)));
+  }
+
   @Test
   public void testFormatKm() {
     final UnitFormat format = LocalUnitFormat.getInstance();
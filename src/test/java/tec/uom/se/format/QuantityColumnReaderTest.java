@@ -0,0 +1,186 @@
+/*
+ * Units of Measurement Implementation for Java SE
+ * Copyright (c) 2005-2017, Jean-Marie Dautelle, Werner Keil, V2COM.
+ *
+ * All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without modification,
+ * are permitted provided that the following conditions are met:
+ *
+ * 1. Redistributions of source code must retain the above copyright notice,
+ *    this list of conditions and the following disclaimer.
+ *
+ * 2. Redistributions in binary form must reproduce the above copyright notice, this list of conditions
+ *    and the following disclaimer in the documentation and/or other materials provided with the distribution.
+ *
+ * 3. Neither the name of JSR-363 nor the names of its contributors may be used to endorse or promote products
+ *    derived from this software without specific prior written permission.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS"
+ * AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO,
+ * THE IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE
+ * ARE DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT HOLDER OR CONTRIBUTORS BE LIABLE
+ * FOR ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES
+ * (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES;
+ * LOSS OF USE, DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED
+ * AND ON ANY THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT
+ * (INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE OF THIS SOFTWARE,
+ * EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ */
+package tec.uom.se.format;
+
+import static org.junit.Assert.*;
+
+import static tec.uom.se.unit.MetricPrefix.*;
+import static tec.uom.se.unit.Units.*;
+
+import java.io.ByteArrayInputStream;
+import java.io.FilterReader;
+import java.io.IOException;
+import java.io.Reader;
+import java.io.StringReader;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.ForkJoinTask;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import javax.measure.format.ParserException;
+
+import org.junit.Test;
+
+import tec.uom.se.quantity.Quantities;
+
+public class QuantityColumnReaderTest {
+
+  private final QuantityColumnReader reader = QuantityColumnReader.getInstance();
+
+  @Test
+  public void testReadLines() throws IOException {
+    QuantityColumn column = reader.read(new StringReader("1 m\n2.5 m\r\n\n  \n3 km\n4 m"));
+    assertEquals(4, column.size());
+    assertArrayEquals(new double[] { 1, 2.5, 3, 4 }, column.getValues(), 0d);
+    assertEquals(Arrays.asList(METRE, KILO(METRE)), column.getUnits());
+    assertEquals(3, column.getRunCount());
+    assertEquals(0, column.getRunStart(0));
+    assertEquals(2, column.getRunEnd(0));
+    assertEquals(KILO(METRE), column.getRunUnit(1));
+    assertEquals(METRE, column.getRunUnit(2));
+    assertEquals(0, column.getUnitId(3));
+    assertEquals(KILO(METRE), column.getUnit(2));
+    assertEquals(Quantities.getQuantity(2.5d, METRE), column.getQuantity(1));
+  }
+
+  @Test
+  public void testReadCsvColumn() throws IOException {
+    String csv = "time,power,site\n0,12.5 kW,a\n1,13 kW,b\n2,0.5 MW,c\n";
+    QuantityColumn column = reader.withColumn(1, ',').withSkippedLines(1).read(new StringReader(csv));
+    assertArrayEquals(new double[] { 12.5, 13, 0.5 }, column.getValues(), 0d);
+    assertEquals(KILO(WATT), column.getUnit(1));
+    assertEquals(MEGA(WATT), column.getUnit(2));
+    QuantityColumn last = reader.withColumn(2, ';').read(ByteBuffer.wrap("a;b;3 s\nc;d;4 s".getBytes(StandardCharsets.US_ASCII)));
+    assertArrayEquals(new double[] { 3, 4 }, last.getValues(), 0d);
+    assertEquals(1, last.getRunCount());
+  }
+
+  @Test
+  public void testReadInputStreamUtf8() throws IOException {
+    QuantityColumn column = reader.read(new ByteArrayInputStream("20 °C\n21 °C\n".getBytes(StandardCharsets.UTF_8)));
+    assertEquals(2, column.size());
+    assertEquals(CELSIUS, column.getUnit(0));
+  }
+
+  @Test
+  public void testByteBufferPositionUnchanged() {
+    ByteBuffer buffer = ByteBuffer.wrap("header\n1 s\n2 s\n".getBytes(StandardCharsets.US_ASCII));
+    buffer.position(7);
+    QuantityColumn column = reader.read(buffer);
+    assertArrayEquals(new double[] { 1, 2 }, column.getValues(), 0d);
+    assertEquals(7, buffer.position());
+    buffer.position(0);
+    assertEquals(2, reader.withSkippedLines(1).read(buffer).size());
+  }
+
+  @Test
+  public void testParallelMatchesSequential() throws IOException {
+    StringBuilder sb = new StringBuilder();
+    for (int i = 0; sb.length() < 3 * QuantityColumnReader.CHUNK_SIZE; i++) {
+      sb.append(i).append(i % 1000 < 500 ? " m" : " km").append('\n');
+    }
+    String text = sb.toString();
+    QuantityColumn sequential = reader.read(new StringReader(text));
+    ForkJoinPool pool = new ForkJoinPool(4);
+    try {
+      QuantityColumn fromReader = reader.read(new StringReader(text), pool);
+      QuantityColumn fromBuffer = reader.read(ByteBuffer.wrap(text.getBytes(StandardCharsets.US_ASCII)), pool);
+      for (QuantityColumn column : Arrays.asList(fromReader, fromBuffer)) {
+        assertEquals(sequential.size(), column.size());
+        assertArrayEquals(sequential.getValues(), column.getValues(), 0d);
+        assertEquals(sequential.getRunCount(), column.getRunCount());
+        for (int run = 0; run < column.getRunCount(); run++) {
+          assertEquals(sequential.getRunStart(run), column.getRunStart(run));
+          assertEquals(sequential.getRunUnit(run), column.getRunUnit(run));
+        }
+      }
+    } finally {
+      pool.shutdown();
+    }
+    assertEquals(2, sequential.getUnits().size());
+    assertEquals(999d, sequential.getValue(999), 0d);
+    assertEquals(KILO(METRE), sequential.getUnit(999));
+  }
+
+  @Test
+  public void testShortReadsFillChunks() throws IOException {
+    StringBuilder sb = new StringBuilder();
+    for (int i = 0; sb.length() < 3 * QuantityColumnReader.CHUNK_SIZE; i++) {
+      sb.append(i).append(" s\n");
+    }
+    String text = sb.toString();
+    final AtomicInteger chunks = new AtomicInteger();
+    ForkJoinPool pool = new ForkJoinPool(2) {
+      @Override
+      public <T> ForkJoinTask<T> submit(Callable<T> task) {
+        chunks.incrementAndGet();
+        return super.submit(task);
+      }
+    };
+    try {
+      // like an InputStreamReader, returns at most 8K characters per call
+      Reader shortReads = new FilterReader(new StringReader(text)) {
+        @Override
+        public int read(char[] cbuf, int off, int len) throws IOException {
+          return super.read(cbuf, off, Math.min(len, 8192));
+        }
+      };
+      QuantityColumn column = reader.read(shortReads, pool);
+      assertEquals(reader.read(new StringReader(text)).size(), column.size());
+      assertEquals(text.length() / QuantityColumnReader.CHUNK_SIZE + 1, chunks.get());
+    } finally {
+      pool.shutdown();
+    }
+  }
+
+  @Test
+  public void testInvalidField() throws IOException {
+    try {
+      reader.read(new StringReader("1 m\nx m\n"));
+      fail("Parsed an invalid line");
+    } catch (ParserException e) {
+      assertTrue(e.getMessage(), e.getMessage().startsWith("Invalid quantity at offset 4"));
+      assertEquals("x m", e.getParsedString());
+    }
+  }
+
+  @Test(expected = ParserException.class)
+  public void testMissingColumn() throws IOException {
+    reader.withColumn(3, ',').read(new StringReader("1,2 m\n"));
+  }
+
+  @Test(expected = IndexOutOfBoundsException.class)
+  public void testIndexOutOfBounds() throws IOException {
+    reader.read(new StringReader("1 m")).getValue(1);
+  }
+}
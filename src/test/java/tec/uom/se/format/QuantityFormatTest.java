@@ -35,6 +35,13 @@ import static tec.uom.se.unit.MetricPrefix.MEGA;
 import static tec.uom.se.unit.Units.*;
 
 import java.math.BigDecimal;
+import java.text.NumberFormat;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
 
 import javax.measure.Quantity;
 import javax.measure.Unit;
@@ -112,4 +119,40 @@ public class QuantityFormatTest {
       fail(e.getMessage());
     }
   }
+
+  @Test
+  public void testSharedNumberFormat() throws Exception {
+    final NumberFormat numbers = NumberFormat.getInstance(Locale.ENGLISH);
+    final QuantityFormat shared = QuantityFormat.getInstance(numbers, SimpleUnitFormat.getInstance());
+    numbers.setMaximumFractionDigits(0); // must not affect the shared format
+    final List<Quantity<?>> quantities = new ArrayList<>();
+    final List<String> expected = new ArrayList<>();
+    for (int i = 0; i < 100; i++) {
+      Quantity<?> quantity = i % 2 == 0 ? Quantities.getQuantity(i + i / 8.0, METRE) : Quantities.getQuantity(i + i / 8.0, KILOGRAM);
+      quantities.add(quantity);
+      expected.add(shared.format(quantity));
+    }
+    assertEquals("1.125 kg", expected.get(1));
+    ExecutorService executor = Executors.newFixedThreadPool(4);
+    try {
+      List<Future<?>> futures = new ArrayList<>();
+      for (int t = 0; t < 4; t++) {
+        final int offset = t;
+        futures.add(executor.submit(() -> {
+          for (int n = 0; n < 50; n++) {
+            for (int i = 0; i < quantities.size(); i++) {
+              int k = (i + offset * 25) % quantities.size();
+              assertEquals(expected.get(k), shared.format(quantities.get(k)));
+            }
+            assertEquals(KILOGRAM, shared.parse("12 kg").getUnit());
+          }
+        }));
+      }
+      for (Future<?> future : futures) {
+        future.get();
+      }
+    } finally {
+      executor.shutdown();
+    }
+  }
 }
@@ -0,0 +1,106 @@
+/*
+ * Units of Measurement Implementation for Java SE
+ * Copyright (c) 2005-2017, Jean-Marie Dautelle, Werner Keil, V2COM.
+ *
+ * All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without modification,
+ * are permitted provided that the following conditions are met:
+ *
+ * 1. Redistributions of source code must retain the above copyright notice,
+ *    this list of conditions and the following disclaimer.
+ *
+ * 2. Redistributions in binary form must reproduce the above copyright notice, this list of conditions
+ *    and the following disclaimer in the documentation and/or other materials provided with the distribution.
+ *
+ * 3. Neither the name of JSR-363 nor the names of its contributors may be used to endorse or promote products
+ *    derived from this software without specific prior written permission.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS"
+ * AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO,
+ * THE IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE
+ * ARE DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT HOLDER OR CONTRIBUTORS BE LIABLE
+ * FOR ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES
+ * (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES;
+ * LOSS OF USE, DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED
+ * AND ON ANY THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT
+ * (INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE OF THIS SOFTWARE,
+ * EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ */
+package tec.uom.se.format;
+
+import static org.junit.Assert.*;
+
+import static tec.uom.se.unit.MetricPrefix.*;
+import static tec.uom.se.unit.Units.*;
+
+import java.io.IOException;
+import java.math.BigDecimal;
+import java.nio.CharBuffer;
+import java.util.Random;
+
+import org.junit.Test;
+
+import tec.uom.se.AbstractUnit;
+import tec.uom.se.quantity.Quantities;
+
+public class QuantityPrinterTest {
+
+  private final QuantityPrinter printer = QuantityPrinter.getInstance();
+
+  private static String print(double value) throws IOException {
+    return QuantityPrinter.printValue(value, new StringBuilder()).toString();
+  }
+
+  @Test
+  public void testPrintQuantity() {
+    assertEquals("12.5 kW", printer.print(Quantities.getQuantity(12.5d, KILO(WATT)), new StringBuilder()).toString());
+    assertEquals("-42 m", printer.print(Quantities.getQuantity(-42, METRE), new StringBuilder()).toString());
+    assertEquals("3", printer.print(Quantities.getQuantity(3L, AbstractUnit.ONE), new StringBuilder()).toString());
+    assertEquals("1.50 s", printer.print(Quantities.getQuantity(new BigDecimal("1.50"), SECOND), new StringBuilder()).toString());
+    assertEquals("x=0.25 m/s", printer.print(0.25, METRE.divide(SECOND), new StringBuilder("x=")).toString());
+  }
+
+  @Test
+  public void testPrintToCharBuffer() throws IOException {
+    CharBuffer buffer = CharBuffer.allocate(32);
+    printer.print(1e-5, GRAM, buffer);
+    buffer.flip();
+    assertEquals("1.0E-5 g", buffer.toString());
+  }
+
+  @Test
+  public void testPrintLikeDoubleToString() throws IOException {
+    double[] values = { 0, -0d, 1, 12, -2.5, 0.1, 0.3, 123.456, 1e-3, 9.99e-4, 1e6, 9999999, 1e7, 1.5e10, 1e22, 5e-324, Double.MAX_VALUE,
+        Double.NaN, Double.POSITIVE_INFINITY, Double.NEGATIVE_INFINITY, 0.1 + 0.2 };
+    for (double value : values) {
+      assertEquals(Double.toString(value), print(value));
+    }
+  }
+
+  @Test
+  public void testShortestRoundTrip() throws IOException {
+    Random random = new Random(42);
+    for (int i = 0; i < 100000; i++) {
+      double value = Double.longBitsToDouble(random.nextLong());
+      if (Double.isNaN(value))
+        continue;
+      String printed = print(value);
+      assertEquals(printed, value, Double.parseDouble(printed), 0d);
+      assertTrue(printed, printed.length() <= Double.toString(value).length());
+    }
+  }
+
+  @Test
+  public void testPrintLong() throws IOException {
+    assertEquals("0", QuantityPrinter.printValue(0L, new StringBuilder()).toString());
+    assertEquals(String.valueOf(Long.MAX_VALUE), QuantityPrinter.printValue(Long.MAX_VALUE, new StringBuilder()).toString());
+    assertEquals(String.valueOf(Long.MIN_VALUE), QuantityPrinter.printValue(Long.MIN_VALUE, new StringBuilder()).toString());
+  }
+
+  @Test
+  public void testQuantityFormatUsesPrinter() {
+    assertEquals("12.5 kW", QuantityFormat.getInstance().format(Quantities.getQuantity(12.5d, KILO(WATT))));
+    assertEquals("kW", SimpleUnitFormat.getInstance().format(KILO(WATT), new StringBuffer(), null).toString());
+  }
+}
@@ -0,0 +1,138 @@
+/*
+ * Units of Measurement Implementation for Java SE
+ * Copyright (c) 2005-2017, Jean-Marie Dautelle, Werner Keil, V2COM.
+ *
+ * All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without modification,
+ * are permitted provided that the following conditions are met:
+ *
+ * 1. Redistributions of source code must retain the above copyright notice,
+ *    this list of conditions and the following disclaimer.
+ *
+ * 2. Redistributions in binary form must reproduce the above copyright notice, this list of conditions
+ *    and the following disclaimer in the documentation and/or other materials provided with the distribution.
+ *
+ * 3. Neither the name of JSR-363 nor the names of its contributors may be used to endorse or promote products
+ *    derived from this software without specific prior written permission.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS"
+ * AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO,
+ * THE IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE
+ * ARE DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT HOLDER OR CONTRIBUTORS BE LIABLE
+ * FOR ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES
+ * (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES;
+ * LOSS OF USE, DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED
+ * AND ON ANY THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT
+ * (INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE OF THIS SOFTWARE,
+ * EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ */
+package tec.uom.se.format;
+
+import static org.junit.Assert.*;
+
+import static tec.uom.se.unit.MetricPrefix.*;
+import static tec.uom.se.unit.Units.*;
+
+import java.nio.ByteBuffer;
+import java.nio.CharBuffer;
+import java.nio.charset.StandardCharsets;
+import java.util.Random;
+
+import javax.measure.format.ParserException;
+
+import org.junit.Test;
+
+import tec.uom.se.AbstractUnit;
+import tec.uom.se.quantity.Quantities;
+
+public class QuantityScannerTest {
+
+  private final QuantityScanner scanner = QuantityScanner.getInstance();
+
+  @Test
+  public void testParseDecimal() {
+    QuantityScanner.Result result = scanner.parse("12.5 kW", new QuantityScanner.Result());
+    assertEquals(12.5d, result.getValue(), 0d);
+    assertFalse(result.isInteger());
+    assertEquals(KILO(WATT), result.getUnit());
+    assertEquals(Quantities.getQuantity(12.5d, KILO(WATT)), result.toQuantity());
+  }
+
+  @Test
+  public void testParseInteger() {
+    QuantityScanner.Result result = scanner.parse("  -42m ", new QuantityScanner.Result());
+    assertTrue(result.isInteger());
+    assertEquals(-42L, result.getLongValue());
+    assertEquals(METRE, result.getUnit());
+    assertEquals(7, result.getIndex());
+  }
+
+  @Test
+  public void testParseExponent() {
+    QuantityScanner.Result result = new QuantityScanner.Result();
+    assertEquals(1500d, scanner.parse("1.5e3 s", result).getValue(), 0d);
+    assertEquals(2.5e-7d, scanner.parse("2.5E-7 s", result).getValue(), 0d);
+    assertEquals(0.005d, scanner.parse("0.005 s", result).getValue(), 0d);
+  }
+
+  @Test
+  public void testParseWithoutUnit() {
+    assertEquals(AbstractUnit.ONE, scanner.parse("3", new QuantityScanner.Result()).getUnit());
+  }
+
+  @Test
+  public void testParseRegion() {
+    String line = "meter-1;230.5 V;50 Hz";
+    QuantityScanner.Result result = scanner.parse(line, 8, 15, new QuantityScanner.Result());
+    assertEquals(230.5d, result.getValue(), 0d);
+    assertEquals(VOLT, result.getUnit());
+    scanner.parse(line, 16, line.length(), result);
+    assertEquals(50L, result.getLongValue());
+    assertEquals(HERTZ, result.getUnit());
+  }
+
+  @Test
+  public void testParseBuffers() {
+    QuantityScanner.Result result = new QuantityScanner.Result();
+    scanner.parse(CharBuffer.wrap("7.25 km"), result);
+    assertEquals(7.25d, result.getValue(), 0d);
+    assertEquals(KILO(METRE), result.getUnit());
+    ByteBuffer bytes = ByteBuffer.wrap("x 9 ms".getBytes(StandardCharsets.US_ASCII));
+    bytes.position(2);
+    scanner.parse(bytes, result);
+    assertEquals(9L, result.getLongValue());
+    assertEquals(MILLI(SECOND), result.getUnit());
+    assertEquals(2, bytes.position());
+  }
+
+  @Test
+  public void testMatchesDoubleParsing() {
+    Random random = new Random(42);
+    QuantityScanner.Result result = new QuantityScanner.Result();
+    for (int i = 0; i < 10000; i++) {
+      double expected = Double.longBitsToDouble(random.nextLong());
+      if (Double.isNaN(expected) || Double.isInfinite(expected)) {
+        continue;
+      }
+      String text = i % 2 == 0 ? Double.toString(expected) : String.valueOf(random.nextInt(1000000) / 1000d);
+      assertEquals(text, Double.parseDouble(text), scanner.parse(text + " m", result).getValue(), 0d);
+    }
+  }
+
+  @Test(expected = ParserException.class)
+  public void testParseNoNumber() {
+    scanner.parse("kW", new QuantityScanner.Result());
+  }
+
+  @Test
+  public void testLabelChangeResolvesAgain() {
+    SimpleUnitFormat format = new SimpleUnitFormat.DefaultFormat();
+    format.label(METRE, "u");
+    QuantityScanner custom = QuantityScanner.getInstance(format);
+    QuantityScanner.Result result = new QuantityScanner.Result();
+    assertEquals(METRE, custom.parse("1 u", result).getUnit());
+    format.label(SECOND, "u");
+    assertEquals(SECOND, custom.parse("1 u", result).getUnit());
+  }
+}
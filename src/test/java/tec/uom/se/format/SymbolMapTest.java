@@ -30,12 +30,17 @@
 package tec.uom.se.format;
 
 import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
 
+import java.util.ListResourceBundle;
 import java.util.Locale;
 import java.util.ResourceBundle;
+import java.util.ResourceBundle.Control;
 
 import javax.measure.Unit;
 
+import org.junit.Assume;
 import org.junit.Test;
 
 import tec.uom.se.format.EBNFUnitFormat;
@@ -75,6 +80,93 @@ public class SymbolMapTest {
     assertEquals(MetricPrefix.DEKA, symbols.getPrefix("dag"));
   }
 
+  /**
+   * Test that maps created from the same bundle share its mappings but keep their own labels.
+   */
+  @Test
+  public void testLabelCopyOnWrite() {
+    ResourceBundle bundle = ResourceBundle.getBundle(BUNDLE_NAME, Locale.ROOT);
+    SymbolMap first = SymbolMap.of(bundle);
+    SymbolMap second = SymbolMap.of(bundle);
+    assertEquals(Units.METRE, second.getUnit("m"));
+    int version = first.getVersion();
+    first.label(Units.METRE, "metre");
+    first.alias(Units.SECOND, "sec");
+    assertEquals(version + 2, first.getVersion());
+    assertEquals("metre", first.getSymbol(Units.METRE));
+    assertEquals(Units.SECOND, first.getUnit("sec"));
+    assertEquals("m", second.getSymbol(Units.METRE));
+    assertNull(second.getUnit("sec"));
+    assertNull(SymbolMap.of(bundle).getUnit("sec"));
+  }
+
+  /**
+   * Test that bundles other than the ones of this library are read at runtime.
+   */
+  @Test
+  public void testUserBundle() {
+    SymbolMap symbols = SymbolMap.of(new ListResourceBundle() {
+      @Override
+      protected Object[][] getContents() {
+        return new Object[][] { { "tec.uom.se.unit.Units.METRE", "meter" }, { "tec.uom.se.unit.Units.METRE.1", "metre" },
+            { "tec.uom.se.unit.MetricPrefix.KILO", "k" } };
+      }
+    });
+    assertEquals("meter", symbols.getSymbol(Units.METRE));
+    assertEquals(Units.METRE, symbols.getUnit("metre"));
+    assertEquals(MetricPrefix.KILO, symbols.getPrefix("kmeter"));
+    assertNull(symbols.getUnit("m"));
+  }
+
+  /**
+   * Test that only the bundles of this library are cached, so that user bundles are not kept reachable.
+   */
+  @Test
+  public void testUserBundleNotCached() {
+    SymbolMap.of(ResourceBundle.getBundle(BUNDLE_NAME, Locale.ROOT));
+    int cached = SymbolMap.cachedTables();
+    for (int i = 0; i < 3; i++) {
+      SymbolMap symbols = SymbolMap.of(new ListResourceBundle() {
+        @Override
+        protected Object[][] getContents() {
+          return new Object[][] { { "tec.uom.se.unit.Units.METRE", "meter" } };
+        }
+      });
+      assertEquals("meter", symbols.getSymbol(Units.METRE));
+    }
+    SymbolMap.of(ResourceBundle.getBundle(BUNDLE_NAME, Locale.ROOT));
+    assertEquals(cached, SymbolMap.cachedTables());
+  }
+
+  /**
+   * Test that the tables generated at build time hold the same mappings as the fields named by each bundle of this library.
+   */
+  @Test
+  public void testGeneratedTablesMatchBundles() throws Exception {
+    SymbolMap.TableSource generated;
+    try {
+      generated = (SymbolMap.TableSource) Class.forName(SymbolMap.GENERATED_TABLES_CLASS).getDeclaredConstructor().newInstance();
+    } catch (ClassNotFoundException e) {
+      Assume.assumeNoException("The symbol tables were not generated by this build", e);
+      return;
+    }
+    for (Locale locale : new Locale[] { Locale.ROOT, new Locale("cn"), Locale.GERMAN, Locale.ENGLISH, Locale.UK, Locale.US, Locale.FRENCH,
+        Locale.CANADA_FRENCH, Locale.JAPANESE, new Locale("pt"), new Locale("ru") }) {
+      ResourceBundle bundle = ResourceBundle.getBundle(BUNDLE_NAME, locale, Control.getNoFallbackControl(Control.FORMAT_PROPERTIES));
+      assertEquals(locale, bundle.getLocale());
+      SymbolMap.Builder fromFields = new SymbolMap.Builder();
+      SymbolMap.readFields(bundle, fromFields);
+      SymbolMap.Builder fromTables = new SymbolMap.Builder();
+      assertTrue(generated.fill(BUNDLE_NAME, locale, fromTables));
+      String message = "Locale '" + locale + "'";
+      assertEquals(message, fromFields.symbolToUnit.entrySet(), fromTables.symbolToUnit.entrySet());
+      assertEquals(message, fromFields.unitToSymbol.entrySet(), fromTables.unitToSymbol.entrySet());
+      assertEquals(message, fromFields.symbolToPrefix.entrySet(), fromTables.symbolToPrefix.entrySet());
+      assertEquals(message, fromFields.prefixToSymbol.entrySet(), fromTables.prefixToSymbol.entrySet());
+      assertEquals(message, fromFields.converterToPrefix.entrySet(), fromTables.converterToPrefix.entrySet());
+    }
+  }
+
   /**
    * Test if parsing 'dag' equals DEKA(GRAM)
    */
@@ -0,0 +1,188 @@
+/*
+ * Units of Measurement Implementation for Java SE
+ * Copyright (c) 2005-2017, Jean-Marie Dautelle, Werner Keil, V2COM.
+ *
+ * All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without modification,
+ * are permitted provided that the following conditions are met:
+ *
+ * 1. Redistributions of source code must retain the above copyright notice,
+ *    this list of conditions and the following disclaimer.
+ *
+ * 2. Redistributions in binary form must reproduce the above copyright notice, this list of conditions
+ *    and the following disclaimer in the documentation and/or other materials provided with the distribution.
+ *
+ * 3. Neither the name of JSR-363 nor the names of its contributors may be used to endorse or promote products
+ *    derived from this software without specific prior written permission.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS"
+ * AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO,
+ * THE IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE
+ * ARE DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT HOLDER OR CONTRIBUTORS BE LIABLE
+ * FOR ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES
+ * (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES;
+ * LOSS OF USE, DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED
+ * AND ON ANY THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT
+ * (INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE OF THIS SOFTWARE,
+ * EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ */
+package tec.uom.se.format;
+
+import static org.junit.Assert.*;
+
+import static tec.uom.se.unit.MetricPrefix.*;
+import static tec.uom.se.unit.Units.*;
+
+import java.util.HashSet;
+import java.util.Locale;
+import java.util.ResourceBundle;
+
+import javax.measure.Unit;
+import javax.measure.format.ParserException;
+
+import org.junit.Test;
+
+import tec.uom.se.AbstractSystemOfUnits;
+import tec.uom.se.AbstractUnit;
+
+public class UnitFormatCacheTest {
+
+  @Test
+  public void testDefaultInstancesCache() {
+    for (AbstractUnitFormat format : new AbstractUnitFormat[] { SimpleUnitFormat.getInstance(), EBNFUnitFormat.getInstance() }) {
+      long hits = format.getParseCacheHitCount();
+      Unit<?> unit = format.parse("m");
+      assertEquals(METRE, unit);
+      assertEquals(unit, format.parse("m"));
+      assertTrue(format.getParseCacheHitCount() > hits);
+    }
+  }
+
+  @Test
+  public void testRenamingDoesNotAffectOtherCallers() {
+    for (AbstractUnitFormat format : new AbstractUnitFormat[] { SimpleUnitFormat.getInstance(), EBNFUnitFormat.getInstance() }) {
+      for (String symbol : new String[] { "m/s", "m·s", "km/s" }) {
+        Unit<?> first = format.parse(symbol);
+        Unit<?> renamed = format.parse(symbol);
+        assertNotSame(first, renamed);
+        Renamer.rename(renamed, "renamed");
+        Unit<?> again = format.parse(symbol);
+        assertNull(((AbstractUnit<?>) first).getName());
+        assertNull(((AbstractUnit<?>) again).getName());
+        assertEquals(renamed, again);
+      }
+    }
+  }
+
+  @Test
+  public void testExistingUnitsReturned() {
+    AbstractUnitFormat format = SimpleUnitFormat.getInstance();
+    format.parse("N");
+    assertSame(NEWTON, format.parse("N"));
+  }
+
+  @Test
+  public void testCacheDisabled() {
+    AbstractUnitFormat format = EBNFUnitFormat.getInstance(SymbolMap.of(ResourceBundle.getBundle("tec.uom.se.format.messages", Locale.ROOT)));
+    assertEquals(KILO(METRE), format.parse("km"));
+    assertEquals(KILO(METRE), format.parse("km"));
+    assertEquals(0L, format.getParseCacheHitCount());
+    assertEquals(0L, format.getParseCacheMissCount());
+  }
+
+  @Test
+  public void testHitsAndMisses() {
+    AbstractUnitFormat format = EBNFUnitFormat.getInstance(SymbolMap.of(ResourceBundle.getBundle("tec.uom.se.format.messages", Locale.ROOT)));
+    format.setParseCacheSize(2);
+    format.parse("m");
+    format.parse("m");
+    format.parse("s");
+    format.parse("kg");
+    format.parse("kg");
+    assertEquals(2L, format.getParseCacheHitCount());
+    assertEquals(3L, format.getParseCacheMissCount());
+  }
+
+  @Test
+  public void testLabelInvalidates() {
+    SimpleUnitFormat format = new SimpleUnitFormat.DefaultFormat();
+    format.setParseCacheSize(16);
+    format.label(METRE, "m");
+    format.label(SECOND, "s");
+    format.label(SECOND, "sec");
+    assertEquals(SECOND, format.parse("sec"));
+    assertEquals(SECOND, format.parse("sec"));
+    format.alias(METRE, "sec");
+    assertEquals(METRE, format.parse("sec"));
+  }
+
+  @Test
+  public void testSymbolMapChangeInvalidates() {
+    SymbolMap symbols = SymbolMap.of(ResourceBundle.getBundle("tec.uom.se.format.messages", Locale.ROOT));
+    AbstractUnitFormat format = EBNFUnitFormat.getInstance(symbols);
+    format.setParseCacheSize(16);
+    assertEquals(METRE, format.parse("m"));
+    symbols.alias(SECOND, "m");
+    assertEquals(SECOND, format.parse("m"));
+  }
+
+  @Test(expected = ParserException.class)
+  public void testFailuresNotCached() {
+    AbstractUnitFormat format = EBNFUnitFormat.getInstance();
+    try {
+      format.parse("m/");
+    } catch (ParserException e) {
+      // expected once
+    }
+    format.parse("m/");
+  }
+
+  @Test
+  public void testFormatCache() {
+    AbstractUnitFormat format = SimpleUnitFormat.getInstance();
+    long hits = format.getFormatCacheHitCount();
+    assertEquals("km/h", format.format(KILO(METRE).divide(HOUR)));
+    assertEquals("km/h", format.format(KILO(METRE).divide(HOUR)));
+    assertEquals("m·kg/s²", KILOGRAM.multiply(METRE).divide(SECOND.pow(2)).toString());
+    assertTrue(format.getFormatCacheHitCount() > hits);
+  }
+
+  @Test
+  public void testFormatLabelInvalidates() {
+    SimpleUnitFormat format = new SimpleUnitFormat.DefaultFormat();
+    format.setFormatCacheSize(16);
+    assertEquals("m", format.format(METRE));
+    assertEquals("m", format.format(METRE));
+    assertEquals(1L, format.getFormatCacheHitCount());
+    assertEquals(1L, format.getFormatCacheMissCount());
+    format.label(METRE, "metre");
+    assertEquals("metre", format.format(METRE));
+  }
+
+  @Test
+  public void testFormatSymbolMapChangeInvalidates() {
+    SymbolMap symbols = SymbolMap.of(ResourceBundle.getBundle("tec.uom.se.format.messages", Locale.ROOT));
+    AbstractUnitFormat format = EBNFUnitFormat.getInstance(symbols);
+    format.setFormatCacheSize(16);
+    assertEquals("s", format.format(SECOND));
+    symbols.label(SECOND, "sec");
+    assertEquals("sec", format.format(SECOND));
+  }
+
+  @Test(expected = IllegalArgumentException.class)
+  public void testNegativeSize() {
+    EBNFUnitFormat.getInstance().setParseCacheSize(-1);
+  }
+
+  private static final class Renamer extends AbstractSystemOfUnits {
+    @Override
+    public String getName() {
+      return "Renamer";
+    }
+
+    static void rename(Unit<?> unit, String name) {
+      Helper.addUnit(new HashSet<Unit<?>>(), unit, name);
+    }
+  }
+}
@@ -0,0 +1,136 @@
+/*
+ * Units of Measurement Implementation for Java SE
+ * Copyright (c) 2005-2017, Jean-Marie Dautelle, Werner Keil, V2COM.
+ *
+ * All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without modification,
+ * are permitted provided that the following conditions are met:
+ *
+ * 1. Redistributions of source code must retain the above copyright notice,
+ *    this list of conditions and the following disclaimer.
+ *
+ * 2. Redistributions in binary form must reproduce the above copyright notice, this list of conditions
+ *    and the following disclaimer in the documentation and/or other materials provided with the distribution.
+ *
+ * 3. Neither the name of JSR-363 nor the names of its contributors may be used to endorse or promote products
+ *    derived from this software without specific prior written permission.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS"
+ * AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO,
+ * THE IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE
+ * ARE DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT HOLDER OR CONTRIBUTORS BE LIABLE
+ * FOR ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES
+ * (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES;
+ * LOSS OF USE, DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED
+ * AND ON ANY THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT
+ * (INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE OF THIS SOFTWARE,
+ * EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ */
+package tec.uom.se.function;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.Random;
+import java.util.stream.Collectors;
+import java.util.stream.IntStream;
+
+import javax.measure.Quantity;
+import javax.measure.quantity.Energy;
+
+import org.junit.Assert;
+import org.junit.Test;
+
+import tec.uom.se.quantity.Quantities;
+import tec.uom.se.quantity.time.TimedData;
+import tec.uom.se.unit.MetricPrefix;
+import tec.uom.se.unit.Units;
+
+public class BoundedQuantityHeapTest {
+
+  private static double[] values(List<Quantity<Energy>> quantities) {
+    return quantities.stream().mapToDouble(q -> q.getValue().doubleValue()).toArray();
+  }
+
+  @Test(expected = IllegalArgumentException.class)
+  public void shouldErrorWhenCapacityIsInvalid() {
+    BoundedQuantityHeap.largest(0, Units.JOULE);
+  }
+
+  @Test
+  public void largestTest() {
+    BoundedQuantityHeap<Quantity<Energy>> heap = BoundedQuantityHeap.largest(2, Units.JOULE);
+    heap.accept(Quantities.getQuantity(500, Units.JOULE));
+    heap.accept(Quantities.getQuantity(1, MetricPrefix.KILO(Units.JOULE)));
+    heap.accept(Quantities.getQuantity(700, Units.JOULE));
+    heap.accept(Quantities.getQuantity(100, Units.JOULE));
+    Assert.assertEquals(2, heap.size());
+    Assert.assertArrayEquals(new double[] { 1, 700 }, values(heap.toList()), 0d);
+    Assert.assertEquals(MetricPrefix.KILO(Units.JOULE), heap.toList().get(0).getUnit());
+  }
+
+  @Test
+  public void smallestTest() {
+    BoundedQuantityHeap<Quantity<Energy>> heap = BoundedQuantityHeap.smallest(3, Units.JOULE);
+    for (int value : new int[] { 9, 3, 7, 1, 5 }) {
+      heap.accept(Quantities.getQuantity(value, Units.JOULE));
+    }
+    Assert.assertArrayEquals(new double[] { 1, 3, 5 }, values(heap.toList()), 0d);
+  }
+
+  @Test
+  public void latestTest() {
+    BoundedQuantityHeap<TimedData<String>> heap = BoundedQuantityHeap.latest(2);
+    heap.accept(TimedData.of("a", 3000L));
+    heap.accept(TimedData.of("b", 1000L));
+    heap.accept(TimedData.of("c", 5000L));
+    Assert.assertEquals(Arrays.asList("c", "a"), heap.toList().stream().map(TimedData::get).collect(Collectors.toList()));
+  }
+
+  @Test
+  public void tiesInAcceptanceOrderTest() {
+    BoundedQuantityHeap<TimedData<String>> heap = BoundedQuantityHeap.latest(3);
+    for (String value : new String[] { "a", "b", "c", "d", "e" }) {
+      heap.accept(TimedData.of(value, 1000L));
+    }
+    Assert.assertEquals(Arrays.asList("a", "b", "c"), heap.toList().stream().map(TimedData::get).collect(Collectors.toList()));
+    BoundedQuantityHeap<TimedData<String>> other = BoundedQuantityHeap.latest(3);
+    other.accept(TimedData.of("f", 2000L));
+    other.accept(TimedData.of("g", 1000L));
+    Assert.assertEquals(Arrays.asList("f", "a", "b"), heap.combine(other).toList().stream().map(TimedData::get).collect(Collectors.toList()));
+  }
+
+  @Test
+  public void combineTest() {
+    BoundedQuantityHeap<Quantity<Energy>> heap = BoundedQuantityHeap.largest(2, Units.JOULE);
+    heap.accept(Quantities.getQuantity(5, Units.JOULE));
+    BoundedQuantityHeap<Quantity<Energy>> other = BoundedQuantityHeap.largest(2, Units.JOULE);
+    other.accept(Quantities.getQuantity(7, Units.JOULE));
+    other.accept(Quantities.getQuantity(3, Units.JOULE));
+    Assert.assertArrayEquals(new double[] { 7, 5 }, values(heap.combine(other).toList()), 0d);
+  }
+
+  @Test
+  public void collectorMatchesSortTest() {
+    Random random = new Random(42);
+    List<Quantity<Energy>> quantities = IntStream.range(0, 20000).mapToObj(i -> Quantities.getQuantity(random.nextDouble(), Units.JOULE))
+        .collect(Collectors.toList());
+    List<Quantity<Energy>> sorted = new ArrayList<>(quantities);
+    Collections.sort(sorted, QuantityFunctions.sortNumberDesc());
+    List<Quantity<Energy>> largest = quantities.parallelStream().collect(QuantityFunctions.largest(10, Units.JOULE));
+    Assert.assertEquals(sorted.subList(0, 10), largest);
+    List<Quantity<Energy>> smallest = quantities.parallelStream().collect(QuantityFunctions.smallest(10, Units.JOULE));
+    Collections.reverse(sorted);
+    Assert.assertEquals(sorted.subList(0, 10), smallest);
+  }
+
+  @Test
+  public void latestCollectorTest() {
+    List<TimedData<Integer>> data = IntStream.range(0, 100).mapToObj(i -> TimedData.of(i, i * 10L)).collect(Collectors.toList());
+    Collections.shuffle(data, new Random(42));
+    List<TimedData<Integer>> latest = data.stream().collect(QuantityFunctions.latest(3));
+    Assert.assertEquals(Arrays.asList(99, 98, 97), latest.stream().map(TimedData::get).collect(Collectors.toList()));
+  }
+}
@@ -0,0 +1,66 @@
+/*
+ * Units of Measurement Implementation for Java SE
+ * Copyright (c) 2005-2017, Jean-Marie Dautelle, Werner Keil, V2COM.
+ *
+ * All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without modification,
+ * are permitted provided that the following conditions are met:
+ *
+ * 1. Redistributions of source code must retain the above copyright notice,
+ *    this list of conditions and the following disclaimer.
+ *
+ * 2. Redistributions in binary form must reproduce the above copyright notice, this list of conditions
+ *    and the following disclaimer in the documentation and/or other materials provided with the distribution.
+ *
+ * 3. Neither the name of JSR-363 nor the names of its contributors may be used to endorse or promote products
+ *    derived from this software without specific prior written permission.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS"
+ * AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO,
+ * THE IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE
+ * ARE DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT HOLDER OR CONTRIBUTORS BE LIABLE
+ * FOR ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES
+ * (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES;
+ * LOSS OF USE, DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED
+ * AND ON ANY THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT
+ * (INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE OF THIS SOFTWARE,
+ * EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ */
+package tec.uom.se.function;
+
+import static org.junit.Assert.assertEquals;
+
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.junit.Test;
+
+public class DecimalConstantTest {
+
+  private static final String PI_50 = "3.14159265358979323846264338327950288419716939937510";
+
+  @Test
+  public void testTruncatesMostPreciseValue() {
+    final AtomicInteger computations = new AtomicInteger();
+    DecimalConstant constant = new DecimalConstant(digits -> {
+      computations.incrementAndGet();
+      return new BigDecimal(PI_50).setScale(digits, RoundingMode.DOWN);
+    });
+    assertEquals(new BigDecimal("3.1415926535"), constant.get(10));
+    assertEquals(new BigDecimal("3.14159"), constant.get(5));
+    assertEquals(1, computations.get());
+    assertEquals(new BigDecimal(PI_50), constant.get(50));
+    assertEquals(new BigDecimal("3.1415926535897932384626433832795028"), constant.get(34));
+    assertEquals(new BigDecimal("3.1415926535"), constant.get(10));
+    assertEquals(2, computations.get());
+  }
+
+  @Test
+  public void testPi() {
+    assertEquals(new BigDecimal(PI_50), PiMultiplierConverter.Pi.pi(50));
+    assertEquals(new BigDecimal("3.1415926"), PiMultiplierConverter.Pi.pi(7));
+    assertEquals(new BigDecimal(PI_50 + "58209749445923078164"), PiMultiplierConverter.Pi.pi(70));
+  }
+}
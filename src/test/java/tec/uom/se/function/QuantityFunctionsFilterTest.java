@@ -30,13 +30,18 @@
 package tec.uom.se.function;
 
 import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
 
 import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.List;
+import java.util.function.Predicate;
 import java.util.stream.Collectors;
 
 import javax.measure.Quantity;
+import javax.measure.Unit;
+import javax.measure.quantity.Temperature;
 import javax.measure.quantity.Time;
 import javax.measure.spi.QuantityFactory;
 import javax.measure.spi.ServiceProvider;
@@ -44,6 +49,8 @@ import javax.measure.spi.ServiceProvider;
 import org.junit.Before;
 import org.junit.Test;
 
+import tec.uom.se.quantity.Quantities;
+import tec.uom.se.unit.MetricPrefix;
 import tec.uom.se.unit.Units;
 
 public class QuantityFunctionsFilterTest {
@@ -200,6 +207,42 @@ public class QuantityFunctionsFilterTest {
 
   }
 
+  @Test
+  public void thresholdBoundaryTest() {
+    Predicate<Quantity<Time>> greater = QuantityFunctions.isGreaterThan(timeFactory.create(1, Units.HOUR));
+    Predicate<Quantity<Time>> greaterOrEqual = QuantityFunctions.isGreaterThanOrEqualTo(timeFactory.create(1, Units.HOUR));
+    for (int i = 0; i < 3; i++) {
+      assertFalse(greater.test(timeFactory.create(60, Units.MINUTE)));
+      assertTrue(greaterOrEqual.test(timeFactory.create(60, Units.MINUTE)));
+      assertTrue(greater.test(timeFactory.create(3601, Units.SECOND)));
+      assertFalse(greater.test(timeFactory.create(3599, Units.SECOND)));
+      assertTrue(greater.test(day));
+      assertFalse(greater.test(timeFactory.create(1, Units.HOUR)));
+    }
+  }
+
+  @Test
+  public void isBetweenMixedUnitsTest() {
+    Predicate<Quantity<Temperature>> between = QuantityFunctions.isBetween(Quantities.getQuantity(0, Units.CELSIUS),
+        Quantities.getQuantity(373.15, Units.KELVIN));
+    assertTrue(between.test(Quantities.getQuantity(273.15, Units.KELVIN)));
+    assertTrue(between.test(Quantities.getQuantity(100, Units.CELSIUS)));
+    assertFalse(between.test(Quantities.getQuantity(-1, Units.CELSIUS)));
+    assertFalse(between.test(Quantities.getQuantity(374, Units.KELVIN)));
+  }
+
+  @Test
+  public void isGreaterThanManyUnitsTest() {
+    Predicate<Quantity<Time>> longerThanAMinute = QuantityFunctions.isGreaterThan(Quantities.getQuantity(60, Units.SECOND));
+    for (int round = 0; round < 2; round++) {
+      for (MetricPrefix prefix : MetricPrefix.values()) {
+        Unit<Time> unit = Units.SECOND.transform(prefix.getConverter());
+        double seconds = prefix.getConverter().convert(1d);
+        assertEquals(seconds > 60, longerThanAMinute.test(Quantities.getQuantity(1, unit)));
+      }
+    }
+  }
+
   private List<Quantity<Time>> getTimes() {
     return Arrays.asList(day, hours, minutes, seconds);
   }
@@ -31,12 +31,17 @@ package tec.uom.se.function;
 
 import java.math.BigDecimal;
 import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.List;
 import java.util.Map;
+import java.util.Random;
 import java.util.stream.Collectors;
+import java.util.stream.IntStream;
 
+import javax.measure.Dimension;
 import javax.measure.Quantity;
 import javax.measure.Unit;
+import javax.measure.quantity.Length;
 import javax.measure.quantity.Time;
 import javax.measure.spi.QuantityFactory;
 import javax.measure.spi.ServiceProvider;
@@ -45,6 +50,9 @@ import org.junit.Assert;
 import org.junit.Before;
 import org.junit.Test;
 
+import tec.uom.se.quantity.Quantities;
+import tec.uom.se.quantity.QuantityDimension;
+import tec.uom.se.unit.MetricPrefix;
 import tec.uom.se.unit.Units;
 
 public class QuantityFunctionsGroupTest {
@@ -101,6 +109,96 @@ public class QuantityFunctionsGroupTest {
     Assert.assertNotNull(summary.getSum());
   }
 
+  @Test
+  public void summaryConcurrentTest() {
+    List<Quantity<Time>> times = createTimes();
+    QuantitySummaryStatistics<Time> summary = times.parallelStream().collect(QuantityFunctions.summarizeQuantityConcurrent(Units.SECOND));
+
+    Assert.assertEquals(4, summary.getCount());
+    Assert.assertEquals(100, summary.getMin().getValue().doubleValue(), 0d);
+    Assert.assertEquals(86400, summary.getMax().getValue().doubleValue(), 0d);
+    Assert.assertEquals(86400 + 64800 + 900 + 100, summary.getSum().getValue().doubleValue(), 0d);
+    Assert.assertEquals(Units.SECOND, summary.getAverage().getUnit());
+    Assert.assertEquals(times.stream().collect(QuantityFunctions.summarizeQuantity(Units.SECOND)).getStandardDeviation().getValue().doubleValue(),
+        summary.getStandardDeviation().getValue().doubleValue(), 1E-6);
+  }
+
+  @Test
+  public void varianceConcurrentWithLargeOffsetTest() {
+    Random random = new Random(42);
+    List<Quantity<Time>> times = new ArrayList<>();
+    for (int i = 0; i < 100000; i++) {
+      times.add(Quantities.getQuantity(1E9 + random.nextGaussian(), Units.SECOND));
+    }
+    QuantitySummaryStatistics<Time> sequential = times.stream().collect(QuantityFunctions.summarizeQuantity(Units.SECOND));
+    QuantitySummaryStatistics<Time> concurrent = times.parallelStream().collect(QuantityFunctions.summarizeQuantityConcurrent(Units.SECOND));
+
+    Assert.assertEquals(sequential.getCount(), concurrent.getCount());
+    double variance = sequential.getVariance().getValue().doubleValue();
+    Assert.assertEquals(1, variance, 0.05);
+    Assert.assertEquals(variance, concurrent.getVariance().getValue().doubleValue(), 1E-6);
+    Assert.assertEquals(sequential.getAverage().getValue().doubleValue(), concurrent.getAverage().getValue().doubleValue(), 1E-6);
+  }
+
+  @Test
+  public void sumConcurrentTest() {
+    Quantity<Time> sum = IntStream.range(0, 100000).parallel().mapToObj(i -> i % 2 == 0 ? minutes : seconds)
+        .collect(QuantityFunctions.sumConcurrent(Units.MINUTE));
+    Assert.assertEquals(Units.MINUTE, sum.getUnit());
+    Assert.assertEquals(50000 * 15 + 50000 * 100 / 60d, sum.getValue().doubleValue(), 1E-6);
+  }
+
+  @Test
+  public void summarizeByUnitConcurrentTest() {
+    List<Quantity<Time>> times = createTimes();
+    times.add(timeFactory.create(BigDecimal.valueOf(30), Units.MINUTE));
+    Map<Unit<Time>, QuantitySummaryStatistics<Time>> summaries = times.parallelStream().collect(QuantityFunctions.summarizeByUnitConcurrent());
+
+    Assert.assertEquals(4, summaries.size());
+    Assert.assertEquals(2, summaries.get(Units.MINUTE).getCount());
+    Assert.assertEquals(45, summaries.get(Units.MINUTE).getSum().getValue().doubleValue(), 0d);
+    Assert.assertEquals(1, summaries.get(Units.DAY).getCount());
+  }
+
+  @Test
+  public void groupBySystemUnitTest() {
+    Map<Unit<Time>, List<Quantity<Time>>> timeMap = createTimes().stream().collect(Collectors.groupingBy(QuantityFunctions.groupBySystemUnit()));
+
+    Assert.assertEquals(1, timeMap.keySet().size());
+    Assert.assertEquals(4, timeMap.get(Units.SECOND).size());
+  }
+
+  @Test
+  public void summarizeBySystemUnitTest() {
+    List<Quantity<Length>> lengths = Arrays.asList(Quantities.getQuantity(1000, Units.METRE), Quantities.getQuantity(1, MetricPrefix.KILO(Units.METRE)),
+        Quantities.getQuantity(500, MetricPrefix.CENTI(Units.METRE)));
+    Map<Unit<Length>, QuantitySummaryStatistics<Length>> summaries = lengths.parallelStream().collect(QuantityFunctions.summarizeBySystemUnit());
+
+    Assert.assertEquals(1, summaries.size());
+    QuantitySummaryStatistics<Length> summary = summaries.get(Units.METRE);
+    Assert.assertEquals(3, summary.getCount());
+    Assert.assertEquals(2005, summary.getSum().getValue().doubleValue(), 1E-9);
+    Assert.assertEquals(Units.METRE, summary.getSum().getUnit());
+    Assert.assertEquals(5, summary.getMin().getValue().doubleValue(), 1E-12);
+  }
+
+  @Test
+  public void summarizeByDimensionTest() {
+    List<Quantity<?>> mixed = new ArrayList<>(createTimes());
+    mixed.add(Quantities.getQuantity(2, MetricPrefix.KILO(Units.METRE)));
+    mixed.add(Quantities.getQuantity(300, Units.METRE));
+    Map<Dimension, QuantitySummaryStatistics<?>> summaries = mixed.stream().collect(QuantityFunctions.summarizeByDimension());
+
+    Assert.assertEquals(2, summaries.size());
+    QuantitySummaryStatistics<?> time = summaries.get(QuantityDimension.TIME);
+    Assert.assertEquals(4, time.getCount());
+    Assert.assertEquals(86400 + 64800 + 900 + 100, time.getSum().getValue().doubleValue(), 1E-9);
+    Assert.assertEquals(Units.SECOND, time.getSum().getUnit());
+    QuantitySummaryStatistics<?> length = summaries.get(QuantityDimension.LENGTH);
+    Assert.assertEquals(2, length.getCount());
+    Assert.assertEquals(2300, length.getSum().getValue().doubleValue(), 1E-9);
+  }
+
   private List<Quantity<Time>> createTimes() {
     List<Quantity<Time>> times = new ArrayList<>();
     times.add(day);
@@ -33,6 +33,7 @@ import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.Comparator;
 import java.util.List;
+import java.util.Random;
 import java.util.stream.Collectors;
 
 import javax.measure.Quantity;
@@ -141,6 +142,39 @@ public class QuantityFunctionsSortTest {
     Assert.assertEquals(dayinHour, result.get(4));
   }
 
+  @Test
+  public void sortTest() {
+    List<Quantity<Time>> times = QuantityFunctions.sort(getTimes());
+
+    Assert.assertEquals(seconds, times.get(0));
+    Assert.assertEquals(minutes, times.get(1));
+    Assert.assertEquals(hours, times.get(2));
+    Assert.assertEquals(day, times.get(3));
+    Assert.assertTrue(QuantityFunctions.sort(new ArrayList<Quantity<Time>>()).isEmpty());
+  }
+
+  @Test
+  public void sortArrayTest() {
+    @SuppressWarnings("unchecked")
+    Quantity<Time>[] times = getTimes().toArray(new Quantity[0]);
+    QuantityFunctions.sort(times, Units.SECOND);
+
+    Assert.assertArrayEquals(new Object[] { seconds, minutes, hours, day }, times);
+  }
+
+  @Test
+  public void sortLargeTest() {
+    Random random = new Random(7);
+    List<Quantity<Time>> times = new ArrayList<>();
+    for (int i = 0; i < 50000; i++) {
+      times.add(timeFactory.create(random.nextInt(1000), i % 2 == 0 ? Units.MINUTE : Units.SECOND));
+    }
+    List<Quantity<Time>> expected = new ArrayList<>(times);
+    expected.sort(QuantityFunctions.sortNatural());
+
+    Assert.assertEquals(expected, QuantityFunctions.sort(times, Units.SECOND));
+  }
+
   private List<Quantity<Time>> getTimes() {
     return Arrays.asList(day, hours, minutes, seconds);
   }
@@ -0,0 +1,163 @@
+/*
+ * Units of Measurement Implementation for Java SE
+ * Copyright (c) 2005-2017, Jean-Marie Dautelle, Werner Keil, V2COM.
+ *
+ * All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without modification,
+ * are permitted provided that the following conditions are met:
+ *
+ * 1. Redistributions of source code must retain the above copyright notice,
+ *    this list of conditions and the following disclaimer.
+ *
+ * 2. Redistributions in binary form must reproduce the above copyright notice, this list of conditions
+ *    and the following disclaimer in the documentation and/or other materials provided with the distribution.
+ *
+ * 3. Neither the name of JSR-363 nor the names of its contributors may be used to endorse or promote products
+ *    derived from this software without specific prior written permission.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS"
+ * AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO,
+ * THE IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE
+ * ARE DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT HOLDER OR CONTRIBUTORS BE LIABLE
+ * FOR ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES
+ * (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES;
+ * LOSS OF USE, DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED
+ * AND ON ANY THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT
+ * (INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE OF THIS SOFTWARE,
+ * EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ */
+package tec.uom.se.function;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Random;
+import java.util.stream.IntStream;
+
+import javax.measure.Quantity;
+import javax.measure.quantity.Temperature;
+import javax.measure.quantity.Time;
+
+import org.junit.Assert;
+import org.junit.Test;
+
+import tec.uom.se.quantity.Quantities;
+import tec.uom.se.unit.MetricPrefix;
+import tec.uom.se.unit.Units;
+
+public class QuantityQuantileSketchTest {
+
+  @Test
+  public void shouldBeEmpty() {
+    QuantityQuantileSketch<Time> sketch = new QuantityQuantileSketch<>(Units.SECOND, 0.01);
+    Assert.assertEquals(0L, sketch.getCount());
+    Assert.assertEquals(0L, sketch.getMedian().getValue().longValue());
+  }
+
+  @Test(expected = IllegalArgumentException.class)
+  public void shouldErrorWhenAccuracyIsInvalid() {
+    new QuantityQuantileSketch<>(Units.SECOND, 1);
+  }
+
+  @Test(expected = IllegalArgumentException.class)
+  public void shouldErrorWhenQuantileIsInvalid() {
+    new QuantityQuantileSketch<>(Units.SECOND, 0.01).getQuantile(1.5);
+  }
+
+  @Test
+  public void quantilesWithinAccuracyTest() {
+    Random random = new Random(42);
+    List<Double> values = new ArrayList<>();
+    QuantityQuantileSketch<Time> sketch = new QuantityQuantileSketch<>(Units.SECOND, 0.01);
+    for (int i = 0; i < 10000; i++) {
+      double value = Math.exp(random.nextGaussian() * 3);
+      values.add(value);
+      sketch.accept(Quantities.getQuantity(value, Units.SECOND));
+    }
+    Collections.sort(values);
+    for (double q : new double[] { 0, 0.1, 0.5, 0.9, 0.99, 0.999, 1 }) {
+      double expected = values.get((int) (q * (values.size() - 1)));
+      double actual = sketch.getQuantile(q).getValue().doubleValue();
+      Assert.assertEquals("q=" + q, expected, actual, expected * 0.01);
+    }
+    Assert.assertEquals(values.get(0), sketch.getQuantile(0).getValue().doubleValue(), 0d);
+    Assert.assertEquals(values.get(values.size() - 1), sketch.getQuantile(1).getValue().doubleValue(), 0d);
+  }
+
+  @Test
+  public void negativeAndZeroTest() {
+    QuantityQuantileSketch<Temperature> sketch = new QuantityQuantileSketch<>(Units.CELSIUS, 0.01);
+    IntStream.rangeClosed(-50, 50).forEach(i -> sketch.accept(Quantities.getQuantity(i, Units.CELSIUS)));
+    Assert.assertEquals(-50, sketch.getQuantile(0).getValue().doubleValue(), 0d);
+    Assert.assertEquals(-49, sketch.getQuantile(0.01).getValue().doubleValue(), 0.49);
+    Assert.assertEquals(0, sketch.getMedian().getValue().doubleValue(), 0d);
+    Assert.assertEquals(-25, sketch.getQuantile(0.25).getValue().doubleValue(), 0.25);
+    Assert.assertEquals(40, sketch.getQuantile(0.9).getValue().doubleValue(), 0.4);
+  }
+
+  @Test
+  public void combineTest() {
+    QuantityQuantileSketch<Time> sketchA = new QuantityQuantileSketch<>(Units.SECOND, 0.01);
+    QuantityQuantileSketch<Time> sketchB = new QuantityQuantileSketch<>(Units.SECOND, 0.01);
+    IntStream.rangeClosed(1, 500).forEach(i -> sketchA.accept(Quantities.getQuantity(i, Units.SECOND)));
+    IntStream.rangeClosed(501, 1000).forEach(i -> sketchB.accept(Quantities.getQuantity(i, Units.SECOND)));
+    QuantityQuantileSketch<Time> sketch = sketchA.combine(sketchB);
+    Assert.assertEquals(1000L, sketch.getCount());
+    Assert.assertEquals(500, sketch.getMedian().getValue().doubleValue(), 5);
+    Assert.assertEquals(990, sketch.getQuantile(0.99).getValue().doubleValue(), 9.9);
+  }
+
+  @Test
+  public void combineDifferentUnitTest() {
+    QuantityQuantileSketch<Time> sketchA = new QuantityQuantileSketch<>(Units.SECOND, 0.01);
+    QuantityQuantileSketch<Time> sketchB = new QuantityQuantileSketch<>(MetricPrefix.MILLI(Units.SECOND), 0.01);
+    IntStream.rangeClosed(1, 500).forEach(i -> sketchA.accept(Quantities.getQuantity(i, Units.SECOND)));
+    IntStream.rangeClosed(501, 1000).forEach(i -> sketchB.accept(Quantities.getQuantity(i * 1000, MetricPrefix.MILLI(Units.SECOND))));
+    QuantityQuantileSketch<Time> sketch = sketchA.combine(sketchB);
+    Assert.assertEquals(1000L, sketch.getCount());
+    Assert.assertEquals(750, sketch.getQuantile(0.75).getValue().doubleValue(), 15);
+    Assert.assertEquals(1000, sketch.getQuantile(1).getValue().doubleValue(), 1E-9);
+  }
+
+  @Test
+  public void boundedMemoryTest() {
+    QuantityQuantileSketch<Time> sketch = new QuantityQuantileSketch<>(Units.SECOND, 0.01);
+    for (int e = -300; e <= 300; e++) {
+      sketch.accept(Quantities.getQuantity(Math.pow(10, e), Units.SECOND));
+    }
+    Assert.assertEquals(601L, sketch.getCount());
+    Assert.assertEquals(1E300, sketch.getQuantile(1).getValue().doubleValue(), 1E298);
+    Assert.assertEquals(1E290, sketch.getQuantile(590d / 600).getValue().doubleValue(), 1E288);
+    // collapsed into the lowest remaining bucket
+    Assert.assertTrue(sketch.getQuantile(0.5).getValue().doubleValue() > 1E200);
+    Assert.assertEquals(1E-300, sketch.getQuantile(0).getValue().doubleValue(), 0d);
+  }
+
+  @Test
+  public void collapsedBucketsAreNotResizedTest() {
+    QuantityQuantileSketch.Buckets buckets = new QuantityQuantileSketch.Buckets(64);
+    buckets.add(1000, 1L);
+    buckets.add(900, 1L);
+    long[] counts = buckets.counts;
+    Assert.assertEquals(64, counts.length);
+    for (int i = 0; i < 1000; i++) {
+      buckets.add(i % 900, 1L);
+    }
+    Assert.assertSame(counts, buckets.counts);
+    Assert.assertEquals(1001L, buckets.get(937));
+    Assert.assertEquals(1L, buckets.get(1000));
+  }
+
+  @Test
+  public void quantileCollectorTest() {
+    List<Quantity<Time>> times = new ArrayList<>();
+    IntStream.rangeClosed(1, 1000).forEach(i -> times.add(Quantities.getQuantity(i, MetricPrefix.MILLI(Units.SECOND))));
+    Quantity<Time> p99 = times.parallelStream().collect(QuantityFunctions.quantile(Units.SECOND, 0.99));
+    Assert.assertEquals(Units.SECOND, p99.getUnit());
+    Assert.assertEquals(0.99, p99.getValue().doubleValue(), 0.0099);
+
+    Quantity<Time> deviation = times.stream().collect(QuantityFunctions.standardDeviation(MetricPrefix.MILLI(Units.SECOND)));
+    Assert.assertEquals(Math.sqrt(1000 * 1001 / 12d), deviation.getValue().doubleValue(), 1E-9);
+  }
+}
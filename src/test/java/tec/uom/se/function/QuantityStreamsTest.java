@@ -0,0 +1,102 @@
+/*
+ * Units of Measurement Implementation for Java SE
+ * Copyright (c) 2005-2017, Jean-Marie Dautelle, Werner Keil, V2COM.
+ *
+ * All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without modification,
+ * are permitted provided that the following conditions are met:
+ *
+ * 1. Redistributions of source code must retain the above copyright notice,
+ *    this list of conditions and the following disclaimer.
+ *
+ * 2. Redistributions in binary form must reproduce the above copyright notice, this list of conditions
+ *    and the following disclaimer in the documentation and/or other materials provided with the distribution.
+ *
+ * 3. Neither the name of JSR-363 nor the names of its contributors may be used to endorse or promote products
+ *    derived from this software without specific prior written permission.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS"
+ * AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO,
+ * THE IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE
+ * ARE DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT HOLDER OR CONTRIBUTORS BE LIABLE
+ * FOR ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES
+ * (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES;
+ * LOSS OF USE, DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED
+ * AND ON ANY THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT
+ * (INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE OF THIS SOFTWARE,
+ * EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ */
+package tec.uom.se.function;
+
+import java.util.List;
+import java.util.Spliterator;
+import java.util.stream.Collectors;
+import java.util.stream.IntStream;
+
+import javax.measure.Quantity;
+import javax.measure.quantity.Length;
+
+import org.junit.Assert;
+import org.junit.Test;
+
+import tec.uom.se.unit.MetricPrefix;
+import tec.uom.se.unit.Units;
+
+public class QuantityStreamsTest {
+
+  private static double[] values(int n) {
+    return IntStream.rangeClosed(1, n).asDoubleStream().toArray();
+  }
+
+  @Test
+  public void streamTest() {
+    List<Quantity<Length>> quantities = QuantityStreams.of(values(3), Units.METRE).collect(Collectors.toList());
+    Assert.assertEquals(3, quantities.size());
+    Assert.assertEquals(2d, quantities.get(1).getValue().doubleValue(), 0d);
+    Assert.assertEquals(Units.METRE, quantities.get(1).getUnit());
+  }
+
+  @Test
+  public void rangeTest() {
+    Assert.assertEquals(3L, QuantityStreams.of(values(10), 2, 5, Units.METRE).count());
+  }
+
+  @Test(expected = ArrayIndexOutOfBoundsException.class)
+  public void shouldErrorWhenRangeIsInvalid() {
+    QuantityStreams.of(values(10), 5, 11, Units.METRE);
+  }
+
+  @Test
+  public void spliteratorTest() {
+    Spliterator<Quantity<Length>> spliterator = QuantityStreams.of(values(100), Units.METRE).spliterator();
+    Assert.assertTrue(spliterator.hasCharacteristics(Spliterator.SIZED | Spliterator.SUBSIZED | Spliterator.IMMUTABLE | Spliterator.ORDERED));
+    Spliterator<Quantity<Length>> prefix = spliterator.trySplit();
+    Assert.assertEquals(50L, prefix.estimateSize());
+    Assert.assertEquals(50L, spliterator.estimateSize());
+  }
+
+  @Test
+  public void parallelSummaryTest() {
+    QuantitySummaryStatistics<Length> summary = QuantityStreams.of(values(100000), MetricPrefix.KILO(Units.METRE)).parallel()
+        .collect(QuantityFunctions.summarizeQuantity(Units.METRE));
+    Assert.assertEquals(100000L, summary.getCount());
+    Assert.assertEquals(5000050000000d, summary.getSum().getValue().doubleValue(), 1e-3);
+    Assert.assertEquals(100000000d, summary.getMax().getValue().doubleValue(), 0d);
+  }
+
+  @Test
+  public void valuesTest() {
+    double[] metres = QuantityStreams.values(values(3), MetricPrefix.KILO(Units.METRE), Units.METRE).toArray();
+    Assert.assertArrayEquals(new double[] { 1000, 2000, 3000 }, metres, 1e-9);
+  }
+
+  @Test
+  public void summarizeTest() {
+    QuantitySummaryStatistics<Length> summary = QuantityStreams.summarize(QuantityStreams.values(values(1000), Units.METRE, Units.METRE).parallel(),
+        Units.METRE);
+    Assert.assertEquals(1000L, summary.getCount());
+    Assert.assertEquals(500.5d, summary.getAverage().getValue().doubleValue(), 1e-9);
+    Assert.assertEquals(1d, summary.getMin().getValue().doubleValue(), 0d);
+  }
+}
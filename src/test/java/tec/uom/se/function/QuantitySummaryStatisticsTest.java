@@ -29,6 +29,8 @@
  */
 package tec.uom.se.function;
 
+import java.util.stream.IntStream;
+
 import javax.measure.quantity.Time;
 
 import org.junit.Assert;
@@ -122,6 +124,75 @@ public class QuantitySummaryStatisticsTest {
     Assert.assertEquals(4L, summary.getAverage().getValue().longValue());
   }
 
+  @Test
+  public void combineDifferentUnitTest() {
+    QuantitySummaryStatistics<Time> summaryA = createSummaryTime();
+    QuantitySummaryStatistics<Time> summaryB = new QuantitySummaryStatistics<>(Units.HOUR);
+    summaryB.accept(Quantities.getQuantity(12, Units.HOUR));
+    summaryB.accept(Quantities.getQuantity(10, Units.DAY));
+    QuantitySummaryStatistics<Time> summary = summaryA.combine(summaryB);
+
+    Assert.assertEquals(5L, summary.getCount());
+    Assert.assertEquals(0.5, summary.getMin().getValue().doubleValue(), 1E-12);
+    Assert.assertEquals(10, summary.getMax().getValue().doubleValue(), 1E-12);
+    Assert.assertEquals(22.5, summary.getSum().getValue().doubleValue(), 1E-12);
+    Assert.assertEquals(4.5, summary.getAverage().getValue().doubleValue(), 1E-12);
+  }
+
+  @Test
+  public void combineEmptyTest() {
+    QuantitySummaryStatistics<Time> summary = new QuantitySummaryStatistics<Time>(Units.DAY).combine(createSummaryTime());
+    Assert.assertEquals(3L, summary.getCount());
+    Assert.assertEquals(1L, summary.getMin().getValue().longValue());
+    Assert.assertEquals(9L, summary.getMax().getValue().longValue());
+
+    summary.combine(new QuantitySummaryStatistics<>(Units.HOUR));
+    Assert.assertEquals(3L, summary.getCount());
+    Assert.assertEquals(12L, summary.getSum().getValue().longValue());
+  }
+
+  @Test
+  public void compensatedSumTest() {
+    QuantitySummaryStatistics<Time> summary = new QuantitySummaryStatistics<>(Units.SECOND);
+    summary.accept(Quantities.getQuantity(1E16, Units.SECOND));
+    for (int i = 0; i < 1000; i++) {
+      summary.accept(Quantities.getQuantity(1d, Units.SECOND));
+    }
+    summary.accept(Quantities.getQuantity(-1E16, Units.SECOND));
+    Assert.assertEquals(1000d, summary.getSum().getValue().doubleValue(), 0d);
+  }
+
+  @Test
+  public void parallelSummaryTest() {
+    QuantitySummaryStatistics<Time> summary = IntStream.rangeClosed(1, 10000).parallel()
+        .mapToObj(i -> Quantities.getQuantity(i, i % 2 == 0 ? Units.SECOND : Units.MINUTE))
+        .collect(QuantityFunctions.summarizeQuantity(Units.SECOND));
+
+    Assert.assertEquals(10000L, summary.getCount());
+    Assert.assertEquals(2, summary.getMin().getValue().doubleValue(), 0d);
+    Assert.assertEquals(9999 * 60, summary.getMax().getValue().doubleValue(), 0d);
+    Assert.assertEquals(25005000 + 60 * 25000000d, summary.getSum().getValue().doubleValue(), 0d);
+  }
+
+  @Test
+  public void standardDeviationTest() {
+    QuantitySummaryStatistics<Time> summary = createSummaryTime();
+    Assert.assertEquals(Math.sqrt(19), summary.getStandardDeviation().getValue().doubleValue(), 1E-12);
+    Assert.assertEquals(Math.sqrt(19) * 24, summary.getStandardDeviation(Units.HOUR).getValue().doubleValue(), 1E-9);
+    Assert.assertEquals(19, summary.getVariance().getValue().doubleValue(), 1E-12);
+    Assert.assertEquals(Units.DAY.pow(2), summary.getVariance().getUnit());
+
+    QuantitySummaryStatistics<Time> combined = createSummaryTime().combine(createSummaryTime().to(Units.HOUR));
+    Assert.assertEquals(Math.sqrt(15.2), combined.getStandardDeviation().getValue().doubleValue(), 1E-12);
+  }
+
+  @Test
+  public void standardDeviationOfOneTest() {
+    QuantitySummaryStatistics<Time> summary = new QuantitySummaryStatistics<>(Units.DAY);
+    summary.accept(Quantities.getQuantity(10, Units.DAY));
+    Assert.assertEquals(0, summary.getStandardDeviation().getValue().doubleValue(), 0d);
+  }
+
   private QuantitySummaryStatistics<Time> createSummaryTime() {
     QuantitySummaryStatistics<Time> summary = new QuantitySummaryStatistics<>(Units.DAY);
 
@@ -0,0 +1,145 @@
+/*
+ * Units of Measurement Implementation for Java SE
+ * Copyright (c) 2005-2017, Jean-Marie Dautelle, Werner Keil, V2COM.
+ *
+ * All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without modification,
+ * are permitted provided that the following conditions are met:
+ *
+ * 1. Redistributions of source code must retain the above copyright notice,
+ *    this list of conditions and the following disclaimer.
+ *
+ * 2. Redistributions in binary form must reproduce the above copyright notice, this list of conditions
+ *    and the following disclaimer in the documentation and/or other materials provided with the distribution.
+ *
+ * 3. Neither the name of JSR-363 nor the names of its contributors may be used to endorse or promote products
+ *    derived from this software without specific prior written permission.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS"
+ * AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO,
+ * THE IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE
+ * ARE DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT HOLDER OR CONTRIBUTORS BE LIABLE
+ * FOR ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES
+ * (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES;
+ * LOSS OF USE, DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED
+ * AND ON ANY THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT
+ * (INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE OF THIS SOFTWARE,
+ * EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ */
+package tec.uom.se.function;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+import javax.measure.quantity.Power;
+
+import org.junit.Assert;
+import org.junit.Test;
+
+import tec.uom.se.quantity.Quantities;
+import tec.uom.se.quantity.time.TimedData;
+import tec.uom.se.unit.MetricPrefix;
+import tec.uom.se.unit.Units;
+
+public class WindowedQuantityStatisticsTest {
+
+  @Test
+  public void shouldBeEmpty() {
+    WindowedQuantityStatistics<Power> stats = WindowedQuantityStatistics.sliding(Units.WATT, Duration.ofSeconds(60));
+    Assert.assertEquals(0L, stats.getCount());
+    Assert.assertEquals(0d, stats.getSum().getValue().doubleValue(), 0d);
+    Assert.assertEquals(0d, stats.getMax().getValue().doubleValue(), 0d);
+  }
+
+  @Test(expected = IllegalArgumentException.class)
+  public void shouldErrorWhenTimestampDecreases() {
+    WindowedQuantityStatistics<Power> stats = WindowedQuantityStatistics.sliding(Units.WATT, Duration.ofSeconds(60));
+    stats.accept(2000L, Quantities.getQuantity(1, Units.WATT));
+    stats.accept(1000L, Quantities.getQuantity(1, Units.WATT));
+  }
+
+  @Test
+  public void slidingWindowTest() {
+    WindowedQuantityStatistics<Power> stats = WindowedQuantityStatistics.sliding(Units.WATT, Duration.ofSeconds(2));
+    stats.accept(TimedData.of(Quantities.getQuantity(5, Units.WATT), 0L));
+    stats.accept(TimedData.of(Quantities.getQuantity(1, MetricPrefix.KILO(Units.WATT)), 1000L));
+    stats.accept(TimedData.of(Quantities.getQuantity(3, Units.WATT), 1500L));
+    Assert.assertEquals(3L, stats.getCount());
+    Assert.assertEquals(1008d, stats.getSum().getValue().doubleValue(), 1e-9);
+    Assert.assertEquals(3d, stats.getMin().getValue().doubleValue(), 0d);
+    Assert.assertEquals(1000d, stats.getMax().getValue().doubleValue(), 0d);
+    Assert.assertEquals(Units.WATT, stats.getAverage().getUnit());
+
+    stats.advanceTo(2000L);
+    Assert.assertEquals(2L, stats.getCount());
+    Assert.assertEquals(1003d, stats.getSum().getValue().doubleValue(), 1e-9);
+
+    stats.accept(3000L, Quantities.getQuantity(7, Units.WATT));
+    Assert.assertEquals(2L, stats.getCount());
+    Assert.assertEquals(3d, stats.getMin().getValue().doubleValue(), 0d);
+    Assert.assertEquals(7d, stats.getMax().getValue().doubleValue(), 0d);
+    Assert.assertEquals(5d, stats.getAverage().getValue().doubleValue(), 1e-9);
+
+    stats.advanceTo(10000L);
+    Assert.assertEquals(0L, stats.getCount());
+    Assert.assertEquals(0d, stats.getSum().getValue().doubleValue(), 0d);
+  }
+
+  @Test
+  public void slidingWindowMatchesBruteForceTest() {
+    Random random = new Random(42);
+    WindowedQuantityStatistics<Power> stats = WindowedQuantityStatistics.sliding(Units.WATT, Duration.ofMillis(500));
+    List<Long> times = new ArrayList<>();
+    List<Double> values = new ArrayList<>();
+    long time = 0;
+    for (int i = 0; i < 5000; i++) {
+      time += random.nextInt(20);
+      double value = random.nextDouble() * 100;
+      times.add(time);
+      values.add(value);
+      stats.accept(time, Quantities.getQuantity(value, Units.WATT));
+      if (i % 97 == 0) {
+        double min = Double.POSITIVE_INFINITY, max = Double.NEGATIVE_INFINITY, sum = 0;
+        long count = 0;
+        for (int j = 0; j <= i; j++) {
+          if (times.get(j) > time - 500) {
+            double v = values.get(j);
+            min = Math.min(min, v);
+            max = Math.max(max, v);
+            sum += v;
+            count++;
+          }
+        }
+        Assert.assertEquals(count, stats.getCount());
+        Assert.assertEquals(min, stats.getMin().getValue().doubleValue(), 0d);
+        Assert.assertEquals(max, stats.getMax().getValue().doubleValue(), 0d);
+        Assert.assertEquals(sum, stats.getSum().getValue().doubleValue(), 1e-9);
+      }
+    }
+  }
+
+  @Test
+  public void tumblingWindowTest() {
+    List<QuantitySummaryStatistics<Power>> closed = new ArrayList<>();
+    WindowedQuantityStatistics<Power> stats = WindowedQuantityStatistics.tumbling(Units.WATT, Duration.ofMinutes(1)).onWindowClosed(closed::add);
+    stats.accept(61000L, Quantities.getQuantity(2, Units.WATT));
+    stats.accept(119999L, Quantities.getQuantity(4, Units.WATT));
+    Assert.assertEquals(60000L, stats.getWindowStart());
+    Assert.assertEquals(2L, stats.getCount());
+
+    stats.accept(120000L, Quantities.getQuantity(10, Units.WATT));
+    Assert.assertEquals(120000L, stats.getWindowStart());
+    Assert.assertEquals(1L, stats.getCount());
+    Assert.assertEquals(10d, stats.getAverage().getValue().doubleValue(), 0d);
+    Assert.assertEquals(1, closed.size());
+    Assert.assertEquals(2L, closed.get(0).getCount());
+    Assert.assertEquals(3d, closed.get(0).getAverage().getValue().doubleValue(), 1e-9);
+
+    stats.advanceTo(300000L);
+    Assert.assertEquals(2, closed.size());
+    Assert.assertEquals(0L, stats.getCount());
+  }
+}
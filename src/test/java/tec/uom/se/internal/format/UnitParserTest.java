@@ -0,0 +1,149 @@
+/*
+ * Units of Measurement Implementation for Java SE
+ * Copyright (c) 2005-2017, Jean-Marie Dautelle, Werner Keil, V2COM.
+ *
+ * All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without modification,
+ * are permitted provided that the following conditions are met:
+ *
+ * 1. Redistributions of source code must retain the above copyright notice,
+ *    this list of conditions and the following disclaimer.
+ *
+ * 2. Redistributions in binary form must reproduce the above copyright notice, this list of conditions
+ *    and the following disclaimer in the documentation and/or other materials provided with the distribution.
+ *
+ * 3. Neither the name of JSR-363 nor the names of its contributors may be used to endorse or promote products
+ *    derived from this software without specific prior written permission.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS"
+ * AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO,
+ * THE IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE
+ * ARE DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT HOLDER OR CONTRIBUTORS BE LIABLE
+ * FOR ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES
+ * (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES;
+ * LOSS OF USE, DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED
+ * AND ON ANY THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT
+ * (INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE OF THIS SOFTWARE,
+ * EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ */
+package tec.uom.se.internal.format;
+
+import static org.junit.Assert.*;
+import static tec.uom.se.unit.MetricPrefix.KILO;
+import static tec.uom.se.unit.Units.*;
+
+import java.io.StringReader;
+import java.util.Locale;
+import java.util.ResourceBundle;
+
+import javax.measure.Unit;
+
+import org.junit.Test;
+
+import tec.uom.se.AbstractUnit;
+import tec.uom.se.format.SymbolMap;
+import tec.uom.se.function.LogConverter;
+import tec.uom.se.unit.TransformedUnit;
+
+/**
+ * Compares the hand-written {@link UnitParser} with the generated {@link UnitFormatParser}.
+ */
+public class UnitParserTest {
+  private static final SymbolMap SYMBOLS = SymbolMap.of(ResourceBundle.getBundle("tec.uom.se.format.messages", Locale.ROOT));
+
+  private static final String[] VALID = { "m", "km", "m/s", "m·kg/s²", "m*kg/s^2", "m^2", "m^-2", "m^+3", "m^(1/2)", "m^(-2/3)", "km²", "km³/h",
+      "(m/s)^-1", "1/m", "1/kg", "2*m", "0.5·m", "1.5E-2·m", "1e3·g", ".5·m", "K+273.15", "K-273.15", "273.15+K", "32-K", "log(m)",
+      "2^m", "m:", "((m))", "km/(1/2)", "(1/2)/(1/2)", "g^-1/(1/2)", "cd/(1/2)-1", "mol/mm^3", "m²/m²", "kg·m²/s³/A" };
+
+  private static final String[] SYNTAX_ERRORS = { "", "bl//^--1a", "xyz", "m/", "m^", "m^a", "(m", "m)", "e", "m^(1/", "m--1", "m*/s" };
+
+  private static final String[] LEXICAL_ERRORS = { "m s", "m.", ".", "m/ s", "e ", "log m", "99999999999999999999·m" };
+
+  private static Unit<?> generated(String s) throws TokenException {
+    return new UnitFormatParser(SYMBOLS, new StringReader(s)).parseUnit();
+  }
+
+  @Test
+  public void testSameUnitsAsGenerated() throws Exception {
+    for (String s : VALID) {
+      UnitParser parser = new UnitParser(SYMBOLS);
+      Unit<?> unit = parser.parse(s);
+      assertNotNull(s + ": " + parser.getErrorMessage(), unit);
+      assertEquals(UnitParser.NO_ERROR, parser.getErrorKind());
+      assertEquals(-1, parser.getErrorIndex());
+      Unit<?> expected = generated(s);
+      assertEquals(s, expected, unit);
+      assertEquals(s, expected.toString(), unit.toString());
+    }
+  }
+
+  @Test
+  public void testSyntaxErrors() throws Exception {
+    for (String s : SYNTAX_ERRORS) {
+      UnitParser parser = new UnitParser(SYMBOLS);
+      assertNull(s, parser.parse(s));
+      assertEquals(s, UnitParser.SYNTAX_ERROR, parser.getErrorKind());
+      assertNotNull(parser.getErrorMessage());
+      try {
+        generated(s);
+        fail(s);
+      } catch (TokenException e) {
+        // both parsers reject the string
+      }
+    }
+  }
+
+  @Test
+  public void testLexicalErrors() throws Exception {
+    for (String s : LEXICAL_ERRORS) {
+      UnitParser parser = new UnitParser(SYMBOLS);
+      assertNull(s, parser.parse(s));
+      assertEquals(s, UnitParser.LEXICAL_ERROR, parser.getErrorKind());
+      try {
+        generated(s);
+        fail(s);
+      } catch (TokenMgrError | NumberFormatException e) {
+        // both parsers reject the string
+      }
+    }
+  }
+
+  @Test
+  public void testErrorIndex() {
+    UnitParser parser = new UnitParser(SYMBOLS);
+    assertNull(parser.parse("m/xyz"));
+    assertEquals(2, parser.getErrorIndex());
+    assertEquals("Unknown unit 'xyz' at index 2", parser.getErrorMessage());
+    assertNull(parser.parse("m s"));
+    assertEquals(1, parser.getErrorIndex());
+    assertNull(parser.parse("m/"));
+    assertEquals(2, parser.getErrorIndex());
+    assertEquals(KILO(METRE), parser.parse("km"));
+    assertEquals(-1, parser.getErrorIndex());
+  }
+
+  @Test
+  public void testRange() {
+    UnitParser parser = new UnitParser(SYMBOLS);
+    assertEquals(METRE.divide(SECOND), parser.parse("[m/s]", 1, 4));
+    assertNull(parser.parse("12 m s", 3, 6));
+    assertEquals(4, parser.getErrorIndex());
+  }
+
+  @Test
+  public void testNaturalBase() {
+    UnitParser parser = new UnitParser(SYMBOLS);
+    assertEquals(new LogConverter(Math.E), ((TransformedUnit<?>) parser.parse("ln(m)")).getConverter());
+    assertEquals(new LogConverter(Math.E).inverse(), ((TransformedUnit<?>) parser.parse("e^m")).getConverter());
+  }
+
+  @Test
+  public void testFewerIntermediates() {
+    UnitParser parser = new UnitParser(SYMBOLS);
+    assertEquals(METRE.pow(12), parser.parse("m^12"));
+    assertEquals(METRE.pow(-12), parser.parse("m^-12"));
+    assertEquals(AbstractUnit.ONE, parser.parse("m^0"));
+    assertEquals(AbstractUnit.ONE, parser.parse("m/m"));
+  }
+}
@@ -0,0 +1,71 @@
+/*
+ * Units of Measurement Implementation for Java SE
+ * Copyright (c) 2005-2017, Jean-Marie Dautelle, Werner Keil, V2COM.
+ *
+ * All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without modification,
+ * are permitted provided that the following conditions are met:
+ *
+ * 1. Redistributions of source code must retain the above copyright notice,
+ *    this list of conditions and the following disclaimer.
+ *
+ * 2. Redistributions in binary form must reproduce the above copyright notice, this list of conditions
+ *    and the following disclaimer in the documentation and/or other materials provided with the distribution.
+ *
+ * 3. Neither the name of JSR-363 nor the names of its contributors may be used to endorse or promote products
+ *    derived from this software without specific prior written permission.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS"
+ * AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO,
+ * THE IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE
+ * ARE DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT HOLDER OR CONTRIBUTORS BE LIABLE
+ * FOR ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES
+ * (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES;
+ * LOSS OF USE, DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED
+ * AND ON ANY THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT
+ * (INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE OF THIS SOFTWARE,
+ * EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ */
+package tec.uom.se.internal.function;
+
+import static org.junit.Assert.assertEquals;
+
+import org.junit.Test;
+
+public class CompensatedSumTest {
+
+  @Test
+  public void testCompensatesRounding() {
+    CompensatedSum sum = new CompensatedSum();
+    sum.add(1E16);
+    for (int i = 0; i < 1000; i++) {
+      sum.add(1d);
+    }
+    sum.add(-1E16);
+    assertEquals(1000d, sum.value(), 0d);
+  }
+
+  @Test
+  public void testMergeAndSet() {
+    CompensatedSum a = new CompensatedSum();
+    CompensatedSum b = new CompensatedSum();
+    a.add(1E16);
+    for (int i = 0; i < 10; i++) {
+      b.add(0.1);
+    }
+    a.add(b);
+    a.add(-1E16);
+    assertEquals(1d, a.value(), 1E-15);
+    a.set(5d);
+    assertEquals(5d, a.value(), 0d);
+  }
+
+  @Test
+  public void testOverflowToInfinity() {
+    CompensatedSum sum = new CompensatedSum();
+    sum.add(Double.MAX_VALUE);
+    sum.add(Double.MAX_VALUE);
+    assertEquals(Double.POSITIVE_INFINITY, sum.value(), 0d);
+  }
+}
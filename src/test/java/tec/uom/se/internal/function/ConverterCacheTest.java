@@ -0,0 +1,78 @@
+/*
+ * Units of Measurement Implementation for Java SE
+ * Copyright (c) 2005-2017, Jean-Marie Dautelle, Werner Keil, V2COM.
+ *
+ * All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without modification,
+ * are permitted provided that the following conditions are met:
+ *
+ * 1. Redistributions of source code must retain the above copyright notice,
+ *    this list of conditions and the following disclaimer.
+ *
+ * 2. Redistributions in binary form must reproduce the above copyright notice, this list of conditions
+ *    and the following disclaimer in the documentation and/or other materials provided with the distribution.
+ *
+ * 3. Neither the name of JSR-363 nor the names of its contributors may be used to endorse or promote products
+ *    derived from this software without specific prior written permission.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS"
+ * AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO,
+ * THE IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE
+ * ARE DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT HOLDER OR CONTRIBUTORS BE LIABLE
+ * FOR ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES
+ * (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES;
+ * LOSS OF USE, DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED
+ * AND ON ANY THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT
+ * (INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE OF THIS SOFTWARE,
+ * EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ */
+package tec.uom.se.internal.function;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertSame;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import javax.measure.Unit;
+import javax.measure.UnitConverter;
+import javax.measure.quantity.Length;
+
+import org.junit.Test;
+
+import tec.uom.se.quantity.Quantities;
+import tec.uom.se.unit.MetricPrefix;
+import tec.uom.se.unit.Units;
+
+public class ConverterCacheTest {
+
+  @Test
+  public void testTargetUnitNeedsNoConversion() {
+    ConverterCache<Length> cache = new ConverterCache<>(Units.METRE);
+    assertNull(cache.converterFrom(Units.METRE));
+    assertEquals(3d, cache.convert(Quantities.getQuantity(3d, Units.METRE)), 0d);
+  }
+
+  @Test
+  public void testMixedUnitsReuseConverters() {
+    ConverterCache<Length> cache = new ConverterCache<>(Units.METRE);
+    List<Unit<Length>> units = new ArrayList<>();
+    for (MetricPrefix prefix : MetricPrefix.values()) {
+      units.add(Units.METRE.transform(prefix.getConverter()));
+    }
+    List<UnitConverter> first = new ArrayList<>();
+    for (Unit<Length> unit : units) {
+      first.add(cache.converterFrom(unit));
+    }
+    // more units than the identity table holds, in alternating order
+    for (int round = 0; round < 3; round++) {
+      for (int i = units.size() - 1; i >= 0; i--) {
+        assertSame(first.get(i), cache.converterFrom(units.get(i)));
+      }
+    }
+    assertEquals(2000d, cache.convert(Quantities.getQuantity(2d, MetricPrefix.KILO(Units.METRE))), 1e-9);
+    assertEquals(0.02d, cache.convert(Quantities.getQuantity(2d, MetricPrefix.CENTI(Units.METRE))), 1e-12);
+  }
+}
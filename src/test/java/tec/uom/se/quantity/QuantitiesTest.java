@@ -35,7 +35,12 @@ import static tec.uom.se.unit.Units.PASCAL;
 
 import java.math.BigDecimal;
 import java.math.BigInteger;
+import java.math.MathContext;
 import java.math.RoundingMode;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.NoSuchElementException;
 
 import javax.measure.Quantity;
 import javax.measure.quantity.Pressure;
@@ -101,4 +106,56 @@ public class QuantitiesTest {
     Assert.assertEquals(expected.setScale(4, RoundingMode.HALF_EVEN), value.setScale(4, RoundingMode.HALF_EVEN));
   }
 
-}
\ No newline at end of file
+  @Test
+  public void sumExactTest() {
+    List<Quantity<Time>> times = Arrays.asList(Quantities.getQuantity(1, Units.HOUR), Quantities.getQuantity(15, Units.MINUTE),
+        Quantities.getQuantity(BigDecimal.valueOf(0.5), Units.HOUR));
+    Quantity<Time> sum = Quantities.sum(times, Units.HOUR);
+    assertEquals(Units.HOUR, sum.getUnit());
+    assertEquals(0, new BigDecimal("1.75").compareTo((BigDecimal) sum.getValue()));
+
+    Quantity<Time> integral = Quantities.sum(Arrays.asList(Quantities.getQuantity(Long.MAX_VALUE, Units.SECOND), Quantities.getQuantity(1, Units.SECOND)),
+        Units.SECOND);
+    assertEquals(BigDecimal.valueOf(Long.MAX_VALUE).add(BigDecimal.ONE), integral.getValue());
+    assertEquals(Long.valueOf(3), Quantities.sum(Arrays.asList(Quantities.getQuantity(1, Units.SECOND), Quantities.getQuantity(2, Units.SECOND)),
+        Units.SECOND).getValue());
+  }
+
+  @Test
+  public void sumCompensatedTest() {
+    List<Quantity<Time>> times = new ArrayList<>();
+    times.add(Quantities.getQuantity(1E16, Units.SECOND));
+    for (int i = 0; i < 1000; i++) {
+      times.add(Quantities.getQuantity(1d, Units.SECOND));
+    }
+    times.add(Quantities.getQuantity(-1E16, Units.SECOND));
+    assertEquals(1000d, Quantities.sum(times, Units.SECOND).getValue().doubleValue(), 0d);
+    assertEquals(0d, Quantities.sum(new ArrayList<Quantity<Time>>(), Units.SECOND).getValue().doubleValue(), 0d);
+  }
+
+  @Test
+  public void meanTest() {
+    @SuppressWarnings("unchecked")
+    Quantity<Time>[] times = new Quantity[] { Quantities.getQuantity(1, Units.MINUTE), Quantities.getQuantity(30, Units.SECOND),
+        Quantities.getQuantity(0d, Units.SECOND) };
+    assertEquals(30d, Quantities.mean(times, Units.SECOND).getValue().doubleValue(), 1E-12);
+    assertEquals(0, new BigDecimal(2).divide(new BigDecimal(3), MathContext.DECIMAL128)
+        .compareTo((BigDecimal) Quantities.mean(Arrays.asList(Quantities.getQuantity(1, Units.SECOND), Quantities.getQuantity(1, Units.SECOND),
+            Quantities.getQuantity(0, Units.SECOND)), Units.SECOND).getValue()));
+  }
+
+  @Test(expected = NoSuchElementException.class)
+  public void meanEmptyTest() {
+    Quantities.mean(new ArrayList<Quantity<Time>>(), Units.SECOND);
+  }
+
+  @Test
+  public void minMaxTest() {
+    Quantity<Time> day = Quantities.getQuantity(1, Units.DAY);
+    Quantity<Time> hours = Quantities.getQuantity(18, Units.HOUR);
+    Quantity<Time> seconds = Quantities.getQuantity(100, Units.SECOND);
+    List<Quantity<Time>> times = Arrays.asList(hours, day, seconds, Quantities.getQuantity(24, Units.HOUR));
+    assertEquals(seconds, Quantities.min(times));
+    assertEquals(day, Quantities.max(times));
+  }
+}
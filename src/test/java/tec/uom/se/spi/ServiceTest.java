@@ -31,13 +31,18 @@ package tec.uom.se.spi;
 
 import static org.junit.Assert.*;
 
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
 import java.util.List;
 
+import javax.measure.quantity.Length;
 import javax.measure.spi.ServiceProvider;
 import javax.measure.spi.UnitFormatService;
 
 import org.junit.Test;
 
+import tec.uom.lib.common.function.IntPrioritySupplier;
 import tec.uom.se.format.SimpleUnitFormat;
 
 /**
@@ -65,4 +70,21 @@ public class ServiceTest {
     assertNotNull(ufs.getUnitFormat());
     assertTrue(SimpleUnitFormat.DefaultFormat.class.isInstance(ufs.getUnitFormat()));
   }
+
+  @Test
+  public void testResolvedOnce() throws Exception {
+    ServiceProvider provider = ServiceProvider.current();
+    assertSame(provider.getUnitFormatService(), provider.getUnitFormatService());
+    assertSame(provider.getSystemOfUnitsService(), provider.getSystemOfUnitsService());
+    assertSame(provider.getQuantityFactory(Length.class), provider.getQuantityFactory(Length.class));
+  }
+
+  @Test
+  public void testServicePriority() throws Exception {
+    Object low = (IntPrioritySupplier) () -> 1;
+    Object high = (IntPrioritySupplier) () -> 1000;
+    List<Object> services = new ArrayList<>(Arrays.asList(low, "unprioritized", high));
+    Collections.sort(services, DefaultServiceProvider::compareServices);
+    assertEquals(Arrays.asList(high, low, "unprioritized"), services);
+  }
 }
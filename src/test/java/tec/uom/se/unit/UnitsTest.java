@@ -47,6 +47,7 @@ import org.junit.BeforeClass;
 import org.junit.Test;
 
 import tec.uom.se.AbstractConverter;
+import tec.uom.se.AbstractSystemOfUnits;
 import tec.uom.se.quantity.Quantities;
 import tec.uom.se.unit.TransformedUnit;
 import tec.uom.se.AbstractUnit;
@@ -398,4 +399,22 @@ public class UnitsTest {
     assertNotNull(result);
     assertEquals("s", result.toString());
   }
-}
\ No newline at end of file
+
+  /**
+   * Subclasses of AbstractSystemOfUnits can use its logger.
+   */
+  @Test
+  public void testSystemOfUnitsLogger() {
+    class CustomUnits extends AbstractSystemOfUnits {
+      @Override
+      public String getName() {
+        return "Custom";
+      }
+
+      String loggerName() {
+        return logger().getName();
+      }
+    }
+    assertEquals(AbstractSystemOfUnits.class.getName(), new CustomUnits().loggerName());
+  }
+}